@@ -0,0 +1,134 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import implementations.AVLTree;
+import implementations.BSTree;
+import implementations.SplayTree;
+import utilities.BSTreeADT;
+
+/**
+ * Average number of key comparisons per token for the plain, AVL and splay
+ * trees on real text. The tokens of the input are split the same way as
+ * WordTracker.processFile does. The ingest pass calls findOrAdd for every token,
+ * as the WordTracker ingest loop does; the lookup pass then searches every
+ * token again in the finished tree.
+ *
+ * Run with: java -cp bin benchmarks.ComparisonCount [input]
+ */
+public class ComparisonCount
+{
+	/**
+	 * Word key that counts how often it is compared.
+	 */
+	private static final class CountedKey implements Comparable<CountedKey>
+	{
+		static long comparisons;
+		private final String text;
+
+		CountedKey(String text)
+		{
+			this.text = text;
+		}
+
+		@Override
+		public int compareTo(CountedKey other)
+		{
+			comparisons++;
+			return text.compareTo(other.text);
+		}
+	}
+
+	/**
+	 * Creates an empty tree of one kind.
+	 */
+	private interface Factory
+	{
+		BSTreeADT<CountedKey> create();
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		String input = args.length > 0 ? args[0] : "res/test3.txt";
+		List<String> tokens = tokens(input);
+
+		System.out.printf("%s: %d tokens%n", input, tokens.size());
+		System.out.printf("%-10s %16s %16s %8s%n", "tree", "ingest cmp/token", "lookup cmp/token", "height");
+		run("BSTree", tokens, new Factory()
+		{
+			@Override
+			public BSTreeADT<CountedKey> create()
+			{
+				return new BSTree<CountedKey>();
+			}
+		});
+		run("AVLTree", tokens, new Factory()
+		{
+			@Override
+			public BSTreeADT<CountedKey> create()
+			{
+				return new AVLTree<CountedKey>();
+			}
+		});
+		run("SplayTree", tokens, new Factory()
+		{
+			@Override
+			public BSTreeADT<CountedKey> create()
+			{
+				return new SplayTree<CountedKey>();
+			}
+		});
+	}
+
+	private static void run(String name, List<String> tokens, Factory factory)
+	{
+		BSTreeADT<CountedKey> tree = factory.create();
+		CountedKey.comparisons = 0;
+		for (String token : tokens)
+		{
+			tree.findOrAdd(new CountedKey(token));
+		}
+		double ingest = CountedKey.comparisons / (double) tokens.size();
+
+		CountedKey.comparisons = 0;
+		for (String token : tokens)
+		{
+			tree.search(new CountedKey(token));
+		}
+		double lookup = CountedKey.comparisons / (double) tokens.size();
+		System.out.printf("%-10s %16.2f %16.2f %8d%n", name, ingest, lookup, tree.getHeight());
+	}
+
+	/**
+	 * Splits a file into lower-case words, replacing every character that is
+	 * neither a letter nor whitespace by a space.
+	 */
+	private static List<String> tokens(String filename) throws IOException
+	{
+		List<String> tokens = new ArrayList<String>();
+		try (BufferedReader reader = new BufferedReader(new FileReader(filename)))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				StringBuilder cleaned = new StringBuilder();
+				for (char c : line.toLowerCase().toCharArray())
+				{
+					cleaned.append(Character.isLetter(c) || Character.isWhitespace(c) ? c : ' ');
+				}
+				for (String word : cleaned.toString().trim().split("\\s+"))
+				{
+					if (!word.isEmpty())
+					{
+						tokens.add(word);
+					}
+				}
+			}
+		}
+		return tokens;
+	}
+}
@@ -0,0 +1,127 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import implementations.BSTree;
+import implementations.ConcurrentBSTree;
+import utilities.BSTreeADT;
+
+/**
+ * Contention benchmark comparing the ConcurrentBSTree with a plain BSTree
+ * guarded by one global lock. Each round N threads add disjoint slices of the
+ * same shuffled keys into one shared tree; the throughput of the whole ingest
+ * is reported for 1, 2, 4, ... threads up to twice the number of cores.
+ *
+ * Run with: java -cp bin benchmarks.ContentionBenchmark [keys] [rounds]
+ */
+public class ContentionBenchmark
+{
+	/**
+	 * Interface of a tree under test, so both variants are driven the same way.
+	 */
+	private interface Target
+	{
+		void add(Integer key);
+	}
+
+	public static void main(String[] args) throws InterruptedException
+	{
+		int keys = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int maxThreads = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+		Integer[] shuffled = shuffledKeys(keys);
+
+		System.out.printf("%d keys, %d cores%n", keys, Runtime.getRuntime().availableProcessors());
+		System.out.printf("%8s %22s %22s%n", "threads", "global lock (Mops/s)", "concurrent (Mops/s)");
+		for (int threads = 1; threads <= maxThreads; threads *= 2)
+		{
+			double locked = 0, concurrent = 0;
+			// First round of each configuration is warm-up and not counted
+			for (int round = 0; round <= rounds; round++)
+			{
+				final BSTree<Integer> plain = new BSTree<Integer>();
+				double l = run(shuffled, threads, new Target()
+				{
+					@Override
+					public void add(Integer key)
+					{
+						synchronized (plain)
+						{
+							plain.add(key);
+						}
+					}
+				});
+				final BSTreeADT<Integer> shared = new ConcurrentBSTree<Integer>();
+				double c = run(shuffled, threads, new Target()
+				{
+					@Override
+					public void add(Integer key)
+					{
+						shared.add(key);
+					}
+				});
+				if (round > 0)
+				{
+					locked += l / rounds;
+					concurrent += c / rounds;
+				}
+			}
+			System.out.printf("%8d %22.2f %22.2f%n", threads, locked, concurrent);
+		}
+	}
+
+	/**
+	 * Adds all keys from the given number of threads and returns the throughput
+	 * in millions of adds per second.
+	 */
+	private static double run(final Integer[] keys, int threads, final Target target) throws InterruptedException
+	{
+		List<Thread> workers = new ArrayList<Thread>();
+		for (int t = 0; t < threads; t++)
+		{
+			final int from = (int) ((long) keys.length * t / threads);
+			final int to = (int) ((long) keys.length * (t + 1) / threads);
+			workers.add(new Thread(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					for (int i = from; i < to; i++)
+					{
+						target.add(keys[i]);
+					}
+				}
+			}));
+		}
+		long start = System.nanoTime();
+		for (Thread worker : workers)
+		{
+			worker.start();
+		}
+		for (Thread worker : workers)
+		{
+			worker.join();
+		}
+		return keys.length / ((System.nanoTime() - start) / 1000.0);
+	}
+
+	private static Integer[] shuffledKeys(int count)
+	{
+		Integer[] keys = new Integer[count];
+		for (int i = 0; i < count; i++)
+		{
+			keys[i] = i;
+		}
+		Random random = new Random(42);
+		for (int i = count - 1; i > 0; i--)
+		{
+			int j = random.nextInt(i + 1);
+			Integer swap = keys[i];
+			keys[i] = keys[j];
+			keys[j] = swap;
+		}
+		return keys;
+	}
+}
@@ -0,0 +1,146 @@
+package benchmarks;
+
+import java.util.Random;
+
+import implementations.BSTree;
+import implementations.BTree;
+import utilities.BSTreeADT;
+
+/**
+ * Lookup latency of the binary BSTree against the BTree. For each size the
+ * keys 0 .. n - 1 are added in shuffled order, then random present keys are
+ * looked up with contains and the mean time per lookup is reported. The keys
+ * are Integers, so both trees also pay one pointer dereference per comparison.
+ *
+ * Memory is the limit on the sizes: each Integer key costs about 16 bytes and
+ * each BSTree node 32, so 10M keys need about 1 GB of heap and 100M keys
+ * about 6 GB (run with -Xmx8g).
+ *
+ * Run with: java -Xmx8g -cp bin benchmarks.LookupLatency [sizes...] [-order=N]
+ */
+public class LookupLatency
+{
+	// Number of lookups timed per tree and size
+	private static final int LOOKUPS = 2000000;
+
+	public static void main(String[] args)
+	{
+		int order = BTree.DEFAULT_ORDER;
+		StringBuilder sizes = new StringBuilder();
+		for (String arg : args)
+		{
+			if (arg.startsWith("-order="))
+			{
+				order = Integer.parseInt(arg.substring("-order=".length()));
+			} else
+			{
+				sizes.append(arg).append(' ');
+			}
+		}
+		String[] counts = sizes.length() > 0 ? sizes.toString().trim().split(" ")
+				: new String[] { "1000000", "10000000", "100000000" };
+
+		System.out.printf("%12s %14s %14s %10s%n", "keys", "BSTree (ns)", "BTree (ns)", "levels");
+		for (String count : counts)
+		{
+			int n = Integer.parseInt(count);
+			Integer[] keys;
+			try
+			{
+				keys = shuffledKeys(n);
+			} catch (OutOfMemoryError e)
+			{
+				System.out.printf("%12d %s%n", n, "not enough heap");
+				continue;
+			}
+			Integer[] probes = probes(keys);
+
+			BSTree<Integer> bst = new BSTree<Integer>();
+			double binary = measure(bst, keys, probes);
+			bst.clear();
+			BTree<Integer> btree = new BTree<Integer>(order);
+			double bplus = measure(btree, keys, probes);
+			System.out.printf("%12d %14.1f %14.1f %10d%n", n, binary, bplus, btree.getHeight());
+			btree.clear();
+		}
+	}
+
+	/**
+	 * Fills the tree and returns the mean nanoseconds per lookup, or NaN if the
+	 * tree does not fit in the heap.
+	 */
+	private static double measure(BSTreeADT<Integer> tree, Integer[] keys, Integer[] probes)
+	{
+		try
+		{
+			for (Integer key : keys)
+			{
+				tree.add(key);
+			}
+		} catch (OutOfMemoryError e)
+		{
+			tree.clear();
+			return Double.NaN;
+		}
+
+		// First pass warms up the JIT and is not counted
+		int found = 0;
+		long best = Long.MAX_VALUE;
+		for (int round = 0; round < 4; round++)
+		{
+			long start = System.nanoTime();
+			for (Integer probe : probes)
+			{
+				if (tree.contains(probe))
+				{
+					found++;
+				}
+			}
+			long elapsed = System.nanoTime() - start;
+			if (round > 0)
+			{
+				best = Math.min(best, elapsed);
+			}
+		}
+		if (found != 4 * probes.length)
+		{
+			throw new IllegalStateException("Lost keys: " + found);
+		}
+		return best / (double) probes.length;
+	}
+
+	/**
+	 * Returns random keys to look up, reusing the stored Integer objects.
+	 */
+	private static Integer[] probes(Integer[] keys)
+	{
+		Random random = new Random(7);
+		Integer[] probes = new Integer[LOOKUPS];
+		for (int i = 0; i < LOOKUPS; i++)
+		{
+			probes[i] = keys[random.nextInt(keys.length)];
+		}
+		return probes;
+	}
+
+	/**
+	 * Returns the keys 0 .. count - 1 in a shuffled order.
+	 */
+	private static Integer[] shuffledKeys(int count)
+	{
+		Integer[] keys = new Integer[count];
+		for (int i = 0; i < count; i++)
+		{
+			keys[i] = i;
+		}
+		Random random = new Random(42);
+		for (int i = count - 1; i > 0; i--)
+		{
+			int j = random.nextInt(i + 1);
+			Integer swap = keys[i];
+			keys[i] = keys[j];
+			keys[j] = swap;
+		}
+		return keys;
+	}
+}
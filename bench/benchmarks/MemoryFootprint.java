@@ -0,0 +1,125 @@
+package benchmarks;
+
+import java.util.Random;
+
+import implementations.ArrayBSTree;
+import implementations.AVLTree;
+import implementations.BSTree;
+import utilities.BSTreeADT;
+
+/**
+ * Heap footprint of the tree structure per entry. The same Integer keys are
+ * added to each kind of tree, so the difference in used heap after a full
+ * collection is the cost of the nodes (or node arrays) alone.
+ *
+ * Run with: java -cp bin benchmarks.MemoryFootprint [keys]
+ */
+public class MemoryFootprint
+{
+	/**
+	 * Creates an empty tree of one kind.
+	 */
+	private interface Factory
+	{
+		BSTreeADT<Integer> create();
+	}
+
+	public static void main(String[] args)
+	{
+		int keys = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		Integer[] shuffled = shuffledKeys(keys);
+
+		System.out.printf("%d keys%n", keys);
+		System.out.printf("%-12s %16s%n", "tree", "bytes per entry");
+		measure("BSTree", shuffled, new Factory()
+		{
+			@Override
+			public BSTreeADT<Integer> create()
+			{
+				return new BSTree<Integer>();
+			}
+		});
+		measure("AVLTree", shuffled, new Factory()
+		{
+			@Override
+			public BSTreeADT<Integer> create()
+			{
+				return new AVLTree<Integer>();
+			}
+		});
+		measure("ArrayBSTree", shuffled, new Factory()
+		{
+			@Override
+			public BSTreeADT<Integer> create()
+			{
+				return new ArrayBSTree<Integer>();
+			}
+		});
+		// Presized, so the figure excludes the slack left by the last growth
+		final int capacity = keys;
+		measure("ArrayBSTree*", shuffled, new Factory()
+		{
+			@Override
+			public BSTreeADT<Integer> create()
+			{
+				return new ArrayBSTree<Integer>(capacity);
+			}
+		});
+	}
+
+	/**
+	 * Fills a tree of the given kind and prints the heap it retains per entry.
+	 */
+	private static void measure(String name, Integer[] keys, Factory factory)
+	{
+		long before = usedHeap();
+		BSTreeADT<Integer> tree = factory.create();
+		for (Integer key : keys)
+		{
+			tree.add(key);
+		}
+		long after = usedHeap();
+		System.out.printf("%-12s %16.1f%n", name, (after - before) / (double) tree.size());
+	}
+
+	/**
+	 * Returns the used heap after asking for full collections until it settles.
+	 */
+	private static long usedHeap()
+	{
+		Runtime runtime = Runtime.getRuntime();
+		long used = Long.MAX_VALUE;
+		for (int i = 0; i < 10; i++)
+		{
+			System.gc();
+			long now = runtime.totalMemory() - runtime.freeMemory();
+			if (now >= used)
+			{
+				break;
+			}
+			used = now;
+		}
+		return used;
+	}
+
+	/**
+	 * Returns the keys 0 .. count - 1 in a shuffled order.
+	 */
+	private static Integer[] shuffledKeys(int count)
+	{
+		Integer[] keys = new Integer[count];
+		for (int i = 0; i < count; i++)
+		{
+			keys[i] = i;
+		}
+		Random random = new Random(42);
+		for (int i = count - 1; i > 0; i--)
+		{
+			int j = random.nextInt(i + 1);
+			Integer swap = keys[i];
+			keys[i] = keys[j];
+			keys[j] = swap;
+		}
+		return keys;
+	}
+}
@@ -0,0 +1,190 @@
+package benchmarks;
+
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import implementations.AVLTree;
+import implementations.BSTree;
+import implementations.IntBSTree;
+import utilities.BSTreeADT;
+import utilities.Iterator;
+
+/**
+ * IntBSTree against BSTree&lt;Integer&gt; and AVLTree&lt;Integer&gt; on int keys:
+ * time to add n keys in random and in ascending order (ascending is how line
+ * numbers arrive), to look each one up, and to iterate over all of them, plus
+ * the heap retained per key. The boxed trees box every key on each call, as a
+ * caller holding ints would. Each figure is the best of several rounds.
+ *
+ * Run with: java -cp bin benchmarks.PrimitiveTreeBenchmark [keys] [rounds]
+ */
+public class PrimitiveTreeBenchmark
+{
+	public static void main(String[] args)
+	{
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int[] random = shuffledKeys(n);
+		int[] ascending = new int[n];
+		for (int i = 0; i < n; i++)
+		{
+			ascending[i] = i;
+		}
+
+		System.out.printf("%d keys, best of %d rounds (ms)%n", n, rounds);
+		System.out.printf("%-22s %10s %10s %10s %10s %10s%n", "tree", "add rand", "add asc", "contains", "iterate",
+				"bytes/key");
+		report("IntBSTree", n, rounds, random, ascending, null);
+		report("AVLTree<Integer>", n, rounds, random, ascending, true);
+		// A plain BSTree degenerates into a chain on ascending keys, so that column is skipped
+		report("BSTree<Integer>", n, rounds, random, null, false);
+	}
+
+	/**
+	 * Runs the rounds for one kind of tree: null for IntBSTree, true for
+	 * AVLTree, false for BSTree.
+	 */
+	private static void report(String name, int n, int rounds, int[] random, int[] ascending, Boolean avl)
+	{
+		long addRandom = Long.MAX_VALUE, addAscending = Long.MAX_VALUE;
+		long lookup = Long.MAX_VALUE, iterate = Long.MAX_VALUE;
+		double bytes = 0;
+		for (int round = 0; round <= rounds; round++)
+		{
+			long before = usedHeap();
+			long start = System.nanoTime();
+			Object tree = fill(avl, random);
+			long filled = System.nanoTime();
+			bytes = (usedHeap() - before) / (double) n;
+			long found = lookupAll(tree, random);
+			long looked = System.nanoTime();
+			long sum = iterateAll(tree);
+			long iterated = System.nanoTime();
+			if (found != n || sum != (long) n * (n - 1) / 2)
+			{
+				throw new IllegalStateException("Wrong result for " + name);
+			}
+			long ordered = 0;
+			if (ascending != null)
+			{
+				long ascendingStart = System.nanoTime();
+				fill(avl, ascending);
+				ordered = System.nanoTime() - ascendingStart;
+			}
+			// First round is warm-up
+			if (round > 0)
+			{
+				addRandom = Math.min(addRandom, filled - start);
+				lookup = Math.min(lookup, looked - filled);
+				iterate = Math.min(iterate, iterated - looked);
+				addAscending = Math.min(addAscending, ordered);
+			}
+		}
+		System.out.printf("%-22s %10.1f %10s %10.1f %10.1f %10.1f%n", name, addRandom / 1e6,
+				ascending == null ? "-" : String.format("%.1f", addAscending / 1e6), lookup / 1e6, iterate / 1e6, bytes);
+	}
+
+	private static Object fill(Boolean avl, int[] keys)
+	{
+		if (avl == null)
+		{
+			IntBSTree tree = new IntBSTree();
+			for (int key : keys)
+			{
+				tree.add(key);
+			}
+			return tree;
+		}
+		BSTreeADT<Integer> tree = avl ? new AVLTree<Integer>() : new BSTree<Integer>();
+		for (int key : keys)
+		{
+			tree.add(key);
+		}
+		return tree;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static long lookupAll(Object tree, int[] keys)
+	{
+		long found = 0;
+		if (tree instanceof IntBSTree)
+		{
+			IntBSTree primitive = (IntBSTree) tree;
+			for (int key : keys)
+			{
+				found += primitive.contains(key) ? 1 : 0;
+			}
+		} else
+		{
+			BSTreeADT<Integer> boxed = (BSTreeADT<Integer>) tree;
+			for (int key : keys)
+			{
+				found += boxed.contains(key) ? 1 : 0;
+			}
+		}
+		return found;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static long iterateAll(Object tree)
+	{
+		long sum = 0;
+		if (tree instanceof IntBSTree)
+		{
+			PrimitiveIterator.OfInt it = ((IntBSTree) tree).inorderIterator();
+			while (it.hasNext())
+			{
+				sum += it.nextInt();
+			}
+		} else
+		{
+			Iterator<Integer> it = ((BSTreeADT<Integer>) tree).inorderIterator();
+			while (it.hasNext())
+			{
+				sum += it.next();
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Returns the used heap after asking for full collections until it settles.
+	 */
+	private static long usedHeap()
+	{
+		Runtime runtime = Runtime.getRuntime();
+		long used = Long.MAX_VALUE;
+		for (int i = 0; i < 10; i++)
+		{
+			System.gc();
+			long now = runtime.totalMemory() - runtime.freeMemory();
+			if (now >= used)
+			{
+				break;
+			}
+			used = now;
+		}
+		return used;
+	}
+
+	/**
+	 * Returns the keys 0 .. count - 1 in a shuffled order.
+	 */
+	private static int[] shuffledKeys(int count)
+	{
+		int[] keys = new int[count];
+		for (int i = 0; i < count; i++)
+		{
+			keys[i] = i;
+		}
+		Random random = new Random(42);
+		for (int i = count - 1; i > 0; i--)
+		{
+			int j = random.nextInt(i + 1);
+			int swap = keys[i];
+			keys[i] = keys[j];
+			keys[j] = swap;
+		}
+		return keys;
+	}
+}
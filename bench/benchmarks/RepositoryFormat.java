@@ -0,0 +1,88 @@
+package benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import application.Word;
+import application.WordTracker;
+import implementations.BSTree;
+import utilities.BSTreeADT;
+
+/**
+ * Size and speed of the saved repository. res/test3.txt is copied under N
+ * different names and all copies are ingested into one BSTree, which is then
+ * serialized the way WordTracker.saveRepository does, into memory so that disk
+ * speed is left out. Reports the byte count and the best of several write and
+ * read timings.
+ *
+ * Run with: java -cp bin benchmarks.RepositoryFormat [copies] [input]
+ */
+public class RepositoryFormat
+{
+	// Timed rounds after one warm-up round
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) throws Exception
+	{
+		int copies = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		File input = new File(args.length > 1 ? args[1] : "res/test3.txt");
+
+		File directory = Files.createTempDirectory("repository").toFile();
+		BSTreeADT<Word> tree = new BSTree<Word>();
+		for (int i = 0; i < copies; i++)
+		{
+			File copy = new File(directory, "copy" + i + ".txt");
+			Files.copy(input.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			WordTracker.processFile(tree, copy.getPath());
+			copy.delete();
+		}
+		directory.delete();
+
+		byte[] bytes = null;
+		long bestWrite = Long.MAX_VALUE, bestRead = Long.MAX_VALUE;
+		for (int round = 0; round <= ROUNDS; round++)
+		{
+			long start = System.nanoTime();
+			bytes = write(tree);
+			long written = System.nanoTime();
+			if (read(bytes).size() != tree.size())
+			{
+				throw new IllegalStateException("Repository did not round-trip");
+			}
+			long read = System.nanoTime();
+			if (round > 0)
+			{
+				bestWrite = Math.min(bestWrite, written - start);
+				bestRead = Math.min(bestRead, read - written);
+			}
+		}
+		System.out.printf("%d copies of %s: %d words%n", copies, input.getName(), tree.size());
+		System.out.printf("repository: %,d bytes, write %.1f ms, read %.1f ms%n", bytes.length, bestWrite / 1e6,
+				bestRead / 1e6);
+	}
+
+	private static byte[] write(BSTreeADT<Word> tree) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+		{
+			out.writeObject(tree);
+		}
+		return bytes.toByteArray();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static BSTreeADT<Word> read(byte[] bytes) throws IOException, ClassNotFoundException
+	{
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes)))
+		{
+			return (BSTreeADT<Word>) in.readObject();
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package benchmarks;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import application.Word;
+import application.WordTracker;
+import implementations.BSTree;
+import utilities.BSTreeADT;
+
+/**
+ * Heap retained by a repository of Words. res/test3.txt is copied under N
+ * different names and all copies are ingested into one BSTree, so each word
+ * carries N files of line numbers, as in a corpus of N documents. The used
+ * heap after a full collection, before and after ingesting, gives the cost of
+ * the words and their occurrences; the tree nodes are included in the total.
+ * With 1 copy of a large input, nearly all of the heap is line numbers, which
+ * shows the cost per occurrence of the compressed posting lists.
+ *
+ * Run with: java -cp bin benchmarks.WordFootprint [copies] [input]
+ */
+public class WordFootprint
+{
+	public static void main(String[] args) throws Exception
+	{
+		int copies = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		File input = new File(args.length > 1 ? args[1] : "res/test3.txt");
+
+		File directory = Files.createTempDirectory("footprint").toFile();
+		String[] files = new String[copies];
+		for (int i = 0; i < copies; i++)
+		{
+			File copy = new File(directory, "copy" + i + ".txt");
+			Files.copy(input.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			files[i] = copy.getPath();
+		}
+
+		long before = usedHeap();
+		BSTreeADT<Word> tree = new BSTree<Word>();
+		for (String file : files)
+		{
+			WordTracker.processFile(tree, file);
+		}
+		long retained = usedHeap() - before;
+
+		final long[] occurrences = new long[1];
+		tree.forEachInOrder(word -> {
+			occurrences[0] += word.getFrequency();
+			return true;
+		});
+		System.out.printf("%d copies of %s: %d words, %d occurrences%n", copies, input, tree.size(), occurrences[0]);
+		System.out.printf("retained heap %.1f MB, %.1f bytes per word, %.1f bytes per occurrence%n",
+				retained / 1e6, retained / (double) tree.size(), retained / (double) occurrences[0]);
+
+		for (String file : files)
+		{
+			new File(file).delete();
+		}
+		directory.delete();
+	}
+
+	/**
+	 * Returns the used heap after asking for full collections until it settles.
+	 */
+	private static long usedHeap()
+	{
+		Runtime runtime = Runtime.getRuntime();
+		long used = Long.MAX_VALUE;
+		for (int i = 0; i < 10; i++)
+		{
+			System.gc();
+			long now = runtime.totalMemory() - runtime.freeMemory();
+			if (now >= used)
+			{
+				break;
+			}
+			used = now;
+		}
+		return used;
+	}
+}
@@ -0,0 +1,172 @@
+package benchmarks.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import implementations.AVLTree;
+import implementations.BSTree;
+import implementations.SplayTree;
+import utilities.Iterator;
+import utilities.Visitor;
+
+/**
+ * Hot paths of the trees that WordTracker ingests into. add and search
+ * measure the whole key array (size keys per call); the remove benchmarks
+ * remove the smallest or largest element and add it back, so the tree keeps
+ * its size and each call is one removal plus one insert at the edge.
+ * <p>
+ * The forEach benchmarks visit with a visitor created once, so with -prof gc
+ * their gc.alloc.rate.norm shows what the traversal itself allocates, against
+ * the iterator benchmarks next to them:
+ * java -jar target/benchmarks.jar "BSTreeBenchmark.(forEach|.*Iterator)" -prof gc
+ *
+ * Run with: java -jar target/benchmarks.jar BSTreeBenchmark [-p tree=avl] [-p distribution=ZIPF] [-p size=100000]
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BSTreeBenchmark
+{
+	@Param({ "bst", "avl", "splay" })
+	public String tree;
+
+	@Param({ "RANDOM", "SORTED", "ZIPF" })
+	public KeyDistribution distribution;
+
+	@Param({ "10000" })
+	public int size;
+
+	private Integer[] keys;
+
+	private BSTree<Integer> filled;
+
+	private Visitor<Integer> consumer;
+
+	@Setup
+	public void setUp(Blackhole blackhole)
+	{
+		keys = distribution.keys(size, 42);
+		filled = fill();
+		consumer = element -> {
+			blackhole.consume(element);
+			return true;
+		};
+	}
+
+	private BSTree<Integer> newTree()
+	{
+		switch (tree)
+		{
+		case "bst":
+			return new BSTree<Integer>();
+		case "avl":
+			return new AVLTree<Integer>();
+		case "splay":
+			return new SplayTree<Integer>();
+		default:
+			throw new IllegalArgumentException("Unknown tree type: " + tree);
+		}
+	}
+
+	private BSTree<Integer> fill()
+	{
+		BSTree<Integer> target = newTree();
+		for (Integer key : keys)
+		{
+			target.add(key);
+		}
+		return target;
+	}
+
+	@Benchmark
+	public BSTree<Integer> add()
+	{
+		return fill();
+	}
+
+	@Benchmark
+	public void search(Blackhole blackhole)
+	{
+		for (Integer key : keys)
+		{
+			blackhole.consume(filled.search(key));
+		}
+	}
+
+	@Benchmark
+	public boolean removeMinAndAdd()
+	{
+		return filled.add(filled.removeMin().getElement());
+	}
+
+	@Benchmark
+	public boolean removeMaxAndAdd()
+	{
+		return filled.add(filled.removeMax().getElement());
+	}
+
+	@Benchmark
+	public void inorderIterator(Blackhole blackhole)
+	{
+		drain(filled.inorderIterator(), blackhole);
+	}
+
+	@Benchmark
+	public void preorderIterator(Blackhole blackhole)
+	{
+		drain(filled.preorderIterator(), blackhole);
+	}
+
+	@Benchmark
+	public void postorderIterator(Blackhole blackhole)
+	{
+		drain(filled.postorderIterator(), blackhole);
+	}
+
+	@Benchmark
+	public boolean forEachInOrder()
+	{
+		return filled.forEachInOrder(consumer);
+	}
+
+	@Benchmark
+	public boolean forEachPreOrder()
+	{
+		return filled.forEachPreOrder(consumer);
+	}
+
+	@Benchmark
+	public boolean forEachPostOrder()
+	{
+		return filled.forEachPostOrder(consumer);
+	}
+
+	@Benchmark
+	public int getHeight()
+	{
+		return filled.getHeight();
+	}
+
+	private static void drain(Iterator<Integer> it, Blackhole blackhole)
+	{
+		while (it.hasNext())
+		{
+			blackhole.consume(it.next());
+		}
+	}
+}
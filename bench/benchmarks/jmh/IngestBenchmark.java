@@ -0,0 +1,99 @@
+package benchmarks.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.Word;
+import application.WordTracker;
+import utilities.BSTreeADT;
+
+/**
+ * WordTracker.processFiles on a corpus of many small files, for comparing
+ * thread counts. Each file holds lines lines of res/test3.txt (or bench.input),
+ * starting at a different line, so the files share most words but differ in
+ * where they occur. threads=1 processes the files one after the other into
+ * the repository; more threads process runs of files into trees of their own
+ * and combine them in file order.
+ *
+ * Run with: java -jar target/benchmarks.jar IngestBenchmark [-p threads=1,4,16] [-p files=5000]
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IngestBenchmark
+{
+	@Param({ "2000" })
+	public int files;
+
+	@Param({ "100" })
+	public int lines;
+
+	@Param({ "1", "2", "4", "8" })
+	public int threads;
+
+	@Param({ "bst" })
+	public String treeType;
+
+	private File directory;
+
+	private List<String> corpus;
+
+	@Setup
+	public void setUp() throws IOException
+	{
+		File input = new File(System.getProperty("bench.input", "res/test3.txt"));
+		List<String> text = Files.readAllLines(input.toPath());
+		directory = Files.createTempDirectory("ingest").toFile();
+		corpus = new ArrayList<String>();
+		for (int i = 0; i < files; i++)
+		{
+			List<String> part = new ArrayList<String>();
+			int start = (int) ((i * 97L) % text.size());
+			for (int line = 0; line < lines; line++)
+			{
+				part.add(text.get((start + line) % text.size()));
+			}
+			File file = new File(directory, String.format("doc%05d.txt", i));
+			Files.write(file.toPath(), part);
+			corpus.add(file.getPath());
+		}
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		for (File file : directory.listFiles())
+		{
+			file.delete();
+		}
+		directory.delete();
+	}
+
+	@Benchmark
+	public BSTreeADT<Word> processFiles() throws IOException
+	{
+		BSTreeADT<Word> tree = WordTracker.createTree(treeType);
+		WordTracker.processFiles(tree, corpus, threads, false);
+		return tree;
+	}
+}
@@ -0,0 +1,86 @@
+package benchmarks.jmh;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Orders in which the keys of a benchmark reach the tree.
+ */
+public enum KeyDistribution
+{
+	/** Each key 0 .. n - 1 once, shuffled */
+	RANDOM,
+
+	/** Each key 0 .. n - 1 once, ascending; a plain BSTree becomes a chain */
+	SORTED,
+
+	/**
+	 * n draws from a Zipf distribution with exponent 1 over n keys, like the
+	 * words of a text: a few keys make up most of the draws and many keys are
+	 * never drawn. Ranks are mapped to shuffled keys, so the frequent keys are
+	 * spread over the whole key range.
+	 */
+	ZIPF;
+
+	/**
+	 * Generates n keys in this distribution. The same seed gives the same keys.
+	 *
+	 * @param n number of keys to generate
+	 * @param seed seed of the random generator
+	 * @return the keys, boxed once here so that benchmarks do not measure boxing
+	 */
+	public Integer[] keys(int n, long seed)
+	{
+		Random random = new Random(seed);
+		int[] permutation = shuffled(n, random);
+		Integer[] keys = new Integer[n];
+		switch (this)
+		{
+		case RANDOM:
+			for (int i = 0; i < n; i++)
+			{
+				keys[i] = permutation[i];
+			}
+			break;
+		case SORTED:
+			for (int i = 0; i < n; i++)
+			{
+				keys[i] = i;
+			}
+			break;
+		default:
+			// Cumulative weights of the ranks, searched with a uniform draw
+			double[] cumulative = new double[n];
+			double total = 0;
+			for (int rank = 0; rank < n; rank++)
+			{
+				total += 1.0 / (rank + 1);
+				cumulative[rank] = total;
+			}
+			for (int i = 0; i < n; i++)
+			{
+				int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+				keys[i] = permutation[Math.min(rank < 0 ? -rank - 1 : rank, n - 1)];
+			}
+			break;
+		}
+		return keys;
+	}
+
+	private static int[] shuffled(int n, Random random)
+	{
+		int[] values = new int[n];
+		for (int i = 0; i < n; i++)
+		{
+			values[i] = i;
+		}
+		for (int i = n - 1; i > 0; i--)
+		{
+			int j = random.nextInt(i + 1);
+			int swap = values[i];
+			values[i] = values[j];
+			values[j] = swap;
+		}
+		return values;
+	}
+}
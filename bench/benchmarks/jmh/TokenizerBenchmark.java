@@ -0,0 +1,152 @@
+package benchmarks.jmh;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import application.Tokenizer;
+
+/**
+ * Splitting text into words, without the tree: the per line lower case,
+ * replace and regex split that WordTracker.processFile used before, against
+ * Tokenizer. Both read the whole input from memory per call. The words
+ * counter gives words per second; with -prof gc, gc.alloc.rate.norm shows the
+ * bytes allocated per call.
+ * <p>
+ * reader and mapped read the input file itself, through a FileReader as
+ * WordTracker.processFile does, and memory-mapped as with -mmap. For a large
+ * input run with -jvmArgs -Dbench.input=file.
+ *
+ * Run with: java -jar target/benchmarks.jar TokenizerBenchmark [-prof gc] [-jvmArgs -Dbench.input=file]
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TokenizerBenchmark
+{
+	private File input;
+
+	private String text;
+
+	private Tokenizer tokenizer;
+
+	private Tokenizer.Sink sink;
+
+	private long found;
+
+	/**
+	 * Words found per measurement, reported by JMH as a rate.
+	 */
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Words
+	{
+		public long words;
+
+		@Setup(Level.Iteration)
+		public void reset()
+		{
+			words = 0;
+		}
+	}
+
+	@Setup
+	public void setUp(Blackhole blackhole) throws IOException
+	{
+		input = new File(System.getProperty("bench.input", "res/test3.txt"));
+		text = new String(Files.readAllBytes(input.toPath()));
+		tokenizer = new Tokenizer();
+		sink = (chars, offset, length, lineNumber) -> {
+			blackhole.consume(chars[offset]);
+			found++;
+		};
+	}
+
+	@Benchmark
+	public void split(Words words, Blackhole blackhole) throws IOException
+	{
+		BufferedReader br = new BufferedReader(new StringReader(text));
+		String line;
+		long count = 0;
+		while ((line = br.readLine()) != null)
+		{
+			line = line.toLowerCase();
+			StringBuilder cleaned = new StringBuilder();
+			for (char c : line.toCharArray())
+			{
+				if (Character.isLetter(c) || Character.isWhitespace(c))
+				{
+					cleaned.append(c);
+				} else
+				{
+					cleaned.append(' ');
+				}
+			}
+			for (String w : cleaned.toString().trim().split("\\s+"))
+			{
+				if (w.isEmpty())
+				{
+					continue;
+				}
+				// The tree used to get a new Word, which lower cased again
+				blackhole.consume(w.toLowerCase());
+				count++;
+			}
+		}
+		words.words += count;
+	}
+
+	@Benchmark
+	public void tokenizer(Words words) throws IOException
+	{
+		found = 0;
+		tokenizer.tokenize(new StringReader(text), sink);
+		words.words += found;
+	}
+
+	@Benchmark
+	public void reader(Words words) throws IOException
+	{
+		found = 0;
+		try (Reader in = new FileReader(input))
+		{
+			tokenizer.tokenize(in, sink);
+		}
+		words.words += found;
+	}
+
+	@Benchmark
+	public void mapped(Words words) throws IOException
+	{
+		found = 0;
+		try (FileChannel channel = FileChannel.open(input.toPath(), StandardOpenOption.READ))
+		{
+			tokenizer.tokenize(channel, sink);
+		}
+		words.words += found;
+	}
+}
@@ -0,0 +1,143 @@
+package benchmarks.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.Word;
+import application.WordTracker;
+import utilities.BSTreeADT;
+
+/**
+ * WordTracker end to end on scaled input: res/test3.txt is copied under
+ * copies different names, as if that many files had been tracked. Measures
+ * ingesting all copies into an empty tree, read as by default or
+ * memory-mapped as with -mmap, each report format over the
+ * resulting repository, and saving it to and loading it from a file.
+ *
+ * Run with: java -jar target/benchmarks.jar WordTrackerBenchmark [-p copies=50] [-jvmArgs -Dbench.input=file]
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WordTrackerBenchmark
+{
+	@Param({ "1", "10" })
+	public int copies;
+
+	@Param({ "bst", "avl" })
+	public String treeType;
+
+	private File directory;
+
+	private String[] files;
+
+	private BSTreeADT<Word> repository;
+
+	private File savedRepository;
+
+	private File scratchRepository;
+
+	/**
+	 * Report format of generateReport, separate so that only that benchmark
+	 * runs once per format.
+	 */
+	@State(Scope.Benchmark)
+	public static class Report
+	{
+		@Param({ "-pf", "-pl", "-po" })
+		public String option;
+	}
+
+	@Setup
+	public void setUp() throws IOException
+	{
+		File input = new File(System.getProperty("bench.input", "res/test3.txt"));
+		directory = Files.createTempDirectory("wordtracker").toFile();
+		files = new String[copies];
+		for (int i = 0; i < copies; i++)
+		{
+			File copy = new File(directory, "copy" + i + ".txt");
+			Files.copy(input.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			files[i] = copy.getPath();
+		}
+		repository = processAll();
+		savedRepository = new File(directory, "repository.ser");
+		scratchRepository = new File(directory, "scratch.ser");
+		WordTracker.saveRepository(repository, savedRepository);
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		for (File file : directory.listFiles())
+		{
+			file.delete();
+		}
+		directory.delete();
+	}
+
+	private BSTreeADT<Word> processAll() throws IOException
+	{
+		BSTreeADT<Word> tree = WordTracker.createTree(treeType);
+		for (String file : files)
+		{
+			WordTracker.processFile(tree, file);
+		}
+		return tree;
+	}
+
+	@Benchmark
+	public BSTreeADT<Word> processFile() throws IOException
+	{
+		return processAll();
+	}
+
+	@Benchmark
+	public BSTreeADT<Word> processFileMapped() throws IOException
+	{
+		BSTreeADT<Word> tree = WordTracker.createTree(treeType);
+		for (String file : files)
+		{
+			WordTracker.processFileMapped(tree, file);
+		}
+		return tree;
+	}
+
+	@Benchmark
+	public String generateReport(Report report)
+	{
+		return WordTracker.generateReport(repository, report.option);
+	}
+
+	@Benchmark
+	public long saveRepository()
+	{
+		WordTracker.saveRepository(repository, scratchRepository);
+		return scratchRepository.length();
+	}
+
+	@Benchmark
+	public BSTreeADT<Word> loadRepository()
+	{
+		return WordTracker.loadRepository(savedRepository);
+	}
+}
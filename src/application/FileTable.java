@@ -0,0 +1,57 @@
+package application;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Table of the file names seen by this program. Each name is stored once and
+ * given a small int ID, so a Word keeps the IDs of the files it occurs in
+ * instead of a String per file. IDs are only valid within one run; the saved
+ * repository stores the names.
+ *
+ * Safe for use by several ingest threads at once.
+ */
+public final class FileTable {
+
+	//ID of each name, and the name of each ID
+	private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+	private static volatile String[] names = new String[16];
+	private static int count;
+
+	private FileTable() {
+	}
+
+	//Returns the ID of a file name, adding the name to the table the first time
+	public static int intern(String name) {
+		Integer id = ids.get(name);
+		if (id != null) {
+			return id;
+		}
+		synchronized (FileTable.class) {
+			id = ids.get(name);
+			if (id == null) {
+				if (count == names.length) {
+					names = Arrays.copyOf(names, count * 2);
+				}
+				//The name is stored before its ID is published
+				String[] table = names;
+				table[count] = name;
+				names = table;
+				id = count++;
+				ids.put(name, id);
+			}
+			return id;
+		}
+	}
+
+	//Returns the ID of a file name, or -1 if the name has not been interned
+	public static int find(Object name) {
+		Integer id = name == null ? null : ids.get(name);
+		return id == null ? -1 : id;
+	}
+
+	//Returns the file name of an ID handed out by intern
+	public static String name(int id) {
+		return names[id];
+	}
+}
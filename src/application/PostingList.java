@@ -0,0 +1,241 @@
+package application;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Compressed list of line numbers, as used for the occurrences of a Word in
+ * one file. Each number is stored as the difference to the one before it in a
+ * variable number of bytes, 7 bits per byte, so the ascending line numbers of
+ * a file mostly take one or two bytes instead of a 4 byte int. A number
+ * smaller than the one before it (after a merge) is stored whole behind a zero
+ * byte. add is O(1) amortized; reading all numbers in order decodes each byte
+ * once.
+ *
+ * A skip index records where every block of BLOCK numbers starts and the
+ * number before it, so get(index) only decodes within one block.
+ *
+ * Not synchronized; Word guards its lists with its own lock. Bytes and skip
+ * entries are only ever appended, so a view obtained with asList keeps showing
+ * the numbers added before it was created.
+ */
+public final class PostingList {
+
+	//Numbers per block of the skip index
+	static final int BLOCK = 64;
+
+	private byte[] data;
+	//Bytes of data in use
+	private int length;
+	//Numbers in the list
+	private int count;
+	//Last number added, the base of the next difference
+	private int last;
+	//Start offset and base number of blocks 1, 2, ... as pairs; null while there is one block
+	private int[] skips;
+
+	public PostingList() {
+		//Takes as much heap as a smaller array, after padding
+		data = new byte[8];
+	}
+
+	//Appends a number
+	public void add(int value) {
+		if (count > 0 && count % BLOCK == 0) {
+			int block = count / BLOCK - 1;
+			if (skips == null) {
+				skips = new int[8];
+			} else if (2 * block == skips.length) {
+				skips = Arrays.copyOf(skips, skips.length * 2);
+			}
+			skips[2 * block] = length;
+			skips[2 * block + 1] = last;
+		}
+		long delta = (long) value - last;
+		if (delta >= 0) {
+			//A difference of d is written as d + 1, so that 0 can mark a whole number
+			writeVarint(delta + 1);
+		} else {
+			writeVarint(0);
+			writeVarint(value & 0xFFFFFFFFL);
+		}
+		last = value;
+		count++;
+	}
+
+	public int size() {
+		return count;
+	}
+
+	//Bytes used by the encoded numbers, without the skip index
+	public int byteSize() {
+		return length;
+	}
+
+	//Returns the number at index, decoding from the start of its block
+	public int get(int index) {
+		return get(data, skips, count, index);
+	}
+
+	//Read-only list of the numbers added so far. Later adds do not show in it.
+	public List<Integer> asList() {
+		return new View(data, skips, count);
+	}
+
+	private void writeVarint(long value) {
+		if (data.length - length < 5) {
+			data = Arrays.copyOf(data, Math.max(data.length + (data.length >> 1), length + 5));
+		}
+		while (value >= 0x80) {
+			data[length++] = (byte) (value | 0x80);
+			value >>>= 7;
+		}
+		data[length++] = (byte) value;
+	}
+
+	private static int get(byte[] data, int[] skips, int count, int index) {
+		if (index < 0 || index >= count) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+		}
+		Decoder decoder = new Decoder(data);
+		int block = index / BLOCK;
+		if (block > 0) {
+			decoder.offset = skips[2 * (block - 1)];
+			decoder.value = skips[2 * (block - 1) + 1];
+		}
+		int value = 0;
+		for (int i = block * BLOCK; i <= index; i++) {
+			value = decoder.next();
+		}
+		return value;
+	}
+
+	//Sequential reader of the encoded numbers
+	private static final class Decoder {
+		private final byte[] data;
+		private int offset;
+		private int value;
+
+		Decoder(byte[] data) {
+			this.data = data;
+		}
+
+		int next() {
+			long delta = readVarint();
+			value = delta == 0 ? (int) readVarint() : (int) (value + delta - 1);
+			return value;
+		}
+
+		private long readVarint() {
+			long result = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = data[offset++];
+				result |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while (b < 0);
+			return result;
+		}
+	}
+
+	//The first count numbers of a list, sharing its arrays
+	private static final class View extends AbstractList<Integer> implements RandomAccess {
+		private final byte[] data;
+		private final int[] skips;
+		private final int count;
+
+		View(byte[] data, int[] skips, int count) {
+			this.data = data;
+			this.skips = skips;
+			this.count = count;
+		}
+
+		@Override
+		public Integer get(int index) {
+			return PostingList.get(data, skips, count, index);
+		}
+
+		@Override
+		public int size() {
+			return count;
+		}
+
+		//Decodes in one pass instead of calling get for each index
+		@Override
+		public Iterator<Integer> iterator() {
+			return new Iterator<Integer>() {
+				private final Decoder decoder = new Decoder(data);
+				private int index = 0;
+
+				@Override
+				public boolean hasNext() {
+					return index < count;
+				}
+
+				@Override
+				public Integer next() {
+					if (index >= count) {
+						throw new NoSuchElementException();
+					}
+					index++;
+					return decoder.next();
+				}
+			};
+		}
+	}
+
+	//Writes the number count, the byte count and the encoded bytes
+	void writeTo(ObjectOutput out) throws IOException {
+		out.writeInt(count);
+		out.writeInt(length);
+		out.write(data, 0, length);
+	}
+
+	//Reads a list written by writeTo, rebuilding the skip index and checking the encoding
+	static PostingList readFrom(ObjectInput in) throws IOException {
+		int count = in.readInt();
+		int length = in.readInt();
+		if (count < 0 || length < 0 || length > 10L * count) {
+			throw new InvalidObjectException("Invalid posting list: " + count + " numbers in " + length + " bytes");
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+
+		PostingList list = new PostingList();
+		list.data = bytes;
+		list.length = length;
+		Decoder decoder = new Decoder(bytes);
+		try {
+			for (int i = 0; i < count; i++) {
+				if (i > 0 && i % BLOCK == 0) {
+					int block = i / BLOCK - 1;
+					if (list.skips == null) {
+						list.skips = new int[8];
+					} else if (2 * block == list.skips.length) {
+						list.skips = Arrays.copyOf(list.skips, list.skips.length * 2);
+					}
+					list.skips[2 * block] = decoder.offset;
+					list.skips[2 * block + 1] = decoder.value;
+				}
+				decoder.next();
+			}
+		} catch (ArrayIndexOutOfBoundsException e) {
+			throw new InvalidObjectException("Posting list ends after " + length + " bytes");
+		}
+		if (decoder.offset != length) {
+			throw new InvalidObjectException("Posting list has " + (length - decoder.offset) + " bytes left over");
+		}
+		list.count = count;
+		list.last = decoder.value;
+		return list;
+	}
+}
@@ -0,0 +1,374 @@
+package application;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Splits text into the words that WordTracker records. The words are the same
+ * as from lower casing each line, replacing every character that is neither a
+ * letter nor whitespace (Character.isLetter, Character.isWhitespace) by a
+ * space, trimming and splitting on \s+.
+ *
+ * The text is read into one reusable buffer and scanned once: lines and word
+ * boundaries are found and letters lower cased in place, and each word is
+ * handed to a Sink as a range of the buffer, so no String is created per line
+ * or per word. A line whose lower case is not that of each character on its
+ * own (a capital sigma or dotted capital I, or any line under a Turkish,
+ * Azerbaijani or Lithuanian default locale), or that holds the control
+ * characters 0x1C-0x1F, which are whitespace to Character but not to \s or
+ * trim, is split through Strings the old way instead.
+ *
+ * A file can also be read through a FileChannel, mapped into memory and
+ * scanned as UTF-8 bytes. ASCII words are folded straight from the bytes into
+ * the buffer; a line with other bytes is decoded and then scanned as chars.
+ *
+ * A Tokenizer can be reused for several inputs, but by one thread at a time.
+ */
+public final class Tokenizer {
+
+	//Most bytes of a file mapped at a time
+	public static final int MAX_WINDOW = Integer.MAX_VALUE - 8;
+
+	//Results of fold besides a lower case char
+	private static final int SEPARATOR = -1;
+	private static final int SLOW = -2;
+	private static final int LINE = -3;
+
+	//fold of each ASCII char
+	private static final int[] ASCII = new int[0x80];
+
+	static {
+		for (char c = 0; c < 0x80; c++) {
+			if (c >= 'A' && c <= 'Z') {
+				ASCII[c] = c + ('a' - 'A');
+			} else if (c >= 'a' && c <= 'z') {
+				ASCII[c] = c;
+			} else if (c == '\n' || c == '\r') {
+				ASCII[c] = LINE;
+			} else if (c >= 0x1C && c <= 0x1F) {
+				ASCII[c] = SLOW;
+			} else {
+				ASCII[c] = SEPARATOR;
+			}
+		}
+	}
+
+	//Receives the words in order. chars is only valid during the call.
+	public interface Sink {
+		void word(char[] chars, int offset, int length, int lineNumber);
+	}
+
+	private char[] buffer = new char[8192];
+
+	//Bytes of a mapped window are copied here in turn, which scans faster than reading them one by one
+	private final byte[] chunk = new byte[8192];
+
+	private CharsetDecoder decoder;
+
+	//Reads to the end of in, passing each word to sink, and returns the number of lines.
+	//Lines end at \n, \r or \r\n, as for BufferedReader.readLine.
+	public int tokenize(Reader in, Sink sink) throws IOException {
+		boolean stringCase = stringCase();
+
+		char[] buf = buffer;
+		int end = 0;
+		int pos = 0;
+		int lineStart = 0;
+		int lineNumber = 1;
+		//Start of the word being scanned, or -1 between words
+		int wordStart = -1;
+		//Words of the current line handed to sink so far
+		int emitted = 0;
+		//The current line is split through Strings when it ends
+		boolean slow = stringCase;
+		//The last line ended with \r, so a \n right after it ends nothing
+		boolean afterReturn = false;
+		while (true) {
+			if (pos == end) {
+				//Keep the current line, which may be needed whole, and read more after it
+				if (lineStart > 0) {
+					System.arraycopy(buf, lineStart, buf, 0, end - lineStart);
+					end -= lineStart;
+					pos -= lineStart;
+					if (wordStart >= 0) {
+						wordStart -= lineStart;
+					}
+					lineStart = 0;
+				}
+				if (end == buf.length) {
+					buf = buffer = Arrays.copyOf(buf, buf.length * 2);
+				}
+				int read = in.read(buf, end, buf.length - end);
+				if (read < 0) {
+					break;
+				}
+				end += read;
+				continue;
+			}
+
+			char c = buf[pos];
+			int folded = fold(c);
+			if (folded >= 0) {
+				if (!slow) {
+					buf[pos] = (char) folded;
+					if (wordStart < 0) {
+						wordStart = pos;
+					}
+				}
+			} else if (folded == SEPARATOR) {
+				if (wordStart >= 0) {
+					sink.word(buf, wordStart, pos - wordStart, lineNumber);
+					emitted++;
+					wordStart = -1;
+				}
+			} else if (folded == LINE) {
+				if (c == '\n' && afterReturn && pos == lineStart) {
+					afterReturn = false;
+				} else {
+					endLine(buf, lineStart, pos, wordStart, slow, emitted, lineNumber, sink);
+					lineNumber++;
+					afterReturn = c == '\r';
+					wordStart = -1;
+					emitted = 0;
+					slow = stringCase;
+				}
+				lineStart = pos + 1;
+			} else {
+				slow = true;
+				wordStart = -1;
+			}
+			pos++;
+		}
+
+		//A last line without a line break
+		if (lineStart < end) {
+			endLine(buf, lineStart, end, wordStart, slow, emitted, lineNumber, sink);
+			lineNumber++;
+		}
+		return lineNumber - 1;
+	}
+
+	//Maps the file read by channel and passes each word to sink, reading the bytes as
+	//UTF-8 with malformed input replaced, and returns the number of lines
+	public int tokenize(FileChannel channel, Sink sink) throws IOException {
+		return tokenize(channel, MAX_WINDOW, sink);
+	}
+
+	//Same, mapping at most window bytes at a time. A window ends after its last line
+	//break, so that no line is split between two windows; it is doubled when it holds
+	//no line break at all.
+	public int tokenize(FileChannel channel, int window, Sink sink) throws IOException {
+		if (window <= 0) {
+			throw new IllegalArgumentException("Window must be positive: " + window);
+		}
+		boolean stringCase = stringCase();
+		long size = channel.size();
+		long position = 0;
+		int lineNumber = 1;
+		boolean afterReturn = false;
+		while (position < size) {
+			long remaining = size - position;
+			int length = (int) Math.min(remaining, window);
+			ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+			int limit = length;
+			if (length < remaining) {
+				while (limit > 0 && bytes.get(limit - 1) != '\n' && bytes.get(limit - 1) != '\r') {
+					limit--;
+				}
+				if (limit == 0) {
+					if (window == MAX_WINDOW) {
+						throw new IOException("Line of more than " + MAX_WINDOW + " bytes at byte " + position);
+					}
+					window = (int) Math.min(MAX_WINDOW, 2L * window);
+					continue;
+				}
+			}
+			//Second half of a \r\n split between windows
+			int start = afterReturn && bytes.get(0) == '\n' ? 1 : 0;
+			lineNumber = scan(bytes, start, limit, lineNumber, stringCase, sink);
+			afterReturn = bytes.get(limit - 1) == '\r';
+			position += limit;
+		}
+		return lineNumber - 1;
+	}
+
+	//Scans the lines of bytes from start to limit, which start at a line start, and
+	//returns the number of the line after them
+	private int scan(ByteBuffer bytes, int start, int limit, int lineNumber, boolean stringCase, Sink sink) {
+		byte[] chunk = this.chunk;
+		char[] word = buffer;
+		int wordLength = 0;
+		int lineStart = start;
+		int emitted = 0;
+		boolean slow = stringCase;
+		boolean afterReturn = false;
+		for (int base = start; base < limit; base += chunk.length) {
+			int count = Math.min(chunk.length, limit - base);
+			bytes.position(base);
+			bytes.get(chunk, 0, count);
+			for (int j = 0; j < count; j++) {
+				byte b = chunk[j];
+				//Bytes past ASCII are part of a multi-byte character, decoded with the line
+				int folded = b < 0 ? SLOW : ASCII[b];
+				if (folded >= 0) {
+					if (!slow) {
+						if (wordLength == word.length) {
+							word = buffer = Arrays.copyOf(word, wordLength * 2);
+						}
+						word[wordLength++] = (char) folded;
+					}
+				} else if (folded == SEPARATOR) {
+					if (wordLength > 0) {
+						sink.word(word, 0, wordLength, lineNumber);
+						emitted++;
+						wordLength = 0;
+					}
+				} else if (folded == LINE) {
+					int i = base + j;
+					if (b == '\n' && afterReturn && i == lineStart) {
+						afterReturn = false;
+					} else {
+						if (slow) {
+							decodeLine(bytes, lineStart, i, emitted, lineNumber, stringCase, sink);
+							word = buffer;
+						} else if (wordLength > 0) {
+							sink.word(word, 0, wordLength, lineNumber);
+						}
+						lineNumber++;
+						afterReturn = b == '\r';
+						wordLength = 0;
+						emitted = 0;
+						slow = stringCase;
+					}
+					lineStart = i + 1;
+				} else {
+					slow = true;
+					wordLength = 0;
+				}
+			}
+		}
+
+		//A last line without a line break
+		if (lineStart < limit) {
+			if (slow) {
+				decodeLine(bytes, lineStart, limit, emitted, lineNumber, stringCase, sink);
+			} else if (wordLength > 0) {
+				sink.word(word, 0, wordLength, lineNumber);
+			}
+			lineNumber++;
+		}
+		return lineNumber;
+	}
+
+	//Decodes the line of bytes from start to end into the buffer and hands out its words
+	//after the first skip, which the byte scan has handed out already
+	private void decodeLine(ByteBuffer bytes, int start, int end, int skip, int lineNumber, boolean stringCase,
+			Sink sink) {
+		if (decoder == null) {
+			decoder = StandardCharsets.UTF_8.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		}
+		//UTF-8 never gives more chars than bytes
+		if (buffer.length < end - start) {
+			buffer = new char[end - start];
+		}
+		ByteBuffer line = bytes.duplicate();
+		line.limit(end);
+		line.position(start);
+		CharBuffer chars = CharBuffer.wrap(buffer);
+		decoder.reset();
+		decoder.decode(line, chars, true);
+		decoder.flush(chars);
+		int length = chars.position();
+
+		if (stringCase) {
+			splitLine(new String(buffer, 0, length), skip, lineNumber, sink);
+			return;
+		}
+		int wordStart = -1;
+		int emitted = 0;
+		for (int i = 0; i < length; i++) {
+			int folded = fold(buffer[i]);
+			if (folded >= 0) {
+				buffer[i] = (char) folded;
+				if (wordStart < 0) {
+					wordStart = i;
+				}
+			} else if (folded == SEPARATOR) {
+				if (wordStart >= 0) {
+					if (emitted++ >= skip) {
+						sink.word(buffer, wordStart, i - wordStart, lineNumber);
+					}
+					wordStart = -1;
+				}
+			} else {
+				splitLine(new String(buffer, 0, length), Math.max(skip, emitted), lineNumber, sink);
+				return;
+			}
+		}
+		if (wordStart >= 0 && emitted >= skip) {
+			sink.word(buffer, wordStart, length - wordStart, lineNumber);
+		}
+	}
+
+	//Lines are lower cased through Strings in these locales, see String.toLowerCase
+	private static boolean stringCase() {
+		String language = Locale.getDefault().getLanguage();
+		return language.equals("tr") || language.equals("az") || language.equals("lt");
+	}
+
+	//Returns the lower case of c if it belongs in a word, SEPARATOR if it does not,
+	//LINE for a line break, or SLOW if its line has to be split through Strings
+	private static int fold(char c) {
+		if (c < 0x80) {
+			return ASCII[c];
+		}
+		if (c == '\u03A3' || c == '\u0130') {
+			return SLOW;
+		}
+		c = Character.toLowerCase(c);
+		//Whitespace past ASCII is not matched by \s, so it stays inside a word
+		return Character.isLetter(c) || Character.isWhitespace(c) ? c : SEPARATOR;
+	}
+
+	//Hands out the last word of the line from start to end, or all words not yet
+	//handed out if the line has to be split through Strings
+	private static void endLine(char[] buf, int start, int end, int wordStart, boolean slow, int emitted,
+			int lineNumber, Sink sink) {
+		if (slow) {
+			splitLine(new String(buf, start, end - start), emitted, lineNumber, sink);
+		} else if (wordStart >= 0) {
+			sink.word(buf, wordStart, end - wordStart, lineNumber);
+		}
+	}
+
+	//The original per line split. The words before the first character that sent the
+	//line here have already been handed out, and are the same on both paths.
+	private static void splitLine(String line, int skip, int lineNumber, Sink sink) {
+		line = line.toLowerCase();
+		StringBuilder cleaned = new StringBuilder(line.length());
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			cleaned.append(Character.isLetter(c) || Character.isWhitespace(c) ? c : ' ');
+		}
+		for (String w : cleaned.toString().trim().split("\\s+")) {
+			if (w.isEmpty()) {
+				continue;
+			}
+			if (skip > 0) {
+				skip--;
+				continue;
+			}
+			sink.word(w.toCharArray(), 0, w.length(), lineNumber);
+		}
+	}
+}
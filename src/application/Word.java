@@ -1,8 +1,14 @@
 package application;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.*;
 
+
 /**
  * Implementation of a Word class used with the Binary Search tree.This class 
  * supports organizing and managing the words in the text files efficiently.
@@ -18,9 +24,31 @@ import java.util.*;
 public class Word implements Comparable<Word>, Serializable {
 	
 	private static final long serialVersionUID = 1L;
+	//Serialized form of earlier versions plus format; occurrences is now written as
+	//null and followed by the line numbers of each file, see writeObject
+	private static final ObjectStreamField[] serialPersistentFields = {
+			new ObjectStreamField("text", String.class),
+			new ObjectStreamField("occurrences", Map.class),
+			new ObjectStreamField("frequency", int.class),
+			new ObjectStreamField("format", int.class) };
+	//Line numbers written as the bytes of a PostingList; streams without the format
+	//field carry the map in occurrences instead
+	private static final int FORMAT_POSTINGS = 1;
+	private static final int[] NO_INTS = {};
+	private static final PostingList[] NO_LINES = {};
+	//Scratch table for merge, indexed by file ID
+	private static final ThreadLocal<int[]> POSITIONS = ThreadLocal.withInitial(() -> NO_INTS);
 	private String text;
-	//List of numbers where the word will appear
-	private Map<String, List<Integer>> occurrences = new HashMap<>();
+	//Files the word appears in, as FileTable IDs in the order they were first seen.
+	//lines[i] holds the compressed line numbers for files[i]. Existing entries are
+	//never changed, only appended to, so a view taken under the lock stays valid
+	//after it is released.
+	private transient int[] files = NO_INTS;
+	private transient PostingList[] lines = NO_LINES;
+	private transient int fileCount;
+	//Largest file ID in files, so that a file newer than all of them is added
+	//without searching
+	private transient int maxFile = -1;
     //Frequency to count total occurrences across all files
 	private int frequency;
 	
@@ -29,15 +57,20 @@ public class Word implements Comparable<Word>, Serializable {
 	public Word(String text) {
 		this.text = text.toLowerCase();
 		this.frequency = 0;
-		this.occurrences = new HashMap<>();	
 	}
 
    //Methods
 	public void addOccurrence(String filename, int lineNumber) {
-		if (!occurrences.containsKey(filename)) {
-			occurrences.put(filename, new ArrayList<>());
-		}
-		occurrences.get(filename).add(lineNumber);
+		addOccurrence(FileTable.intern(filename), lineNumber);
+	}
+
+	//Same for a file already looked up with FileTable.intern, so that the name is not
+	//looked up for every word. Synchronized so that several ingest threads can record
+	//occurrences of the same word
+	public synchronized void addOccurrence(int fileId, int lineNumber) {
+		//indexOf may replace the lines array, so it is read after the call
+		int index = indexOf(fileId, true);
+		lines[index].add(lineNumber);
 		frequency++;
 	}
 	
@@ -45,25 +78,269 @@ public class Word implements Comparable<Word>, Serializable {
 		return text;
 	}
 
+    //Read-only view of the line numbers per file name, in the order the files were first seen.
+    //Each list holds the lines recorded up to the time it was obtained, without copying them.
     public Map<String, List<Integer>> getOccurrences() {
-    	return occurrences;
+    	return new OccurrenceMap();
     }
     
-    public Set<String> getFiles() {
-    	return occurrences.keySet();
+    //Read-only view of the names of the files the word appears in, in the order first seen
+    public synchronized Set<String> getFiles() {
+    	return new FileSet(files, fileCount);
     }
 
-    public int getFrequency() {
+    public synchronized int getFrequency() {
     	return frequency;
     }
 
+    //Adds the occurrences of the same word from another tree to this one and returns this word.
+    //Line numbers of a file found in both are appended after the ones already here.
+    //Usable as the combiner of BSTree.merge: tree.merge(other, Word::merge)
+    public Word merge(Word other) {
+    	if (other == this) {
+    		return this;
+    	}
+    	int[] addedFiles;
+    	List<List<Integer>> addedLines = new ArrayList<>();
+    	int addedFrequency;
+    	synchronized (other) {
+    		addedFiles = Arrays.copyOf(other.files, other.fileCount);
+    		for (int i = 0; i < other.fileCount; i++) {
+    			addedLines.add(other.lines[i].asList());
+    		}
+    		addedFrequency = other.frequency;
+    	}
+    	synchronized (this) {
+    		//Index + 1 of each file ID here, so that merging words found in many
+    		//files does not search files once per added file
+    		int[] positions = positions(Math.max(maxFile, max(addedFiles)) + 1);
+    		for (int i = 0; i < fileCount; i++) {
+    			positions[files[i]] = i + 1;
+    		}
+    		for (int i = 0; i < addedFiles.length; i++) {
+    			int index = positions[addedFiles[i]] - 1;
+    			if (index < 0) {
+    				index = append(addedFiles[i]);
+    				positions[addedFiles[i]] = index + 1;
+    			}
+    			PostingList target = lines[index];
+    			for (int line : addedLines.get(i)) {
+    				target.add(line);
+    			}
+    		}
+    		//Left all zero for the next merge on this thread
+    		for (int i = 0; i < fileCount; i++) {
+    			positions[files[i]] = 0;
+    		}
+    		frequency += addedFrequency;
+    	}
+    	return this;
+    }
+
     //Compares to another words text alphabetically
 	@Override
 	public int compareTo(Word o)
 	{
-		// TODO Auto-generated method stub
 		return this.text.compareTo(o.text);
 	}
+
+	//Returns the index of a file ID in files, searching from the most recent file,
+	//or -1 if absent and add is false. Called with the lock held.
+	private int indexOf(int fileId, boolean add) {
+		if (fileId <= maxFile) {
+			for (int i = fileCount - 1; i >= 0; i--) {
+				if (files[i] == fileId) {
+					return i;
+				}
+			}
+		}
+		if (!add) {
+			return -1;
+		}
+		return append(fileId);
+	}
+
+	//Adds a file ID not in files yet and returns its index. Called with the lock held.
+	private int append(int fileId) {
+		if (fileCount == files.length) {
+			int capacity = fileCount + 1 + (fileCount >> 1);
+			files = Arrays.copyOf(files, capacity);
+			lines = Arrays.copyOf(lines, capacity);
+		}
+		files[fileCount] = fileId;
+		lines[fileCount] = new PostingList();
+		maxFile = Math.max(maxFile, fileId);
+		return fileCount++;
+	}
+
+	//This thread's merge table, grown to hold at least size file IDs
+	private static int[] positions(int size) {
+		int[] positions = POSITIONS.get();
+		if (positions.length < size) {
+			positions = new int[Math.max(size, positions.length * 2)];
+			POSITIONS.set(positions);
+		}
+		return positions;
+	}
+
+	private static int max(int[] values) {
+		int max = -1;
+		for (int value : values) {
+			max = Math.max(max, value);
+		}
+		return max;
+	}
+
+	//Line numbers recorded so far for the file at index
+	private synchronized List<Integer> linesAt(int index) {
+		return lines[index].asList();
+	}
+
+	//Names of the first count file IDs of an array that is only appended to
+	private static final class FileSet extends AbstractSet<String> {
+		private final int[] files;
+		private final int count;
+
+		FileSet(int[] files, int count) {
+			this.files = files;
+			this.count = count;
+		}
+
+		@Override
+		public Iterator<String> iterator() {
+			return new Iterator<String>() {
+				private int index = 0;
+
+				@Override
+				public boolean hasNext() {
+					return index < count;
+				}
+
+				@Override
+				public String next() {
+					if (index >= count) {
+						throw new NoSuchElementException();
+					}
+					return FileTable.name(files[index++]);
+				}
+			};
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			int id = FileTable.find(o);
+			for (int i = 0; i < count; i++) {
+				if (files[i] == id) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public int size() {
+			return count;
+		}
+	}
+
+	//Map view of the occurrences: file names from the file table, line lists read under the lock
+	private final class OccurrenceMap extends AbstractMap<String, List<Integer>> {
+
+		@Override
+		public List<Integer> get(Object key) {
+			int id = FileTable.find(key);
+			synchronized (Word.this) {
+				int index = id < 0 ? -1 : indexOf(id, false);
+				return index < 0 ? null : lines[index].asList();
+			}
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return get(key) != null;
+		}
+
+		@Override
+		public Set<Map.Entry<String, List<Integer>>> entrySet() {
+			final Set<String> names = getFiles();
+			return new AbstractSet<Map.Entry<String, List<Integer>>>() {
+				@Override
+				public Iterator<Map.Entry<String, List<Integer>>> iterator() {
+					final Iterator<String> it = names.iterator();
+					return new Iterator<Map.Entry<String, List<Integer>>>() {
+						private int index = 0;
+
+						@Override
+						public boolean hasNext() {
+							return it.hasNext();
+						}
+
+						@Override
+						public Map.Entry<String, List<Integer>> next() {
+							String name = it.next();
+							return new AbstractMap.SimpleImmutableEntry<>(name, linesAt(index++));
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return names.size();
+				}
+			};
+		}
+	}
+
+	//Writes the occurrences as the number of files, then for each file its name
+	//and its compressed line numbers, instead of a HashMap of boxed Integer lists.
+	//File names are written as objects so that each one is stored only once per stream.
+	private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("text", text);
+		fields.put("occurrences", null);
+		fields.put("frequency", frequency);
+		fields.put("format", FORMAT_POSTINGS);
+		out.writeFields();
+
+		out.writeInt(fileCount);
+		for (int i = 0; i < fileCount; i++) {
+			out.writeObject(FileTable.name(files[i]));
+			lines[i].writeTo(out);
+		}
+	}
+
+	//Reads the format of writeObject, or the default form of earlier versions where
+	//the map arrives in the occurrences field
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		text = (String) fields.get("text", null);
+		frequency = fields.get("frequency", 0);
+		files = NO_INTS;
+		lines = NO_LINES;
+		maxFile = -1;
+		Map<String, List<Integer>> legacy = (Map<String, List<Integer>>) fields.get("occurrences", null);
+		if (legacy != null) {
+			for (Map.Entry<String, List<Integer>> entry : legacy.entrySet()) {
+				int index = indexOf(FileTable.intern(entry.getKey()), true);
+				PostingList target = lines[index];
+				for (int line : entry.getValue()) {
+					target.add(line);
+				}
+			}
+			return;
+		}
+
+		int format = fields.get("format", 0);
+		if (format != FORMAT_POSTINGS) {
+			throw new InvalidObjectException("Unknown occurrence format: " + format);
+		}
+		int fileTotal = in.readInt();
+		for (int f = 0; f < fileTotal; f++) {
+			int index = indexOf(FileTable.intern((String) in.readObject()), true);
+			lines[index] = PostingList.readFrom(in);
+		}
+	}
     
 
     
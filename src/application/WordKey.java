@@ -0,0 +1,44 @@
+package application;
+
+import utilities.Probe;
+
+/**
+ * Search key over a range of a char array, so that a tree of words can be
+ * searched for a word without creating a String for it. Compares like the text
+ * of a Word, and creates the Word only when the tree does not hold it yet.
+ *
+ * One key is reused for every word of a file, so it is not safe for use by
+ * several threads at once.
+ */
+final class WordKey implements Probe<Word> {
+	private char[] chars;
+	private int offset;
+	private int length;
+
+	//Makes this the key of a word already in lower case
+	void set(char[] chars, int offset, int length) {
+		this.chars = chars;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	//Compares to a words text alphabetically, as Word.compareTo would
+	@Override
+	public int compareTo(Word element) {
+		String other = element.getText();
+		int limit = Math.min(length, other.length());
+		for (int i = 0; i < limit; i++) {
+			char c = chars[offset + i];
+			char d = other.charAt(i);
+			if (c != d) {
+				return c - d;
+			}
+		}
+		return length - other.length();
+	}
+
+	@Override
+	public Word create() {
+		return new Word(new String(chars, offset, length));
+	}
+}
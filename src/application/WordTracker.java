@@ -7,12 +7,36 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.PrintWriter;
 import java.io.IOException;
-import java.io.BufferedReader;
 import java.io.FileReader;
+import java.io.Reader;
 import java.io.FileWriter;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 import application.Word;
+import implementations.AVLTree;
+import implementations.ArrayBSTree;
 import implementations.BSTree;
-import implementations.BSTreeNode;
+import implementations.BTree;
+import implementations.ConcurrentBSTree;
+import implementations.PersistentBSTree;
+import implementations.SplayTree;
+import implementations.TreeMetrics;
+import utilities.BSTreeADT;
 
 /**
  * Implementation of a WordTracker class to manage a collection of Word objects,
@@ -30,31 +54,85 @@ public class WordTracker
 {
 	public static void main(String[] args) throws IOException {
 		
-		if (args.length < 2) {
-			System.out.println("Usage: java -jar WordTracker.jar <input.txt> -pf|-pl|-po [-f<output.txt>]");
+		//Input files, directories or patterns come before the report option
+		int optionIndex = 0;
+		while (optionIndex < args.length && !args[optionIndex].startsWith("-p")) {
+			optionIndex++;
+		}
+		if (optionIndex == 0 || optionIndex == args.length) {
+			System.out.println("Usage: java -jar WordTracker.jar <input.txt|directory|pattern>... -pf|-pl|-po [-f<output.txt>] [-tbst|-tavl|-tconcurrent|-tpersistent|-tarray|-tbtree|-tsplay] [-r<from>:<to>] [-stats] [-mmap] [-j<threads>]");
 			return;
 		}
 		
-		String inputFile = args[0];
-		String option = args[1];
+		List<String> inputs = Arrays.asList(args).subList(0, optionIndex);
+		String option = args[optionIndex];
 		String outputFile = null;
+		String treeType = null;
+		String rangeFrom = null;
+		String rangeTo = null;
+		boolean stats = false;
+		boolean mapped = false;
+		int threads = 1;
 		
+		for (int i = optionIndex + 1; i < args.length; i++) {
+			if (args[i].startsWith("-f")) {
+				outputFile = args[i].substring(2);
+			} else if (args[i].startsWith("-t")) {
+				treeType = args[i].substring(2);
+			} else if (args[i].startsWith("-r")) {
+				//Key range [from, to); either side may be left empty
+				String range = args[i].substring(2);
+				int colon = range.indexOf(':');
+				String from = colon < 0 ? range : range.substring(0, colon);
+				String to = colon < 0 ? "" : range.substring(colon + 1);
+				rangeFrom = from.isEmpty() ? null : from;
+				rangeTo = to.isEmpty() ? null : to;
+			} else if (args[i].equals("-stats")) {
+				stats = true;
+			} else if (args[i].equals("-mmap")) {
+				//Memory-mapped UTF-8 ingestion for large files
+				mapped = true;
+			} else if (args[i].startsWith("-j")) {
+				//Threads for processing several files. The default -j1 processes them one after
+				//the other; more threads have not been shown to be faster, since every run adds
+				//a tree to build and combine and the repository is rebuilt once at the end
+				try {
+					threads = Integer.parseInt(args[i].substring(2));
+				} catch (NumberFormatException e) {
+					System.out.println("Invalid thread count: " + args[i]);
+					return;
+				}
+			}
+		}
 		
-		if (args.length == 3 && args[2].startsWith("-f")) {
-			outputFile = args[2].substring(2);
+		List<String> files = expandInputs(inputs);
+		if (files.isEmpty()) {
+			System.out.println("No input files found for " + String.join(" ", inputs));
+			return;
 		}
 		
 		//Load existing BST or create a new one
-		BSTree<Word> tree = loadRepository();
+		BSTreeADT<Word> tree;
+		try {
+			tree = loadRepository(treeType);
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+			return;
+		}
 		
-		//Process input file and update BST
-		processFile(tree, inputFile);
+		//Count the tree operations of the ingest and the report
+		if (stats && tree instanceof BSTree) {
+			((BSTree<Word>) tree).enableMetrics();
+		}
+		
+		//Process input files and update BST
+		processFiles(tree, files, threads, mapped);
 		
 		// Save updated repository
 		saveRepository(tree);
 		
 		//Generate report based on the option
-		String report = generateReport(tree, option);
+		String report = generateReport(tree, option, rangeFrom, rangeTo);
 		
 		//Output to console
 		if (outputFile != null) {
@@ -65,116 +143,459 @@ public class WordTracker
 		} else {
 			System.out.print(report);
 		}
+		
+		if (stats) {
+			printStats(tree);
+		}
+	}
+	
+	/**
+	 * Prints the operation counters collected by a tree with metrics enabled.
+	 */
+	private static void printStats(BSTreeADT<Word> tree) {
+		TreeMetrics metrics = tree instanceof BSTree ? ((BSTree<Word>) tree).getMetrics() : null;
+		if (metrics == null) {
+			System.out.println("Statistics are not available for " + tree.getClass().getSimpleName() + ".");
+			return;
+		}
+		System.out.println("Tree statistics (" + tree.getClass().getSimpleName() + ", " + tree.size()
+				+ " words, height " + tree.getHeight() + "):");
+		System.out.print(metrics.snapshot());
 	}
 	
 		/**
 	     * Process file builds a BST of words.
 	     * For each word it remembers where it appeared (file and line number) 
+	     * With a ConcurrentBSTree several threads may process files into the same tree.
 	     */
-		public static void processFile(BSTree<Word> tree, String filename) throws IOException {
+		public static void processFile(BSTreeADT<Word> tree, String filename) throws IOException {
 			//Construct a BST with all words from a text file (supplied at command line)
-			try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
+			try (Reader in = new FileReader(filename)) {
 		        //Record line numbers on which these words were used
-		    	String line;
-		        int lineNumber = 1;
-		        while ((line = br.readLine()) != null) {
-		            line = line.toLowerCase();
-	
-		            //Replace non-letters with spaces
-		            StringBuilder cleaned = new StringBuilder();
-		            for (char c : line.toCharArray()) {
-		                if (Character.isLetter(c) || Character.isWhitespace(c)) {
-		                    cleaned.append(c);
-		                } else {
-		                    cleaned.append(' ');
-		                }
-		            }
-		            // Split file into words
-		            String[] words = cleaned.toString().trim().split("\\s+");
-		            for (String w : words) {
-		                if (w.isEmpty()) continue;
-		                Word temp = new Word(w);
-		                //Store the line numbers with the file names, associated with nodes in the tree
-		                BSTreeNode<Word> node = tree.search(temp); //search for existing word
-		                if (node != null) {
-		                    Word existing = node.getElement();
-		                    existing.addOccurrence(filename, lineNumber);
-		                } else {
-		                    temp.addOccurrence(filename, lineNumber);
-		                    tree.add(temp); //add new word to the Binary search tree
-		                }
-		            }
-		            lineNumber++;
-		        }
+		        new Tokenizer().tokenize(in, recorder(tree, filename));
 		    }
 		}
 		
+		/**
+	     * Same as processFile, but maps the file into memory and reads it as UTF-8
+	     * bytes instead of decoding it line by line in the default charset.
+	     * Meant for large inputs.
+	     */
+		public static void processFileMapped(BSTreeADT<Word> tree, String filename) throws IOException {
+			try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+		        new Tokenizer().tokenize(channel, recorder(tree, filename));
+		    }
+		}
+		
+		/**
+	     * Processes several files into the tree, using up to threads threads.
+	     * The files are split into one run per thread, each of consecutive files of
+	     * about the same total size. Each run is processed into a tree of its own. Those trees are then
+	     * combined in file order and merged into the given tree once, so the result is
+	     * the same as from processing the files one after the other. With one thread or
+	     * one file the files are processed straight into the tree.
+	     * If the tree collects metrics, the operations on the run trees are added to its
+	     * counters; building the combined tree and merging it are not counted.
+	     */
+		public static void processFiles(BSTreeADT<Word> tree, List<String> files, int threads, boolean mapped)
+				throws IOException {
+			if (threads <= 1 || files.size() <= 1) {
+				for (String file : files) {
+					processInput(tree, file, mapped);
+				}
+				return;
+			}
+			//One run per thread: every run adds a tree to combine afterwards
+			List<List<String>> runs = runs(files, threads);
+			TreeMetrics metrics = tree instanceof BSTree ? ((BSTree<Word>) tree).getMetrics() : null;
+			ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, runs.size()));
+			try {
+				List<Future<AVLTree<Word>>> parts = new ArrayList<>();
+				for (List<String> run : runs) {
+					parts.add(pool.submit(() -> {
+						AVLTree<Word> part = new AVLTree<>();
+						if (metrics != null) {
+							part.enableMetrics();
+						}
+						for (String file : run) {
+							processInput(part, file, mapped);
+						}
+						return part;
+					}));
+				}
+				List<BSTreeADT<Word>> done = new ArrayList<>();
+				for (Future<AVLTree<Word>> part : parts) {
+					AVLTree<Word> finished = await(part);
+					if (metrics != null) {
+						metrics.add(finished.getMetrics());
+					}
+					done.add(finished);
+				}
+				mergeInto(tree, combine(done));
+			} finally {
+				pool.shutdownNow();
+			}
+		}
+		
+		private static void processInput(BSTreeADT<Word> tree, String file, boolean mapped) throws IOException {
+			if (mapped) {
+				processFileMapped(tree, file);
+			} else {
+				processFile(tree, file);
+			}
+		}
+		
+		//Splits files into at most count runs of consecutive files, each of about the same total size
+		private static List<List<String>> runs(List<String> files, int count) {
+			long[] sizes = new long[files.size()];
+			long total = 0;
+			for (int i = 0; i < sizes.length; i++) {
+				//Empty and missing files still cost an open
+				sizes[i] = Math.max(1, new File(files.get(i)).length());
+				total += sizes[i];
+			}
+			long target = (total + count - 1) / count;
+			List<List<String>> runs = new ArrayList<>();
+			List<String> run = new ArrayList<>();
+			long size = 0;
+			for (int i = 0; i < sizes.length; i++) {
+				run.add(files.get(i));
+				size += sizes[i];
+				if (size >= target) {
+					runs.add(run);
+					run = new ArrayList<>();
+					size = 0;
+				}
+			}
+			if (!run.isEmpty()) {
+				runs.add(run);
+			}
+			return runs;
+		}
+		
+		//Combines the words of parts holding consecutive runs of files into one ascending
+		//array, by a k-way merge of their in-order iterators. A word found in several parts
+		//takes the occurrences of the later parts after those of the earlier ones, as if
+		//all the files had been processed into the first part.
+		private static Word[] combine(List<BSTreeADT<Word>> parts) {
+			List<utilities.Iterator<Word>> iterators = new ArrayList<>();
+			Word[] current = new Word[parts.size()];
+			int total = 0;
+			for (int i = 0; i < parts.size(); i++) {
+				iterators.add(parts.get(i).inorderIterator());
+				total += parts.get(i).size();
+			}
+			//Parts by their current word, ties broken by part so that words merge in file order
+			PriorityQueue<Integer> queue = new PriorityQueue<>(Math.max(1, parts.size()), (a, b) -> {
+				int c = current[a].compareTo(current[b]);
+				return c != 0 ? c : a - b;
+			});
+			for (int i = 0; i < current.length; i++) {
+				advance(i, iterators, current, queue);
+			}
+			List<Word> words = new ArrayList<>(total);
+			while (!queue.isEmpty()) {
+				int first = queue.poll();
+				Word word = current[first];
+				advance(first, iterators, current, queue);
+				while (!queue.isEmpty() && current[queue.peek()].compareTo(word) == 0) {
+					int next = queue.poll();
+					word.merge(current[next]);
+					advance(next, iterators, current, queue);
+				}
+				words.add(word);
+			}
+			return words.toArray(new Word[0]);
+		}
+		
+		//Moves part i to its next word, dropping it from the queue at its end
+		private static void advance(int i, List<utilities.Iterator<Word>> iterators, Word[] current, PriorityQueue<Integer> queue) {
+			if (iterators.get(i).hasNext()) {
+				current[i] = iterators.get(i).next();
+				queue.add(i);
+			} else {
+				current[i] = null;
+			}
+		}
+		
+		//Adds words, ascending, to tree. Occurrences of a word in both are appended to
+		//those of the word in tree, as if the words' files had been processed into tree.
+		private static void mergeInto(BSTreeADT<Word> tree, Word[] words) {
+			if (tree instanceof BSTree) {
+				//One rebuild of the repository for all the parts
+				((BSTree<Word>) tree).merge(BSTree.fromSorted(words), Word::merge);
+				return;
+			}
+			for (Word w : words) {
+				Word resident = tree.findOrAdd(w).getElement();
+				if (resident != w) {
+					resident.merge(w);
+				}
+			}
+		}
+		
+		//Returns the result of a part, rethrowing what failed it
+		private static <T> T await(Future<T> future) throws IOException {
+			try {
+				return future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while processing files");
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IOException(cause);
+			}
+		}
+		
+		/**
+	     * Expands input names from the command line into the files to process, in
+	     * order. A directory gives all files below it, and a pattern containing
+	     * * ? [ or { gives the files matching it as a glob, both sorted by path.
+	     * Other names are kept as they are.
+	     */
+		public static List<String> expandInputs(List<String> inputs) throws IOException {
+			List<String> files = new ArrayList<>();
+			for (String input : inputs) {
+				int wildcard = indexOfWildcard(input);
+				if (wildcard >= 0) {
+					//Walk from the directory part before the first wildcard, only as deep as the
+					//pattern reaches unless ** lets it cross directories
+					int slash = Math.max(input.lastIndexOf('/', wildcard), input.lastIndexOf(File.separatorChar, wildcard));
+					Path base = Paths.get(slash < 0 ? "" : input.substring(0, slash + 1));
+					PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + input);
+					int depth = input.indexOf("**", slash + 1) >= 0 ? Integer.MAX_VALUE : separatorsIn(input, slash + 1) + 1;
+					if (Files.isDirectory(base)) {
+						try (Stream<Path> walk = Files.walk(base, depth)) {
+							walk.filter(path -> Files.isRegularFile(path) && matcher.matches(path))
+									.map(Path::toString).sorted().forEach(files::add);
+						}
+					}
+				} else if (Files.isDirectory(Paths.get(input))) {
+					try (Stream<Path> walk = Files.walk(Paths.get(input))) {
+						walk.filter(Files::isRegularFile).map(Path::toString).sorted().forEach(files::add);
+					}
+				} else {
+					files.add(input);
+				}
+			}
+			return files;
+		}
+		
+		//Counts the separators in input from the given index on, an upper bound on the
+		//number of directory levels a pattern without ** can match below its base
+		private static int separatorsIn(String input, int from) {
+			int count = 0;
+			for (int i = from; i < input.length(); i++) {
+				char c = input.charAt(i);
+				if (c == '/' || c == File.separatorChar) {
+					count++;
+				}
+			}
+			return count;
+		}
+		
+		private static int indexOfWildcard(String input) {
+			for (int i = 0; i < input.length(); i++) {
+				char c = input.charAt(i);
+				if (c == '*' || c == '?' || c == '[' || c == '{') {
+					return i;
+				}
+			}
+			return -1;
+		}
+		
+		//Records each word of a file in the tree. Words are looked up in one descent by a key
+		//over the tokenizer's buffer, and a Word is only created for a word not in the tree yet
+		private static Tokenizer.Sink recorder(BSTreeADT<Word> tree, String filename) {
+			int fileId = FileTable.intern(filename);
+			WordKey key = new WordKey();
+			return (chars, offset, length, lineNumber) -> {
+				key.set(chars, offset, length);
+				tree.findOrCreate(key).getElement().addOccurrence(fileId, lineNumber);
+			};
+		}
+		
 	/**
 	 * Generate Report formats and outputs the results 
 	 * based on the command‑line 
 	 */
-	public static String generateReport(BSTree<Word> tree, String option) {
+	public static String generateReport(BSTreeADT<Word> tree, String option) {
+		return generateReport(tree, option, null, null);
+	}
+	
+	/**
+	 * Generate Report for the words in the key range [from, to) only.
+	 * The tree seeks straight to the first key, so the cost depends on the
+	 * size of the range rather than the size of the repository.
+	 * A null bound leaves that end of the range open.
+	 */
+	public static String generateReport(BSTreeADT<Word> tree, String option, String from, String to) {
 	    
 		
 		StringBuilder sb = new StringBuilder();
-		utilities.Iterator<Word> it = tree.inorderIterator();
+		Word fromWord = from == null ? null : new Word(from);
+		Word toWord = to == null ? null : new Word(to);
 		
 		sb.append("Displaying").append(option).append(" format\n\n");
 		
-		while (it.hasNext()) {
-			Word w = it.next();
-			sb.append("Key: ").append(w.getText());
-			
-			// -pf files only
-			if (option.equals("-pf")) {
-				sb.append(" found in file(s): ");
-				sb.append(String.join(", ", w.getFiles()));
+		if (tree instanceof BSTree && (from != null || to != null)) {
+			utilities.Iterator<Word> it = ((BSTree<Word>) tree).rangeIterator(fromWord, toWord);
+			while (it.hasNext()) {
+				appendWord(sb, it.next(), option);
 			}
+		} else {
+			//Each word is visited once, without an iterator; trees without range
+			//iteration are filtered here and the walk stops at the end of the range
+			tree.forEachInOrder(w -> {
+				if (fromWord != null && w.compareTo(fromWord) < 0) return true;
+				if (toWord != null && w.compareTo(toWord) >= 0) return false;
+				appendWord(sb, w, option);
+				return true;
+			});
+		}
+		
+		return sb.toString();
+	}
+	
+	/**
+	 * Appends the report lines of one word in the format of the option.
+	 */
+	private static void appendWord(StringBuilder sb, Word w, String option) {
+		sb.append("Key: ").append(w.getText());
+		
+		// -pf files only
+		if (option.equals("-pf")) {
+			sb.append(" found in file(s): ");
+			sb.append(String.join(", ", w.getFiles()));
+		}
+		
+		// -pl files + line numbers
+		else if (option.equals("-pl")) {
+			sb.append("\n");
 			
-			// -pl files + line numbers
-			else if (option.equals("-pl")) {
-				sb.append("\n");
-				
-				for (String file : w.getFiles()) {
-					sb.append("  found in file: ")
+			for (String file : w.getFiles()) {
+				sb.append("  found in file: ")
 	                  .append(file)
 	                  .append(" on lines: ")
 	                  .append(w.getOccurrences().get(file))
 	                  .append("\n");
-				}
 			}
+		}
+		
+		// -po files + line numbers + frequency
+		else if (option.equals("-po")) {
+			sb.append("\n");
 			
-			// -po files + line numbers + frequency
-			else if (option.equals("-po")) {
-				sb.append("\n");
-				
-				for (String file : w.getFiles()) {
-					sb.append("  found in file: ")
+			for (String file : w.getFiles()) {
+				sb.append("  found in file: ")
 	                  .append(file)
 	                  .append(" on lines: ")
 	                  .append(w.getOccurrences().get(file))
 	                  .append("\n");
-				}
-				
-				sb.append("  total frequency: ")
-	              .append(w.getFrequency())
-	              .append("\n");
 			}
 			
-			sb.append("\n");
+			sb.append("  total frequency: ")
+	              .append(w.getFrequency())
+	              .append("\n");
 		}
 		
-		return sb.toString();
+		sb.append("\n");
 	}
 	
+    /**
+     * Creates an empty tree of the requested kind.
+     * "bst" selects the plain BSTree, "avl" the self-balancing AVLTree which keeps
+     * ingestion O(log n) per word even when the input is already sorted, and
+     * "concurrent" the ConcurrentBSTree that several threads can fill at once,
+     * and "persistent" the PersistentBSTree whose snapshots can be reported on
+     * while ingestion continues.
+     */
+    public static BSTreeADT<Word> createTree(String treeType) 
+    {
+        if (treeType == null || treeType.equals("bst")) 
+        {
+            return new BSTree<>();
+        }
+        if (treeType.equals("avl")) 
+        {
+            return new AVLTree<>();
+        }
+        if (treeType.equals("concurrent")) 
+        {
+            return new ConcurrentBSTree<>();
+        }
+        if (treeType.equals("persistent")) 
+        {
+            return new PersistentBSTree<>();
+        }
+        if (treeType.equals("array")) 
+        {
+            return new ArrayBSTree<>();
+        }
+        if (treeType.equals("btree")) 
+        {
+            return new BTree<>();
+        }
+        if (treeType.equals("splay")) 
+        {
+            return new SplayTree<>();
+        }
+        throw new IllegalArgumentException("Unknown tree type: " + treeType);
+    }
+
+    /**
+     * Loads the repository and makes sure it is stored in the requested kind of tree.
+     * A repository saved with a different kind of tree is copied over in pre-order,
+     * which reproduces the original shape when the target is a plain BSTree.
+     * If no tree type is requested the repository is returned as it was saved.
+     */
+    public static BSTreeADT<Word> loadRepository(String treeType) 
+    {
+        BSTreeADT<Word> tree = loadRepository();
+        if (treeType == null) 
+        {
+            return tree;
+        }
+
+        BSTreeADT<Word> selected = createTree(treeType);
+        if (selected.getClass() == tree.getClass()) 
+        {
+            return tree;
+        }
+
+        utilities.Iterator<Word> it = tree.preorderIterator();
+        while (it.hasNext()) 
+        {
+            selected.add(it.next());
+        }
+        return selected;
+    }
+
     /**
      * Loads the previously saved BST from repository.ser if it exists.
      * If the file does not exist or cannot be loaded, an empty BST is returned.
      */
-    public static BSTree<Word> loadRepository() 
+    public static BSTreeADT<Word> loadRepository() 
     {
-        File file = new File("repository.ser");
+        return loadRepository(new File("repository.ser"));
+    }
 
+    /**
+     * Loads a BST saved by saveRepository from the given file if it exists.
+     * If the file does not exist or cannot be loaded, an empty BST is returned.
+     */
+    @SuppressWarnings("unchecked")
+    public static BSTreeADT<Word> loadRepository(File file) 
+    {
         if (!file.exists()) 
         {
             return new BSTree<>();
@@ -182,11 +603,11 @@ public class WordTracker
 
         try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) 
         {
-            return (BSTree<Word>) ois.readObject();
+            return (BSTreeADT<Word>) ois.readObject();
         }
         catch (IOException | ClassNotFoundException e) 
         {
-            System.err.println("Could not load repository.ser: " + e.getMessage());
+            System.err.println("Could not load " + file.getName() + ": " + e.getMessage());
             return new BSTree<>();
         }
     }
@@ -194,15 +615,23 @@ public class WordTracker
     /**
      * Saves the BST to repository.ser using Java serialization.
      */
-    public static void saveRepository(BSTree<Word> tree) 
+    public static void saveRepository(BSTreeADT<Word> tree) 
+    {
+        saveRepository(tree, new File("repository.ser"));
+    }
+
+    /**
+     * Saves the BST to the given file using Java serialization.
+     */
+    public static void saveRepository(BSTreeADT<Word> tree, File file) 
     {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream("repository.ser"))) 
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file))) 
         {
             oos.writeObject(tree);
         }
         catch (IOException e) 
         {
-            System.err.println("Error saving repository.ser: " + e.getMessage());
+            System.err.println("Error saving " + file.getName() + ": " + e.getMessage());
         }
     }
 }
@@ -0,0 +1,272 @@
+package implementations;
+
+import utilities.Probe;
+
+/**
+ * Self-balancing Binary Search Tree that follows the AVL scheme.
+ * After every insertion or removal the heights of the two subtrees of any node
+ * differ by at most one, so add, search, removeMin and removeMax run in
+ * O(log n) no matter in which order the elements arrive. Traversals, search and
+ * the iterators are inherited unchanged from {@link BSTree}.
+ *
+ * @param <E> the type of elements stored in this tree; must implement Comparable
+ */
+public class AVLTree<E extends Comparable<? super E>> extends BSTree<E>
+{
+	// Serial version UID for serialization
+	private static final long serialVersionUID = 1L;
+
+	/** Node found or created by the insertion in progress */
+	private transient BSTreeNode<E> resident;
+
+	/** Number of nodes compared against by the insertion in progress */
+	private transient int pathLength;
+
+	/**
+	 * Constructs an empty AVLTree.
+	 */
+	public AVLTree()
+	{
+		super();
+	}
+
+	/**
+	 * Constructs an AVLTree with a single root node containing the specified element.
+	 *
+	 * @param element the element to store at the root
+	 */
+	public AVLTree(E element)
+	{
+		super(element);
+	}
+
+	@Override
+	protected BSTreeNode<E> findOrInsert(E entry, Probe<E> probe) throws NullPointerException
+	{
+		int oldSize = size;
+		pathLength = 0;
+		root = insert(root, entry, probe);
+		BSTreeNode<E> node = resident;
+		resident = null;
+		if (size != oldSize)
+		{
+			// Rotations relink nodes, so the ends of the tree stay the same node objects
+			addedBound(node);
+		}
+		if (metrics != null)
+		{
+			if (size != oldSize)
+			{
+				metrics.recordInsert(pathLength);
+			} else
+			{
+				metrics.recordSearch(pathLength);
+			}
+		}
+		return node;
+	}
+
+	/**
+	 * Inserts an element into the subtree rooted at a node and rebalances
+	 * every node on the way back up. The node holding the element, new or
+	 * existing, is left in resident.
+	 *
+	 * @param node root of the subtree
+	 * @param newEntry element to insert, or null to use the probe
+	 * @param probe key of the element to insert and its factory, or null
+	 * @return the new root of the subtree
+	 */
+	private BSTreeNode<E> insert(BSTreeNode<E> node, E newEntry, Probe<E> probe)
+	{
+		if (node == null)
+		{
+			resident = new BSTreeNode<E>(Probes.element(newEntry, probe), null, null);
+			size++;
+			modCount++;
+			return resident;
+		}
+
+		pathLength++;
+		int comparatorResult = Probes.compare(newEntry, probe, node.getElement());
+		if (comparatorResult < 0)
+		{
+			node.setLeft(insert(node.getLeft(), newEntry, probe));
+		} else if (comparatorResult > 0)
+		{
+			node.setRight(insert(node.getRight(), newEntry, probe));
+		} else
+		{
+			// Duplicate entry found; tree is unchanged
+			resident = node;
+			return node;
+		}
+		return rebalance(node);
+	}
+
+	@Override
+	public BSTreeNode<E> removeMin()
+	{
+		if (root == null)
+		{
+			return null;
+		}
+
+		BSTreeNode<E> minNode = root;
+		BSTreeNode<E> parentNode = null;
+		while (minNode.getLeft() != null)
+		{
+			parentNode = minNode;
+			minNode = minNode.getLeft();
+		}
+
+		removedBound(minNode.getRight() == null ? parentNode : leftmostOf(minNode.getRight()), true);
+		root = detachMin(root);
+		return detached(minNode);
+	}
+
+	/**
+	 * Unlinks the smallest node of a subtree and rebalances the left spine.
+	 *
+	 * @param node root of the subtree
+	 * @return the new root of the subtree
+	 */
+	private BSTreeNode<E> detachMin(BSTreeNode<E> node)
+	{
+		if (node.getLeft() == null)
+		{
+			return node.getRight();
+		}
+		node.setLeft(detachMin(node.getLeft()));
+		return rebalance(node);
+	}
+
+	@Override
+	public BSTreeNode<E> removeMax()
+	{
+		if (root == null)
+		{
+			return null;
+		}
+
+		BSTreeNode<E> maxNode = root;
+		BSTreeNode<E> parentNode = null;
+		while (maxNode.getRight() != null)
+		{
+			parentNode = maxNode;
+			maxNode = maxNode.getRight();
+		}
+
+		removedBound(maxNode.getLeft() == null ? parentNode : rightmostOf(maxNode.getLeft()), false);
+		root = detachMax(root);
+		return detached(maxNode);
+	}
+
+	/**
+	 * Unlinks the largest node of a subtree and rebalances the right spine.
+	 *
+	 * @param node root of the subtree
+	 * @return the new root of the subtree
+	 */
+	private BSTreeNode<E> detachMax(BSTreeNode<E> node)
+	{
+		if (node.getRight() == null)
+		{
+			return node.getLeft();
+		}
+		node.setRight(detachMax(node.getRight()));
+		return rebalance(node);
+	}
+
+	/**
+	 * Clears the links of a node that has just been removed from the tree.
+	 *
+	 * @param node the removed node
+	 * @return the same node, now standing alone
+	 */
+	private BSTreeNode<E> detached(BSTreeNode<E> node)
+	{
+		node.setLeft(null);
+		node.setRight(null);
+		update(node);
+		size--;
+		modCount++;
+		if (metrics != null)
+		{
+			metrics.recordRemoval();
+		}
+		return node;
+	}
+
+	/**
+	 * Restores the AVL property at a node whose subtrees differ in height by at
+	 * most two, rotating once or twice as required.
+	 *
+	 * @param node the node to rebalance
+	 * @return the new root of the subtree
+	 */
+	private BSTreeNode<E> rebalance(BSTreeNode<E> node)
+	{
+		update(node);
+		int balance = heightOf(node.getLeft()) - heightOf(node.getRight());
+
+		if (balance > 1)
+		{
+			// Left-right case is reduced to left-left first
+			if (heightOf(node.getLeft().getLeft()) < heightOf(node.getLeft().getRight()))
+			{
+				node.setLeft(rotateLeft(node.getLeft()));
+			}
+			return rotateRight(node);
+		}
+		if (balance < -1)
+		{
+			// Right-left case is reduced to right-right first
+			if (heightOf(node.getRight().getRight()) < heightOf(node.getRight().getLeft()))
+			{
+				node.setRight(rotateRight(node.getRight()));
+			}
+			return rotateLeft(node);
+		}
+		return node;
+	}
+
+	/**
+	 * Rotates a subtree to the right, lifting its left child.
+	 *
+	 * @param node root of the subtree
+	 * @return the new root of the subtree
+	 */
+	private BSTreeNode<E> rotateRight(BSTreeNode<E> node)
+	{
+		BSTreeNode<E> pivot = node.getLeft();
+		node.setLeft(pivot.getRight());
+		pivot.setRight(node);
+		update(node);
+		update(pivot);
+		if (metrics != null)
+		{
+			metrics.recordRotations(1);
+		}
+		return pivot;
+	}
+
+	/**
+	 * Rotates a subtree to the left, lifting its right child.
+	 *
+	 * @param node root of the subtree
+	 * @return the new root of the subtree
+	 */
+	private BSTreeNode<E> rotateLeft(BSTreeNode<E> node)
+	{
+		BSTreeNode<E> pivot = node.getRight();
+		node.setRight(pivot.getLeft());
+		pivot.setLeft(node);
+		update(node);
+		update(pivot);
+		if (metrics != null)
+		{
+			metrics.recordRotations(1);
+		}
+		return pivot;
+	}
+}
@@ -0,0 +1,673 @@
+package implementations;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+import utilities.BSTreeADT;
+import utilities.Iterator;
+import utilities.Probe;
+
+/**
+ * Binary Search Tree whose nodes live in a pool of parallel arrays instead of
+ * separate {@link BSTreeNode} objects. A node is an int slot: its element is
+ * {@code elements[slot]} and its children are the slots {@code left[slot]} and
+ * {@code right[slot]} ({@code NIL} when absent). Slots freed by removeMin and
+ * removeMax are chained through {@code left} into a free list and reused by the
+ * next add. The tree is not rebalanced, exactly like {@link BSTree}.
+ * <p>
+ * Memory per entry, not counting the elements themselves, on a 64-bit JVM with
+ * compressed references (heaps below 32 GB):
+ * <table border="1">
+ * <caption>Bytes per entry</caption>
+ * <tr><th></th><th>BSTree</th><th>ArrayBSTree</th></tr>
+ * <tr><td>object header</td><td>12</td><td>0</td></tr>
+ * <tr><td>element reference</td><td>4</td><td>4</td></tr>
+ * <tr><td>left and right links</td><td>8</td><td>8</td></tr>
+ * <tr><td>cached height and size</td><td>8</td><td>0</td></tr>
+ * <tr><td>total</td><td>32</td><td>12 (up to 18 right after the arrays grow)</td></tr>
+ * </table>
+ * Without compressed references the figures are 48 and 16 bytes. The garbage
+ * collector also sees three arrays rather than one object per entry, and a
+ * search reads neighbouring ints instead of following object pointers.
+ * bench/benchmarks/MemoryFootprint measures both layouts.
+ * <p>
+ * Since there are no node objects, getRoot and search return a view of the
+ * slot: a {@link BSTreeNode} whose getElement, getLeft and getRight read the
+ * arrays. Its links cannot be changed and its cached height and size are not
+ * maintained; getHeight of the tree is computed by a walk in O(n).
+ * <p>
+ * So that a lookup allocates nothing, search, findOrAdd and findOrCreate return
+ * the same view object each time: it shows the slot of the last lookup or
+ * add, and must be used before the next one. The views of getRoot, getLeft
+ * and getRight are new objects that stay valid until their element is removed.
+ *
+ * @param <E> the type of elements stored in this tree; must implement Comparable
+ */
+public class ArrayBSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Serializable
+{
+	// Serial version UID for serialization
+	private static final long serialVersionUID = 1L;
+
+	/** Slot number standing for a missing child */
+	private static final int NIL = -1;
+
+	/** Number of slots allocated by an empty tree */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** Element stored in each slot, null for free slots */
+	private transient Object[] elements;
+
+	/** Left child of each slot; for free slots the next free slot */
+	private transient int[] left;
+
+	/** Right child of each slot */
+	private transient int[] right;
+
+	/** Slot of the root node */
+	private transient int root;
+
+	/** First slot of the free list */
+	private transient int free;
+
+	/** Number of slots handed out so far; slots above it have never been used */
+	private transient int used;
+
+	/** Number of elements in the tree */
+	private transient int size;
+
+	/** Number of structural modifications, used by the iterators to fail fast */
+	private transient int modCount;
+
+	/** View returned by the lookups, moved to the slot of each call */
+	private transient SlotView lookup;
+
+	/**
+	 * Constructs an empty ArrayBSTree.
+	 */
+	public ArrayBSTree()
+	{
+		this(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Constructs an empty ArrayBSTree with room for the given number of elements
+	 * before the arrays have to grow.
+	 *
+	 * @param capacity number of slots to allocate
+	 */
+	public ArrayBSTree(int capacity)
+	{
+		allocate(Math.max(1, capacity));
+	}
+
+	/**
+	 * Constructs an ArrayBSTree with a single root node containing the specified
+	 * element.
+	 *
+	 * @param element the element to store at the root
+	 */
+	public ArrayBSTree(E element)
+	{
+		this();
+		add(element);
+	}
+
+	/**
+	 * Replaces the pool by empty arrays of the given capacity.
+	 */
+	private void allocate(int capacity)
+	{
+		elements = new Object[capacity];
+		left = new int[capacity];
+		right = new int[capacity];
+		root = NIL;
+		free = NIL;
+		used = 0;
+		size = 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	private E elementAt(int slot)
+	{
+		return (E) elements[slot];
+	}
+
+	@Override
+	public BSTreeNode<E> getRoot() throws NullPointerException
+	{
+		if (root == NIL)
+		{
+			throw new NullPointerException("Tree is empty.");
+		}
+		return new SlotView(root);
+	}
+
+	/**
+	 * Counts the levels of the tree with an explicit stack; O(n).
+	 */
+	@Override
+	public int getHeight()
+	{
+		if (root == NIL)
+		{
+			return 0;
+		}
+		int[] slots = new int[16];
+		int[] depths = new int[16];
+		int top = 0;
+		int height = 0;
+		slots[top] = root;
+		depths[top++] = 1;
+		while (top > 0)
+		{
+			int slot = slots[--top];
+			int depth = depths[top];
+			height = Math.max(height, depth);
+			if (top + 2 > slots.length)
+			{
+				slots = Arrays.copyOf(slots, slots.length * 2);
+				depths = Arrays.copyOf(depths, depths.length * 2);
+			}
+			if (left[slot] != NIL)
+			{
+				slots[top] = left[slot];
+				depths[top++] = depth + 1;
+			}
+			if (right[slot] != NIL)
+			{
+				slots[top] = right[slot];
+				depths[top++] = depth + 1;
+			}
+		}
+		return height;
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	@Override
+	public void clear()
+	{
+		allocate(INITIAL_CAPACITY);
+		modCount++;
+	}
+
+	@Override
+	public boolean contains(E entry) throws NullPointerException
+	{
+		if (entry == null)
+		{
+			throw new NullPointerException("Entry cannot be null.");
+		}
+		return find(entry) != NIL;
+	}
+
+	@Override
+	public BSTreeNode<E> search(E entry) throws NullPointerException
+	{
+		if (entry == null)
+		{
+			throw new NullPointerException("Cannot search a null entry.");
+		}
+		int slot = find(entry);
+		return slot == NIL ? null : lookupView(slot);
+	}
+
+	/**
+	 * Returns the view kept for the lookups, now showing the slot.
+	 */
+	private BSTreeNode<E> lookupView(int slot)
+	{
+		if (lookup == null)
+		{
+			lookup = new SlotView(slot);
+		} else
+		{
+			lookup.slot = slot;
+		}
+		return lookup;
+	}
+
+	/**
+	 * Returns the slot holding an element equal to entry, or NIL.
+	 */
+	private int find(E entry)
+	{
+		int slot = root;
+		while (slot != NIL)
+		{
+			int comparatorResult = entry.compareTo(elementAt(slot));
+			if (comparatorResult == 0)
+			{
+				return slot;
+			}
+			slot = comparatorResult < 0 ? left[slot] : right[slot];
+		}
+		return NIL;
+	}
+
+	@Override
+	public boolean add(E newEntry) throws NullPointerException
+	{
+		int oldSize = size;
+		findOrAdd(newEntry);
+		return size != oldSize;
+	}
+
+	@Override
+	public BSTreeNode<E> findOrAdd(E entry) throws NullPointerException
+	{
+		if (entry == null)
+		{
+			throw new NullPointerException("Cannot add a null entry.");
+		}
+		return findOrInsert(entry, null);
+	}
+
+	@Override
+	public BSTreeNode<E> findOrCreate(Probe<E> probe) throws NullPointerException
+	{
+		if (probe == null)
+		{
+			throw new NullPointerException("Cannot search a null probe.");
+		}
+		return findOrInsert(null, probe);
+	}
+
+	/**
+	 * Finds or adds the entry, or the element of the probe when the entry is
+	 * null, in a single descent.
+	 */
+	private BSTreeNode<E> findOrInsert(E entry, Probe<E> probe)
+	{
+		if (root == NIL)
+		{
+			root = newSlot(Probes.element(entry, probe));
+			return lookupView(root);
+		}
+
+		int slot = root;
+		while (true)
+		{
+			int comparatorResult = Probes.compare(entry, probe, elementAt(slot));
+			if (comparatorResult == 0)
+			{
+				return lookupView(slot);
+			}
+			int child = comparatorResult < 0 ? left[slot] : right[slot];
+			if (child == NIL)
+			{
+				// newSlot may grow the arrays, so link after it returns
+				int newSlot = newSlot(Probes.element(entry, probe));
+				if (comparatorResult < 0)
+				{
+					left[slot] = newSlot;
+				} else
+				{
+					right[slot] = newSlot;
+				}
+				return lookupView(newSlot);
+			}
+			slot = child;
+		}
+	}
+
+	/**
+	 * Takes a slot from the free list, or from the unused part of the arrays,
+	 * growing them by half when they are full.
+	 *
+	 * @param element element to store in the slot
+	 * @return the slot, a leaf not yet linked into the tree
+	 */
+	private int newSlot(E element)
+	{
+		int slot;
+		if (free != NIL)
+		{
+			slot = free;
+			free = left[slot];
+		} else
+		{
+			if (used == elements.length)
+			{
+				int capacity = elements.length + (elements.length >> 1) + 1;
+				elements = Arrays.copyOf(elements, capacity);
+				left = Arrays.copyOf(left, capacity);
+				right = Arrays.copyOf(right, capacity);
+			}
+			slot = used++;
+		}
+		elements[slot] = element;
+		left[slot] = NIL;
+		right[slot] = NIL;
+		size++;
+		modCount++;
+		return slot;
+	}
+
+	/**
+	 * Clears a slot and puts it on the free list.
+	 *
+	 * @param slot the slot to recycle
+	 * @return a detached node holding the element that was in the slot
+	 */
+	private BSTreeNode<E> recycle(int slot)
+	{
+		BSTreeNode<E> removed = new BSTreeNode<E>(elementAt(slot), null, null);
+		elements[slot] = null;
+		right[slot] = NIL;
+		left[slot] = free;
+		free = slot;
+		size--;
+		modCount++;
+		return removed;
+	}
+
+	@Override
+	public BSTreeNode<E> removeMin()
+	{
+		if (root == NIL)
+		{
+			return null;
+		}
+
+		int parent = NIL;
+		int slot = root;
+		while (left[slot] != NIL)
+		{
+			parent = slot;
+			slot = left[slot];
+		}
+		if (parent == NIL)
+		{
+			root = right[slot];
+		} else
+		{
+			left[parent] = right[slot];
+		}
+		return recycle(slot);
+	}
+
+	@Override
+	public BSTreeNode<E> removeMax()
+	{
+		if (root == NIL)
+		{
+			return null;
+		}
+
+		int parent = NIL;
+		int slot = root;
+		while (right[slot] != NIL)
+		{
+			parent = slot;
+			slot = right[slot];
+		}
+		if (parent == NIL)
+		{
+			root = left[slot];
+		} else
+		{
+			right[parent] = left[slot];
+		}
+		return recycle(slot);
+	}
+
+	@Override
+	public Iterator<E> inorderIterator()
+	{
+		return new SlotIterator()
+		{
+			{
+				pushLeftSpine(root);
+			}
+
+			@Override
+			protected int advance()
+			{
+				int slot = pop();
+				pushLeftSpine(right[slot]);
+				return slot;
+			}
+
+			private void pushLeftSpine(int slot)
+			{
+				while (slot != NIL)
+				{
+					push(slot);
+					slot = left[slot];
+				}
+			}
+		};
+	}
+
+	@Override
+	public Iterator<E> preorderIterator()
+	{
+		return new SlotIterator()
+		{
+			{
+				push(root);
+			}
+
+			@Override
+			protected int advance()
+			{
+				int slot = pop();
+				push(right[slot]);
+				push(left[slot]);
+				return slot;
+			}
+		};
+	}
+
+	@Override
+	public Iterator<E> postorderIterator()
+	{
+		return new SlotIterator()
+		{
+			{
+				pushFirstLeaf(root);
+			}
+
+			@Override
+			protected int advance()
+			{
+				int slot = pop();
+				// Coming up from the left child, the right subtree is visited before the parent
+				if (top > 0 && left[stack[top - 1]] == slot)
+				{
+					pushFirstLeaf(right[stack[top - 1]]);
+				}
+				return slot;
+			}
+
+			private void pushFirstLeaf(int slot)
+			{
+				while (slot != NIL)
+				{
+					push(slot);
+					slot = left[slot] != NIL ? left[slot] : right[slot];
+				}
+			}
+		};
+	}
+
+	/**
+	 * Base class of the lazy traversal iterators, keeping the slots still to be
+	 * expanded on a growable int stack. Like the iterators of BSTree they fail
+	 * fast once the tree is structurally modified.
+	 */
+	private abstract class SlotIterator implements Iterator<E>
+	{
+		protected int[] stack = new int[16];
+		protected int top = 0;
+		private final int expectedModCount = modCount;
+
+		protected void push(int slot)
+		{
+			if (slot == NIL)
+			{
+				return;
+			}
+			if (top == stack.length)
+			{
+				stack = Arrays.copyOf(stack, stack.length * 2);
+			}
+			stack[top++] = slot;
+		}
+
+		protected int pop()
+		{
+			return stack[--top];
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			return top > 0;
+		}
+
+		@Override
+		public E next() throws NoSuchElementException
+		{
+			if (modCount != expectedModCount)
+			{
+				throw new ConcurrentModificationException();
+			}
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+			return elementAt(advance());
+		}
+
+		/**
+		 * Pops the next slot of the traversal and pushes whatever comes after it.
+		 *
+		 * @return the next slot in traversal order
+		 */
+		protected abstract int advance();
+	}
+
+	/**
+	 * BSTreeNode view of a slot, reading the arrays on every call.
+	 */
+	private class SlotView extends BSTreeNode<E>
+	{
+		private static final long serialVersionUID = 1L;
+		private int slot;
+
+		SlotView(int slot)
+		{
+			super(null, null, null);
+			this.slot = slot;
+		}
+
+		@Override
+		public E getElement()
+		{
+			return elementAt(slot);
+		}
+
+		@Override
+		public void setElement(E element)
+		{
+			elements[slot] = element;
+		}
+
+		@Override
+		public BSTreeNode<E> getLeft()
+		{
+			return left[slot] == NIL ? null : new SlotView(left[slot]);
+		}
+
+		@Override
+		public BSTreeNode<E> getRight()
+		{
+			return right[slot] == NIL ? null : new SlotView(right[slot]);
+		}
+
+		@Override
+		public void setLeft(BSTreeNode<E> left)
+		{
+			throw new UnsupportedOperationException("Links of an array tree cannot be changed.");
+		}
+
+		@Override
+		public void setRight(BSTreeNode<E> right)
+		{
+			throw new UnsupportedOperationException("Links of an array tree cannot be changed.");
+		}
+	}
+
+	/**
+	 * Writes the size followed by the elements in in-order.
+	 *
+	 * @param out the stream to write to
+	 * @throws IOException if the stream cannot be written
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException
+	{
+		out.defaultWriteObject();
+		out.writeInt(size);
+		Iterator<E> it = inorderIterator();
+		while (it.hasNext())
+		{
+			out.writeObject(it.next());
+		}
+	}
+
+	/**
+	 * Reads the elements written by writeObject into a compact pool, where slot
+	 * i holds the i-th smallest element, and links them as a balanced tree.
+	 *
+	 * @param in the stream to read from
+	 * @throws IOException if the stream cannot be read
+	 * @throws ClassNotFoundException if a class of the stream cannot be found
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		int count = in.readInt();
+		allocate(Math.max(INITIAL_CAPACITY, count));
+		for (int i = 0; i < count; i++)
+		{
+			elements[i] = in.readObject();
+		}
+		used = count;
+		size = count;
+		root = link(0, count);
+	}
+
+	/**
+	 * Links the slots of a sorted range into a balanced subtree.
+	 *
+	 * @return slot of the subtree root, or NIL for an empty range
+	 */
+	private int link(int from, int to)
+	{
+		if (from >= to)
+		{
+			return NIL;
+		}
+		int middle = (from + to) >>> 1;
+		left[middle] = link(from, middle);
+		right[middle] = link(middle + 1, to);
+		return middle;
+	}
+}
@@ -1,10 +1,27 @@
 package implementations;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import utilities.BSTreeADT;
 import utilities.Iterator;
+import utilities.Probe;
+import utilities.Visitor;
 
 /**
  * Implementation of a Binary Search Tree (BST) with nodes of type {@link BSTreeNode}.
@@ -18,11 +35,45 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
 	// Serial version UID for serialization
 	private static final long serialVersionUID = 1L;
 	
+	/**
+	 * Serialized form: the legacy root field, always written as null, the size
+	 * and the format of the elements that writeObject writes after the fields.
+	 */
+	private static final ObjectStreamField[] serialPersistentFields = {
+			new ObjectStreamField("root", BSTreeNode.class),
+			new ObjectStreamField("size", int.class),
+			new ObjectStreamField("format", int.class) };
+	
+	/**
+	 * Element format: the elements in in-order. Streams written before the format
+	 * field existed carry the node graph in the root field instead.
+	 */
+	private static final int FORMAT_INORDER = 1;
+	
 	/** Root node of the BST */
-	private BSTreeNode<E> root;
+	protected BSTreeNode<E> root;
 	
 	/** Number of elements in the tree */
-	private int size;
+	protected int size;
+	
+	/** Number of structural modifications, used by the iterators to fail fast */
+	protected transient int modCount;
+	
+	/** Scratch stack recording the path of the current add or remove */
+	private transient BSTreeNode<E>[] path;
+
+	/** Operation counters, or null while metrics are disabled */
+	protected transient TreeMetrics metrics;
+
+	/** Stack kept between forEach calls, or null while a traversal has it */
+	private transient BSTreeNode<E>[] traversalStack;
+
+	/**
+	 * Nodes holding the smallest and largest element. Null while the tree is
+	 * empty, or while the end is not known, as after deserialization or when a
+	 * subclass sets root directly; the next peek then walks the spine once.
+	 */
+	protected transient BSTreeNode<E> leftmost, rightmost;
 
 	/**
      * Constructs an empty BSTree.
@@ -43,8 +94,268 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
 	{
 		this.root = new BSTreeNode<E>(element, null, null);
 		this.size = 1;
+		this.leftmost = root;
+		this.rightmost = root;
+	}
+
+
+    /**
+     * Builds a height-balanced tree from elements given in strictly ascending
+     * order. Runs in O(n): each element is compared once with its predecessor to
+     * verify the order and no search is performed.
+     *
+     * @param <E> the type of elements stored in the tree
+     * @param sorted the elements in strictly ascending order
+     * @return a new tree holding the elements
+     * @throws NullPointerException if the array or one of its elements is null
+     * @throws IllegalArgumentException if the elements are not strictly ascending
+     */
+	public static <E extends Comparable<? super E>> BSTree<E> fromSorted(E[] sorted)
+			throws NullPointerException, IllegalArgumentException
+	{
+		BSTree<E> tree = new BSTree<E>();
+		tree.buildFromSorted(new ArrayIterator<E>(sorted), sorted.length);
+		return tree;
+	}
+
+	/**
+	 * Iterator over the elements of an array.
+	 */
+	private static class ArrayIterator<T> implements Iterator<T>
+	{
+		private final T[] elements;
+		private int index = 0;
+
+		ArrayIterator(T[] elements)
+		{
+			this.elements = elements;
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			return index < elements.length;
+		}
+
+		@Override
+		public T next() throws NoSuchElementException
+		{
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+			return elements[index++];
+		}
+	}
+
+    /**
+     * Builds a height-balanced tree from the first count elements of an iterator
+     * that yields them in strictly ascending order, such as the in-order iterator
+     * of another tree. Runs in O(count).
+     *
+     * @param <E> the type of elements stored in the tree
+     * @param sorted iterator over the elements in strictly ascending order
+     * @param count number of elements to take from the iterator
+     * @return a new tree holding the elements
+     * @throws NullPointerException if the iterator or one of its elements is null
+     * @throws IllegalArgumentException if the elements are not strictly ascending
+     * @throws NoSuchElementException if the iterator has fewer than count elements
+     */
+	public static <E extends Comparable<? super E>> BSTree<E> fromSorted(Iterator<? extends E> sorted, int count)
+			throws NullPointerException, IllegalArgumentException, NoSuchElementException
+	{
+		BSTree<E> tree = new BSTree<E>();
+		tree.buildFromSorted(sorted, count);
+		return tree;
+	}
+
+    /**
+     * Replaces the contents of this tree by a height-balanced tree built from
+     * elements in strictly ascending order. The middle element of every range
+     * becomes the root of its subtree, so the result is also a valid AVL tree.
+     * The tree is left unchanged if the input turns out to be invalid.
+     *
+     * @param sorted iterator over the elements in strictly ascending order
+     * @param count number of elements to take from the iterator
+     * @throws NullPointerException if the iterator or one of its elements is null
+     * @throws IllegalArgumentException if the elements are not strictly ascending
+     * @throws NoSuchElementException if the iterator has fewer than count elements
+     */
+	protected void buildFromSorted(Iterator<? extends E> sorted, int count)
+			throws NullPointerException, IllegalArgumentException, NoSuchElementException
+	{
+		if (sorted == null)
+		{
+			throw new NullPointerException("Sorted input cannot be null.");
+		}
+		if (count < 0)
+		{
+			throw new IllegalArgumentException("Count cannot be negative: " + count);
+		}
+
+		SortedBuilder builder = new SortedBuilder(sorted);
+		BSTreeNode<E> newRoot = builder.build(count);
+		root = newRoot;
+		size = count;
+		modCount++;
+		findBounds();
+	}
+
+	/**
+	 * Consumes an ascending sequence and links it into a balanced subtree,
+	 * checking each element against the one before it.
+	 */
+	private class SortedBuilder
+	{
+		private final Iterator<? extends E> sorted;
+		private E previous;
+
+		SortedBuilder(Iterator<? extends E> sorted)
+		{
+			this.sorted = sorted;
+		}
+
+		/**
+		 * Builds the subtree holding the next count elements; recursion depth is
+		 * the height of the result, O(log count).
+		 */
+		BSTreeNode<E> build(int count)
+		{
+			if (count == 0)
+			{
+				return null;
+			}
+
+			int leftCount = count / 2;
+			BSTreeNode<E> left = build(leftCount);
+			E element = sorted.next();
+			if (element == null)
+			{
+				throw new NullPointerException("Cannot add a null entry.");
+			}
+			if (previous != null && previous.compareTo(element) >= 0)
+			{
+				throw new IllegalArgumentException("Input is not in strictly ascending order at: " + element);
+			}
+			previous = element;
+			BSTreeNode<E> right = build(count - leftCount - 1);
+			return new BSTreeNode<E>(element, left, right);
+		}
+	}
+
+    /**
+     * Merges the elements of another tree into this one in O(n + m): both trees
+     * are walked in in-order side by side and the merged sequence is rebuilt as
+     * a height-balanced tree. Elements found in both trees are replaced by what
+     * the combiner returns for the pair, which must compare equal to them; a null
+     * combiner keeps the element of this tree, like add does. The other tree is
+     * not modified, but its elements become shared with this one.
+     * <p>
+     * The merged order is checked before the combiner is called, so an
+     * unordered other tree or a failing compareTo leaves this tree and its
+     * elements unchanged. If the combiner itself fails, or returns an element
+     * that does not compare equal, the shape of this tree is unchanged, but
+     * elements the combiner was already called with may have been modified by it.
+     *
+     * @param other the tree whose elements are merged in
+     * @param combiner function called with this tree's element and the other
+     *        tree's equal element, or null to keep this tree's element
+     * @throws NullPointerException if other is null, holds a null element, or
+     *         the combiner returns null
+     * @throws IllegalArgumentException if the other tree is not in ascending
+     *         order, or the combiner returns an element that breaks the order
+     */
+	@SuppressWarnings("unchecked")
+	public void merge(BSTreeADT<E> other, BinaryOperator<E> combiner)
+			throws NullPointerException, IllegalArgumentException
+	{
+		if (other == null)
+		{
+			throw new NullPointerException("Cannot merge a null tree.");
+		}
+
+		// First pass: the merged order, with the other tree's element of each equal pair
+		E[] merged = (E[]) new Comparable<?>[size + other.size()];
+		E[] pairs = (E[]) new Comparable<?>[merged.length];
+		int count = 0;
+		Iterator<E> mine = inorderIterator();
+		Iterator<E> theirs = other.inorderIterator();
+		E element = mine.hasNext() ? mine.next() : null;
+		E otherElement = next(theirs, null);
+		while (element != null || otherElement != null)
+		{
+			if (count == merged.length)
+			{
+				// The other tree grew while being walked
+				merged = Arrays.copyOf(merged, count * 2 + 1);
+				pairs = Arrays.copyOf(pairs, merged.length);
+			}
+			int comparatorResult = element == null ? 1 : otherElement == null ? -1 : element.compareTo(otherElement);
+			if (comparatorResult < 0)
+			{
+				merged[count++] = element;
+				element = mine.hasNext() ? mine.next() : null;
+			} else if (comparatorResult > 0)
+			{
+				merged[count++] = otherElement;
+				otherElement = next(theirs, otherElement);
+			} else
+			{
+				pairs[count] = otherElement;
+				merged[count++] = element;
+				element = mine.hasNext() ? mine.next() : null;
+				otherElement = next(theirs, otherElement);
+			}
+		}
+
+		// Second pass: combine equal pairs, which cannot change the order checked above
+		if (combiner != null)
+		{
+			for (int i = 0; i < count; i++)
+			{
+				if (pairs[i] != null)
+				{
+					E combined = combiner.apply(merged[i], pairs[i]);
+					if (combined == null)
+					{
+						throw new NullPointerException("Combiner returned null.");
+					}
+					if (combined.compareTo(merged[i]) != 0)
+					{
+						throw new IllegalArgumentException("Combiner result breaks the order at: " + combined);
+					}
+					merged[i] = combined;
+				}
+			}
+		}
+		buildFromSorted(new ArrayIterator<E>(merged), count);
 	}
 
+    /**
+     * Returns the next element of another tree's in-order iterator, checking
+     * that it is a non-null element above the previous one.
+     *
+     * @param it the iterator
+     * @param previous the element it returned last, or null at the start
+     * @return the next element, or null at the end
+     */
+	private static <E extends Comparable<? super E>> E next(Iterator<E> it, E previous)
+	{
+		if (!it.hasNext())
+		{
+			return null;
+		}
+		E element = it.next();
+		if (element == null)
+		{
+			throw new NullPointerException("Cannot add a null entry.");
+		}
+		if (previous != null && previous.compareTo(element) >= 0)
+		{
+			throw new IllegalArgumentException("Input is not in strictly ascending order at: " + element);
+		}
+		return element;
+	}
 
 	@Override
 	public BSTreeNode<E> getRoot() throws NullPointerException
@@ -63,21 +374,103 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
 	}
 
     /**
-     * Recursively calculates  the height of a node.
+     * Starts counting comparisons, path lengths, inserts, removals, rotations
+     * and iterator creations. While disabled each operation only pays for a null
+     * check. Calling it again keeps the counters collected so far.
      *
-     * @param node the node to calculate the height for
-     * @return height of the node (-1 if null)
+     * @return the live counters of this tree
      */
-	private int heightOf(BSTreeNode<E> node)
+	public TreeMetrics enableMetrics()
 	{
-		if (node == null)
+		if (metrics == null)
 		{
-			return 0;
-		} else
+			metrics = new TreeMetrics();
+		}
+		return metrics;
+	}
+
+    /**
+     * Stops counting and drops the counters.
+     */
+	public void disableMetrics()
+	{
+		metrics = null;
+	}
+
+    /**
+     * Returns the live counters of this tree; use {@link TreeMetrics#snapshot()}
+     * for a copy that stays fixed.
+     *
+     * @return the counters, or null if metrics are disabled
+     */
+	public TreeMetrics getMetrics()
+	{
+		return metrics;
+	}
+
+    /**
+     * Returns the height cached in a node.
+     *
+     * @param node the node to read
+     * @return height of the node (0 if null)
+     */
+	protected static int heightOf(BSTreeNode<?> node)
+	{
+		return node == null ? 0 : node.getHeight();
+	}
+
+    /**
+     * Returns the subtree size cached in a node.
+     *
+     * @param node the node to read
+     * @return number of nodes below and including the node (0 if null)
+     */
+	protected static int sizeOf(BSTreeNode<?> node)
+	{
+		return node == null ? 0 : node.getSize();
+	}
+
+    /**
+     * Recomputes the cached height and size of a node from its children.
+     *
+     * @param node the node to update
+     */
+	protected static void update(BSTreeNode<?> node)
+	{
+		node.setHeight(Math.max(heightOf(node.getLeft()), heightOf(node.getRight())) + 1);
+		node.setSize(sizeOf(node.getLeft()) + sizeOf(node.getRight()) + 1);
+	}
+
+    /**
+     * Returns a scratch array large enough to record a root-to-leaf path.
+     * The array is kept between calls so that add and remove do not allocate.
+     * Callers clear the entries they used once they are done.
+     *
+     * @return the path buffer
+     */
+	@SuppressWarnings("unchecked")
+	protected BSTreeNode<E>[] pathBuffer()
+	{
+		int needed = heightOf(root) + 1;
+		if (path == null || path.length < needed)
+		{
+			path = (BSTreeNode<E>[]) new BSTreeNode<?>[Math.max(16, needed * 2)];
+		}
+		return path;
+	}
+
+    /**
+     * Recomputes cached heights and sizes of the first nodes of the path buffer,
+     * deepest first.
+     *
+     * @param depth number of nodes recorded in the path buffer
+     */
+	private void updatePath(int depth)
+	{
+		for (int i = depth - 1; i >= 0; i--)
 		{
-			int leftHeight = heightOf(node.getLeft());
-			int rightHeight = heightOf(node.getRight());
-			return Math.max(leftHeight, rightHeight) + 1;
+			update(path[i]);
+			path[i] = null;
 		}
 	}
 
@@ -102,6 +495,9 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
 	{
 		root = null;
 		size = 0;
+		leftmost = null;
+		rightmost = null;
+		modCount++;
 
 	}
 
@@ -124,12 +520,14 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
 		}
 
 		BSTreeNode<E> currentNode = root;
+		int depth = 0;
 		while (currentNode != null)
 		{
+			depth++;
 			int comparatorResult = entry.compareTo(currentNode.getElement());
 			if (comparatorResult == 0)
 			{
-				return currentNode;
+				break;
 			} else if (comparatorResult < 0)
 			{
 				currentNode = currentNode.getLeft();
@@ -138,55 +536,130 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
 				currentNode = currentNode.getRight();
 			}
 		}
-		return null;
+		if (metrics != null)
+		{
+			metrics.recordSearch(depth);
+		}
+		return currentNode;
 	}
 
 	@Override
 	public boolean add(E newEntry) throws NullPointerException
 	{
-		if (newEntry == null)
+		int oldSize = size;
+		findOrAdd(newEntry);
+		return size != oldSize;
+	}
+
+	@Override
+	public BSTreeNode<E> findOrAdd(E entry) throws NullPointerException
+	{
+		if (entry == null)
 		{
 			throw new NullPointerException("Cannot add a null entry.");
 		}
+		return findOrInsert(entry, null);
+	}
+
+	@Override
+	public BSTreeNode<E> findOrCreate(Probe<E> probe) throws NullPointerException
+	{
+		if (probe == null)
+		{
+			throw new NullPointerException("Cannot search a null probe.");
+		}
+		return findOrInsert(null, probe);
+	}
 
+	/**
+	 * The single descent behind findOrAdd and findOrCreate: finds the node
+	 * equal to the entry, or to the probe when the entry is null, and links
+	 * in a node for the entry, or for the element the probe creates, if there
+	 * is none. Subclasses that insert differently override this method rather
+	 * than the two public ones.
+	 *
+	 * @param entry the element to find or add, or null to use the probe
+	 * @param probe the key to find and the factory of the element to add, or null
+	 * @return the node holding the element stored in the tree
+	 * @throws NullPointerException if the probe creates null
+	 */
+	protected BSTreeNode<E> findOrInsert(E entry, Probe<E> probe) throws NullPointerException
+	{
 		if (root == null)
 		{
-			root = new BSTreeNode<E>(newEntry, null, null);
+			root = new BSTreeNode<E>(Probes.element(entry, probe), null, null);
 			size++;
-			return true;
+			modCount++;
+			leftmost = root;
+			rightmost = root;
+			if (metrics != null)
+			{
+				metrics.recordInsert(0);
+			}
+			return root;
 		}
 
+		BSTreeNode<E>[] path = pathBuffer();
+		int depth = 0;
 		BSTreeNode<E> currentNode = root;
-		BSTreeNode<E> parentNode = null;
+		int comparatorResult;
+		// A new node is the smallest when every step went left, the largest when every step went right
+		boolean smallest = true, largest = true;
 
-		while (currentNode != null)
+		try
 		{
-			parentNode = currentNode;
-			int comparatorResult = newEntry.compareTo(currentNode.getElement());
-			if (comparatorResult == 0)
+			// Single descent: the last comparison also tells on which side to attach
+			while (true)
 			{
-				// Duplicate entry found; do not add
-				return false;
-				
-			} else if (comparatorResult < 0)
+				path[depth++] = currentNode;
+				comparatorResult = Probes.compare(entry, probe, currentNode.getElement());
+				if (comparatorResult == 0)
+				{
+					// Entry already present; return the resident node
+					if (metrics != null)
+					{
+						metrics.recordSearch(depth);
+					}
+					return currentNode;
+				}
+				smallest &= comparatorResult < 0;
+				largest &= comparatorResult > 0;
+				BSTreeNode<E> child = comparatorResult < 0 ? currentNode.getLeft() : currentNode.getRight();
+				if (child == null)
+				{
+					break;
+				}
+				currentNode = child;
+			}
+
+			BSTreeNode<E> newNode = new BSTreeNode<E>(Probes.element(entry, probe), null, null);
+			if (smallest)
 			{
-				currentNode = currentNode.getLeft();
+				leftmost = newNode;
+			} else if (largest)
+			{
+				rightmost = newNode;
+			}
+			if (comparatorResult < 0)
+			{
+				currentNode.setLeft(newNode);
 			} else
 			{
-				currentNode = currentNode.getRight();
+				currentNode.setRight(newNode);
 			}
-		}
-
-		BSTreeNode<E> newNode = new BSTreeNode<E>(newEntry, null, null);
-		if (newEntry.compareTo(parentNode.getElement()) < 0)
-		{
-			parentNode.setLeft(newNode);
-		} else
+			if (metrics != null)
+			{
+				metrics.recordInsert(depth);
+			}
+			updatePath(depth);
+			size++;
+			modCount++;
+			return newNode;
+		} finally
 		{
-			parentNode.setRight(newNode);
+			// Also when compareTo or the probe throws, so no removed node stays reachable
+			Arrays.fill(path, 0, depth, null);
 		}
-		size++;
-		return true;
 	}
 
 	@Override
@@ -197,26 +670,39 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
 			return null;
 		}
 
+		BSTreeNode<E>[] path = pathBuffer();
+		int depth = 0;
 		BSTreeNode<E> currentNode = root;
 		BSTreeNode<E> parentNode = null;
 
 		while (currentNode.getLeft() != null)
 		{
 			parentNode = currentNode;
+			path[depth++] = currentNode;
 			currentNode = currentNode.getLeft();
 		}
 
+		// The new minimum is the leftmost node of the right subtree, else the parent
+		BSTreeNode<E> successor = currentNode.getRight();
 		if (parentNode == null)
 		{
-			root = currentNode.getRight();
+			root = successor;
 		} else
 		{
-			parentNode.setLeft(currentNode.getRight());
+			parentNode.setLeft(successor);
 		}
+		removedBound(successor == null ? parentNode : leftmostOf(successor), true);
 
 		currentNode.setLeft(null);
 		currentNode.setRight(null);
+		update(currentNode);
+		updatePath(depth);
 		size--;
+		modCount++;
+		if (metrics != null)
+		{
+			metrics.recordRemoval();
+		}
 
 		return currentNode;
 	}
@@ -229,189 +715,1093 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
 			return null;
 		}
 
+		BSTreeNode<E>[] path = pathBuffer();
+		int depth = 0;
 		BSTreeNode<E> currentNode = root;
 		BSTreeNode<E> parentNode = null;
 
 		while (currentNode.getRight() != null)
 		{
 			parentNode = currentNode;
+			path[depth++] = currentNode;
 			currentNode = currentNode.getRight();
 		}
 
+		// The new maximum is the rightmost node of the left subtree, else the parent
+		BSTreeNode<E> predecessor = currentNode.getLeft();
 		if (parentNode == null)
 		{
-			root = currentNode.getLeft();
+			root = predecessor;
 		} else
 		{
-			parentNode.setRight(currentNode.getLeft());
+			parentNode.setRight(predecessor);
 		}
+		removedBound(predecessor == null ? parentNode : rightmostOf(predecessor), false);
 		currentNode.setLeft(null);
 		currentNode.setRight(null);
+		update(currentNode);
+		updatePath(depth);
 		size--;
+		modCount++;
+		if (metrics != null)
+		{
+			metrics.recordRemoval();
+		}
 		return currentNode;
 	}
 
-	@Override
-	public Iterator<E> inorderIterator()
+    /**
+     * Returns the smallest element without removing it, in O(1): add, removeMin,
+     * removeMax and the rebuilding operations keep a reference to the node
+     * holding it. Only the first peek after deserialization walks the spine.
+     *
+     * @return the smallest element, or null if the tree is empty
+     */
+	public E peekMin()
 	{
-		int numberOfNodes = size(); 
-		@SuppressWarnings("unchecked")
-		E[] elements = (E[]) new Comparable[numberOfNodes]; 
-
-		fillInOrder(root, elements, 0);
-
-		// Index for iteration
-		return new Iterator<E>()
+		if (root == null)
 		{
-			private int index = 0;
-
-			@Override
-			public boolean hasNext()
-			{
-				return index < elements.length;
-			}
-
-			@Override
-			public E next() throws NoSuchElementException
-			{
-				if (!hasNext())
-				{
-					throw new NoSuchElementException();
-				}
-				return elements[index++];
-			}
-		};
+			return null;
+		}
+		if (leftmost == null)
+		{
+			leftmost = leftmostOf(root);
+		}
+		return leftmost.getElement();
 	}
 
     /**
-     * Fills an array with elements from the subtree rooted at a node in in-order.
+     * Returns the largest element without removing it, in O(1) like
+     * {@link #peekMin()}.
      *
-     * @param node current node
-     * @param elements array to store elements
-     * @param index current index
-     * @return next available index in array
+     * @return the largest element, or null if the tree is empty
      */
-	private int fillInOrder(BSTreeNode<E> node, E[] elements, int index)
+	public E peekMax()
 	{
-		if (node != null)
+		if (root == null)
 		{
-			//Handle left subtree recursively, so that left children are added first
-			index = fillInOrder(node.getLeft(), elements, index);
-			//Visit node
-			elements[index++] = node.getElement();
-			//Handle right subtree recursively, so that right children are added last
-			index = fillInOrder(node.getRight(), elements, index);
+			return null;
+		}
+		if (rightmost == null)
+		{
+			rightmost = rightmostOf(root);
 		}
-		return index;
+		return rightmost.getElement();
 	}
 
-	@Override
-	public Iterator<E> preorderIterator()
+    /**
+     * Sets the end nodes by walking both spines, after a change that replaced
+     * the nodes of the tree, in O(height).
+     */
+	protected final void findBounds()
 	{
-		int numberOfNodes = size(); 
-		@SuppressWarnings("unchecked")
-		E[] elements = (E[]) new Comparable[numberOfNodes];
-
-		fillPreOrder(root, elements, 0);
-
-		// Index for iteration
-		return new Iterator<E>()
-		{
-			private int index = 0;
-
-			@Override
-			public boolean hasNext()
-			{
-				return index < elements.length;
-			}
-
-			@Override
-			public E next() throws NoSuchElementException
-			{
-				if (!hasNext())
-				{
-					throw new NoSuchElementException();
-				}
-				return elements[index++];
-			}
-		};
-
+		leftmost = root == null ? null : leftmostOf(root);
+		rightmost = root == null ? null : rightmostOf(root);
 	}
 
     /**
-     * Fills an array with elements from the subtree rooted at a node in pre-order.
+     * Records a node just linked into the tree as the new smallest or largest
+     * element when it passes the current one. An end that is not known stays
+     * unknown.
      *
-     * @param node current node
-     * @param elements array to store elements
-     * @param index current index
-     * @return next available index
+     * @param node the node that was added
      */
-	private int fillPreOrder(BSTreeNode<E> node, E[] elements, int index)
+	protected final void addedBound(BSTreeNode<E> node)
 	{
-		if (node != null)
+		if (size == 1)
 		{
-			//Visit node
-			elements[index++] = node.getElement();
-			//Handle left subtree recursively, in this way left children are added next
-			index = fillPreOrder(node.getLeft(), elements, index);
-			//Recurse right subtree, so that right children are added last
-			index = fillPreOrder(node.getRight(), elements, index);
+			leftmost = node;
+			rightmost = node;
+		} else if (leftmost != null && node.getElement().compareTo(leftmost.getElement()) < 0)
+		{
+			leftmost = node;
+		} else if (rightmost != null && node.getElement().compareTo(rightmost.getElement()) > 0)
+		{
+			rightmost = node;
 		}
-		return index;
 	}
 
-	@Override
-	public Iterator<E> postorderIterator()
+    /**
+     * Moves an end of the tree to the node next to the one being removed from
+     * it. Rotations relink nodes without moving elements between them, so a
+     * subclass may find the next node before it rebalances.
+     *
+     * @param next the node that becomes the end, or null if none is left
+     * @param smallest true if the smallest node is removed, false for the largest
+     */
+	protected final void removedBound(BSTreeNode<E> next, boolean smallest)
 	{
-		int numberOfNodes = size(); 
-		@SuppressWarnings("unchecked")
-		E[] elements = (E[]) new Comparable[numberOfNodes]; 
-
-		fillPostOrder(root, elements, 0);
-
-		// Index for iteration
-		return new Iterator<E>()
+		if (smallest)
+		{
+			leftmost = next;
+		} else
 		{
-			private int index = 0;
+			rightmost = next;
+		}
+		if (next == null)
+		{
+			// The removed node was the only one
+			leftmost = null;
+			rightmost = null;
+		}
+	}
 
-			@Override
-			public boolean hasNext()
+    /**
+     * Returns the node holding the smallest element of a subtree.
+     *
+     * @param node root of a non-empty subtree
+     * @return its leftmost node
+     */
+	protected static <E> BSTreeNode<E> leftmostOf(BSTreeNode<E> node)
+	{
+		while (node.getLeft() != null)
+		{
+			node = node.getLeft();
+		}
+		return node;
+	}
+
+    /**
+     * Returns the node holding the largest element of a subtree.
+     *
+     * @param node root of a non-empty subtree
+     * @return its rightmost node
+     */
+	protected static <E> BSTreeNode<E> rightmostOf(BSTreeNode<E> node)
+	{
+		while (node.getRight() != null)
+		{
+			node = node.getRight();
+		}
+		return node;
+	}
+
+    /**
+     * Removes every element and passes them to the action in ascending order.
+     * Unlike a removeMin loop, no spine is walked and nothing is rebalanced:
+     * the tree is emptied first and the detached nodes are then visited once
+     * each, in O(n) total, on the stack array that forEach keeps. Since the
+     * tree is already empty when the action runs, the action may add elements
+     * to it again, as a work queue does.
+     *
+     * @param action the action to perform on each removed element
+     * @return the number of elements removed
+     * @throws NullPointerException if the action is null
+     */
+	public int drainInOrder(Consumer<? super E> action) throws NullPointerException
+	{
+		if (action == null)
+		{
+			throw new NullPointerException("Action cannot be null.");
+		}
+
+		BSTreeNode<E> node = root;
+		int count = size();
+		int needed = heightOf(node);
+		clear();
+		BSTreeNode<E>[] stack = borrowStack(needed);
+		try
+		{
+			int top = 0;
+			while (node != null || top > 0)
 			{
-				return index < elements.length;
+				while (node != null)
+				{
+					stack[top++] = node;
+					node = node.getLeft();
+				}
+				node = stack[--top];
+				if (metrics != null)
+				{
+					metrics.recordRemoval();
+				}
+				action.accept(node.getElement());
+				node = node.getRight();
 			}
+		} finally
+		{
+			returnStack(stack, needed);
+		}
+		return count;
+	}
+
+    /**
+     * Returns the number of elements in the tree that are smaller than the given
+     * entry, i.e. the position the entry has (or would have) in in-order.
+     * Runs in time proportional to the height of the tree.
+     *
+     * @param entry the element to rank
+     * @return number of elements smaller than entry
+     * @throws NullPointerException if entry is null
+     */
+	public int rank(E entry) throws NullPointerException
+	{
+		if (entry == null)
+		{
+			throw new NullPointerException("Cannot rank a null entry.");
+		}
 
-			@Override
-			public E next() throws NoSuchElementException
+		int smaller = 0;
+		BSTreeNode<E> currentNode = root;
+		while (currentNode != null)
+		{
+			int comparatorResult = entry.compareTo(currentNode.getElement());
+			if (comparatorResult < 0)
 			{
-				if (!hasNext())
+				currentNode = currentNode.getLeft();
+			} else
+			{
+				smaller += sizeOf(currentNode.getLeft());
+				if (comparatorResult == 0)
 				{
-					throw new NoSuchElementException();
+					break;
 				}
-				
-				return elements[index++];
+				smaller++;
+				currentNode = currentNode.getRight();
 			}
-		};
+		}
+		return smaller;
 	}
 
     /**
-     * Fills an array with elements from the subtree rooted at a node in post-order.
+     * Returns the element at a position of the in-order sequence.
+     * Runs in time proportional to the height of the tree.
      *
-     * @param node current node
-     * @param elements array to store elements
-     * @param index current index
-     * @return next available index
+     * @param index zero-based position of the element
+     * @return the element with exactly index smaller elements in the tree
+     * @throws IndexOutOfBoundsException if index is negative or not less than size()
      */
-	private int fillPostOrder(BSTreeNode<E> node, E[] elements, int index)
+	public E select(int index) throws IndexOutOfBoundsException
+	{
+		if (index < 0 || index >= size())
+		{
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+		}
+
+		BSTreeNode<E> currentNode = root;
+		while (true)
+		{
+			int leftSize = sizeOf(currentNode.getLeft());
+			if (index < leftSize)
+			{
+				currentNode = currentNode.getLeft();
+			} else if (index == leftSize)
+			{
+				return currentNode.getElement();
+			} else
+			{
+				index -= leftSize + 1;
+				currentNode = currentNode.getRight();
+			}
+		}
+	}
+
+    /**
+     * Returns the largest element that is less than or equal to the given entry.
+     *
+     * @param entry the element to look up
+     * @return the floor of entry, or null if every element is greater
+     * @throws NullPointerException if entry is null
+     */
+	public E floor(E entry) throws NullPointerException
+	{
+		return nearest(entry, false, true);
+	}
+
+    /**
+     * Returns the smallest element that is greater than or equal to the given entry.
+     *
+     * @param entry the element to look up
+     * @return the ceiling of entry, or null if every element is smaller
+     * @throws NullPointerException if entry is null
+     */
+	public E ceiling(E entry) throws NullPointerException
+	{
+		return nearest(entry, true, true);
+	}
+
+    /**
+     * Returns the smallest element that is strictly greater than the given entry.
+     *
+     * @param entry the element to look up
+     * @return the next element after entry, or null if there is none
+     * @throws NullPointerException if entry is null
+     */
+	public E higher(E entry) throws NullPointerException
+	{
+		return nearest(entry, true, false);
+	}
+
+    /**
+     * Returns the largest element that is strictly less than the given entry.
+     *
+     * @param entry the element to look up
+     * @return the element before entry, or null if there is none
+     * @throws NullPointerException if entry is null
+     */
+	public E lower(E entry) throws NullPointerException
+	{
+		return nearest(entry, false, false);
+	}
+
+    /**
+     * Descends once from the root remembering the closest candidate seen on the
+     * requested side of the entry.
+     *
+     * @param entry the element to look up
+     * @param above true to look for elements after entry, false for elements before it
+     * @param inclusive true if an element equal to entry is an acceptable answer
+     * @return the closest element on the requested side, or null if there is none
+     */
+	private E nearest(E entry, boolean above, boolean inclusive)
+	{
+		if (entry == null)
+		{
+			throw new NullPointerException("Cannot look up a null entry.");
+		}
+
+		E candidate = null;
+		BSTreeNode<E> currentNode = root;
+		while (currentNode != null)
+		{
+			int comparatorResult = entry.compareTo(currentNode.getElement());
+			if (comparatorResult == 0 && inclusive)
+			{
+				return currentNode.getElement();
+			}
+			if (above ? comparatorResult < 0 : comparatorResult <= 0)
+			{
+				if (above)
+				{
+					candidate = currentNode.getElement();
+				}
+				currentNode = currentNode.getLeft();
+			} else
+			{
+				if (!above)
+				{
+					candidate = currentNode.getElement();
+				}
+				currentNode = currentNode.getRight();
+			}
+		}
+		return candidate;
+	}
+
+    /**
+     * Generates an in-order iteration over the elements in the half-open range
+     * [from, to). The iterator descends directly to the first element of the
+     * range and stops at the end bound, so a range of k elements costs
+     * O(height + k). Either bound may be null to leave that end open.
+     *
+     * @param from smallest element to include, or null to start at the minimum
+     * @param to first element past the range, or null to run to the maximum
+     * @return an iterator over the range in natural order
+     */
+	public Iterator<E> rangeIterator(E from, E to)
+	{
+		return new RangeIterator(from, to);
+	}
+
+	@Override
+	public Iterator<E> inorderIterator()
+	{
+		return new InorderIterator();
+	}
+
+	@Override
+	public Iterator<E> preorderIterator()
+	{
+		return new PreorderIterator();
+	}
+
+	@Override
+	public Iterator<E> postorderIterator()
+	{
+		return new PostorderIterator();
+	}
+
+	/**
+	 * Visits the elements in in-order without allocating: the nodes are walked
+	 * with a stack array that the tree keeps between calls, sized from the
+	 * cached height. A traversal started while another one holds that array,
+	 * from inside a visitor, allocates its own.
+	 * Throws a ConcurrentModificationException if the visitor modifies the tree.
+	 */
+	@Override
+	public boolean forEachInOrder(Visitor<? super E> visitor) throws NullPointerException
+	{
+		if (visitor == null)
+		{
+			throw new NullPointerException("Visitor cannot be null.");
+		}
+
+		int expectedModCount = modCount;
+		int needed = heightOf(root);
+		BSTreeNode<E>[] stack = borrowStack(needed);
+		try
+		{
+			int top = 0;
+			BSTreeNode<E> node = root;
+			while (node != null || top > 0)
+			{
+				while (node != null)
+				{
+					stack[top++] = node;
+					node = node.getLeft();
+				}
+				node = stack[--top];
+				if (!visitor.visit(node.getElement()))
+				{
+					return false;
+				}
+				if (modCount != expectedModCount)
+				{
+					throw new ConcurrentModificationException();
+				}
+				node = node.getRight();
+			}
+			return true;
+		} finally
+		{
+			returnStack(stack, needed);
+		}
+	}
+
+	/**
+	 * Visits the elements in pre-order without allocating, like
+	 * {@link #forEachInOrder(Visitor)}.
+	 */
+	@Override
+	public boolean forEachPreOrder(Visitor<? super E> visitor) throws NullPointerException
+	{
+		if (visitor == null)
+		{
+			throw new NullPointerException("Visitor cannot be null.");
+		}
+
+		int expectedModCount = modCount;
+		int needed = heightOf(root) + 1;
+		BSTreeNode<E>[] stack = borrowStack(needed);
+		try
+		{
+			int top = 0;
+			if (root != null)
+			{
+				stack[top++] = root;
+			}
+			while (top > 0)
+			{
+				BSTreeNode<E> node = stack[--top];
+				if (!visitor.visit(node.getElement()))
+				{
+					return false;
+				}
+				if (modCount != expectedModCount)
+				{
+					throw new ConcurrentModificationException();
+				}
+				//Push right first so that the left subtree is visited before it
+				if (node.getRight() != null)
+				{
+					stack[top++] = node.getRight();
+				}
+				if (node.getLeft() != null)
+				{
+					stack[top++] = node.getLeft();
+				}
+			}
+			return true;
+		} finally
+		{
+			returnStack(stack, needed);
+		}
+	}
+
+	/**
+	 * Visits the elements in post-order without allocating, like
+	 * {@link #forEachInOrder(Visitor)}.
+	 */
+	@Override
+	public boolean forEachPostOrder(Visitor<? super E> visitor) throws NullPointerException
+	{
+		if (visitor == null)
+		{
+			throw new NullPointerException("Visitor cannot be null.");
+		}
+
+		int expectedModCount = modCount;
+		int needed = heightOf(root);
+		BSTreeNode<E>[] stack = borrowStack(needed);
+		try
+		{
+			int top = 0;
+			BSTreeNode<E> node = root;
+			BSTreeNode<E> lastVisited = null;
+			while (node != null || top > 0)
+			{
+				if (node != null)
+				{
+					stack[top++] = node;
+					node = node.getLeft();
+					continue;
+				}
+				BSTreeNode<E> parent = stack[top - 1];
+				if (parent.getRight() != null && parent.getRight() != lastVisited)
+				{
+					// Visit the right subtree before its parent
+					node = parent.getRight();
+					continue;
+				}
+				if (!visitor.visit(parent.getElement()))
+				{
+					return false;
+				}
+				if (modCount != expectedModCount)
+				{
+					throw new ConcurrentModificationException();
+				}
+				lastVisited = parent;
+				top--;
+			}
+			return true;
+		} finally
+		{
+			returnStack(stack, needed);
+		}
+	}
+
+	/**
+	 * Takes the kept traversal stack if it is free and large enough, or
+	 * allocates a new one. A visitor that starts another traversal of this
+	 * tree finds the field empty and gets a stack of its own. The field is not
+	 * guarded, so a subclass whose trees are read by several threads at once
+	 * overrides this method and {@link #returnStack(BSTreeNode[], int)}.
+	 *
+	 * @param needed number of nodes the traversal may push
+	 * @return a stack of at least that length
+	 */
+	@SuppressWarnings("unchecked")
+	protected BSTreeNode<E>[] borrowStack(int needed)
+	{
+		BSTreeNode<E>[] stack = traversalStack;
+		traversalStack = null;
+		if (stack == null || stack.length < needed)
+		{
+			stack = (BSTreeNode<E>[]) new BSTreeNode<?>[Math.max(16, needed)];
+		}
+		return stack;
+	}
+
+	/**
+	 * Clears a traversal stack and keeps it for the next traversal.
+	 *
+	 * @param stack the stack to keep
+	 * @param used number of leading entries that may hold nodes
+	 */
+	protected void returnStack(BSTreeNode<E>[] stack, int used)
+	{
+		Arrays.fill(stack, 0, Math.min(used, stack.length), null);
+		traversalStack = stack;
+	}
+
+	/**
+	 * Creates a Spliterator over the elements in in-order. It splits by subtree:
+	 * the first split hands off the left subtree of the root and keeps the root
+	 * and its right subtree, and so on down, so a parallel job over a
+	 * balanced tree gets halves of about equal size without copying the
+	 * elements. The cached subtree sizes make every part exactly SIZED. The
+	 * Spliterator is fail-fast like the iterators.
+	 *
+	 * @return a Spliterator reporting ORDERED, SORTED, DISTINCT, NONNULL, SIZED and SUBSIZED
+	 */
+	public Spliterator<E> spliterator()
 	{
-		if (node != null)
+		TreeSpliterator spliterator = new TreeSpliterator(modCount);
+		if (metrics != null)
 		{
-			//Handle left subtree recursively, so that left children are added first
-			index = fillPostOrder(node.getLeft(), elements, index);
-			//Handle right subtree recursively, so that right children are added next
-			index = fillPostOrder(node.getRight(), elements, index);
-			//Visit node last
-			elements[index++] = node.getElement();
+			metrics.recordIterator();
+		}
+		if (root != null)
+		{
+			spliterator.push(root, true);
+		}
+		return spliterator;
+	}
+
+	/**
+	 * Returns a sequential Stream over the elements in in-order.
+	 *
+	 * @return a sequential stream of the elements
+	 */
+	public Stream<E> stream()
+	{
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * Returns a parallel Stream over the elements, split by subtree.
+	 *
+	 * @return a parallel stream of the elements
+	 */
+	public Stream<E> parallelStream()
+	{
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+	/**
+	 * Base class of the traversal iterators. Elements are produced on demand
+	 * while walking the tree with an explicit stack, so an iterator only holds
+	 * O(height) nodes and costs nothing for the part of the tree it never reaches.
+	 * The iterators are fail-fast: once the tree is structurally modified any
+	 * further call to next throws a ConcurrentModificationException.
+	 */
+	private abstract class TreeIterator implements Iterator<E>
+	{
+		/** Nodes still to be expanded, in the order the traversal needs them */
+		protected final Deque<BSTreeNode<E>> stack = new ArrayDeque<BSTreeNode<E>>();
+
+		/** Modification count of the tree when the iterator was created */
+		private final int expectedModCount = modCount;
+
+		TreeIterator()
+		{
+			if (metrics != null)
+			{
+				metrics.recordIterator();
+			}
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			return !stack.isEmpty();
+		}
+
+		@Override
+		public E next() throws NoSuchElementException
+		{
+			if (modCount != expectedModCount)
+			{
+				throw new ConcurrentModificationException();
+			}
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+			return advance().getElement();
+		}
+
+		/**
+		 * Removes the next node of the traversal from the stack and pushes
+		 * whatever the traversal has to visit after it.
+		 *
+		 * @return the next node in traversal order
+		 */
+		protected abstract BSTreeNode<E> advance();
+	}
+
+	/**
+	 * Lazy in-order iterator; the stack holds the left spine still to visit.
+	 */
+	private class InorderIterator extends TreeIterator
+	{
+		InorderIterator()
+		{
+			pushLeftSpine(root);
+		}
+
+		@Override
+		protected BSTreeNode<E> advance()
+		{
+			BSTreeNode<E> node = stack.pop();
+			//Right subtree comes next, starting from its smallest node
+			pushLeftSpine(node.getRight());
+			return node;
+		}
+
+		private void pushLeftSpine(BSTreeNode<E> node)
+		{
+			while (node != null)
+			{
+				stack.push(node);
+				node = node.getLeft();
+			}
+		}
+	}
+
+	/**
+	 * Lazy in-order iterator restricted to [from, to); the stack only ever holds
+	 * nodes that are not below the lower bound.
+	 */
+	private class RangeIterator extends TreeIterator
+	{
+		private final E from, to;
+
+		RangeIterator(E from, E to)
+		{
+			this.from = from;
+			this.to = to;
+			pushLeftSpine(root);
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			return !stack.isEmpty() && (to == null || stack.peek().getElement().compareTo(to) < 0);
+		}
+
+		@Override
+		protected BSTreeNode<E> advance()
+		{
+			BSTreeNode<E> node = stack.pop();
+			pushLeftSpine(node.getRight());
+			return node;
+		}
+
+		private void pushLeftSpine(BSTreeNode<E> node)
+		{
+			while (node != null)
+			{
+				if (from != null && node.getElement().compareTo(from) < 0)
+				{
+					//Whole left subtree is below the range as well
+					node = node.getRight();
+				} else
+				{
+					stack.push(node);
+					node = node.getLeft();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Lazy pre-order iterator; the stack holds subtrees not yet started.
+	 */
+	private class PreorderIterator extends TreeIterator
+	{
+		PreorderIterator()
+		{
+			if (root != null)
+			{
+				stack.push(root);
+			}
+		}
+
+		@Override
+		protected BSTreeNode<E> advance()
+		{
+			BSTreeNode<E> node = stack.pop();
+			//Push right first so that the left subtree is visited before it
+			if (node.getRight() != null)
+			{
+				stack.push(node.getRight());
+			}
+			if (node.getLeft() != null)
+			{
+				stack.push(node.getLeft());
+			}
+			return node;
+		}
+	}
+
+	/**
+	 * Lazy post-order iterator; the stack holds the path from the root to the
+	 * next node to visit.
+	 */
+	private class PostorderIterator extends TreeIterator
+	{
+		PostorderIterator()
+		{
+			pushFirstLeaf(root);
+		}
+
+		@Override
+		protected BSTreeNode<E> advance()
+		{
+			BSTreeNode<E> node = stack.pop();
+			//Coming up from the left child, the right subtree is visited before the parent
+			BSTreeNode<E> parent = stack.peek();
+			if (parent != null && parent.getLeft() == node)
+			{
+				pushFirstLeaf(parent.getRight());
+			}
+			return node;
+		}
+
+		private void pushFirstLeaf(BSTreeNode<E> node)
+		{
+			while (node != null)
+			{
+				stack.push(node);
+				node = node.getLeft() != null ? node.getLeft() : node.getRight();
+			}
+		}
+	}
+
+	/**
+	 * In-order Spliterator. The elements still to visit are a stack of blocks,
+	 * the top being visited first; a block is either a whole subtree or a single
+	 * node. Visiting expands the top whole subtree into its left subtree, its
+	 * root alone and its right subtree. Splitting hands the top blocks, about
+	 * half of the remaining elements, to a new Spliterator.
+	 */
+	private class TreeSpliterator implements Spliterator<E>
+	{
+		private BSTreeNode<E>[] nodes;
+		private boolean[] whole;
+		private int top = 0;
+
+		/** Number of elements in the blocks */
+		private long remaining = 0;
+
+		/** Modification count of the tree when the Spliterator was created */
+		private final int expectedModCount;
+
+		@SuppressWarnings("unchecked")
+		TreeSpliterator(int expectedModCount)
+		{
+			this.expectedModCount = expectedModCount;
+			this.nodes = (BSTreeNode<E>[]) new BSTreeNode<?>[8];
+			this.whole = new boolean[8];
+		}
+
+		private void push(BSTreeNode<E> node, boolean subtree)
+		{
+			if (top == nodes.length)
+			{
+				nodes = Arrays.copyOf(nodes, top * 2);
+				whole = Arrays.copyOf(whole, top * 2);
+			}
+			nodes[top] = node;
+			whole[top++] = subtree;
+			remaining += subtree ? sizeOf(node) : 1;
+		}
+
+		/**
+		 * Removes the next node in in-order, expanding whole subtrees on the way.
+		 */
+		private BSTreeNode<E> pop()
+		{
+			BSTreeNode<E> node = nodes[--top];
+			boolean subtree = whole[top];
+			nodes[top] = null;
+			remaining -= subtree ? sizeOf(node) : 1;
+			while (subtree && node.getLeft() != null)
+			{
+				if (node.getRight() != null)
+				{
+					push(node.getRight(), true);
+				}
+				push(node, false);
+				node = node.getLeft();
+			}
+			if (subtree && node.getRight() != null)
+			{
+				push(node.getRight(), true);
+			}
+			return node;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super E> action)
+		{
+			if (action == null)
+			{
+				throw new NullPointerException();
+			}
+			if (top == 0)
+			{
+				return false;
+			}
+			E element = pop().getElement();
+			if (modCount != expectedModCount)
+			{
+				throw new ConcurrentModificationException();
+			}
+			action.accept(element);
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super E> action)
+		{
+			if (action == null)
+			{
+				throw new NullPointerException();
+			}
+			while (top > 0)
+			{
+				action.accept(pop().getElement());
+			}
+			if (modCount != expectedModCount)
+			{
+				throw new ConcurrentModificationException();
+			}
+		}
+
+		@Override
+		public Spliterator<E> trySplit()
+		{
+			if (top == 1 && whole[0])
+			{
+				// A single subtree is opened at its root: left subtree and root, then right subtree
+				BSTreeNode<E> node = nodes[0];
+				top = 0;
+				remaining = 0;
+				if (node.getRight() != null)
+				{
+					push(node.getRight(), true);
+				}
+				push(node, false);
+				if (node.getLeft() != null)
+				{
+					push(node.getLeft(), true);
+				}
+			}
+			if (top < 2)
+			{
+				return null;
+			}
+
+			// Blocks for the prefix come off the top, but at least one stays here
+			int from = top - 1;
+			long prefixSize = blockSize(from);
+			while (from > 1 && prefixSize + blockSize(from - 1) <= remaining / 2)
+			{
+				prefixSize += blockSize(--from);
+			}
+			TreeSpliterator prefix = new TreeSpliterator(expectedModCount);
+			for (int i = from; i < top; i++)
+			{
+				prefix.push(nodes[i], whole[i]);
+				nodes[i] = null;
+			}
+			top = from;
+			remaining -= prefixSize;
+			return prefix;
+		}
+
+		private long blockSize(int index)
+		{
+			return whole[index] ? sizeOf(nodes[index]) : 1;
+		}
+
+		@Override
+		public long estimateSize()
+		{
+			return remaining;
+		}
+
+		@Override
+		public int characteristics()
+		{
+			return ORDERED | SORTED | DISTINCT | NONNULL | SIZED | SUBSIZED;
+		}
+
+		@Override
+		public Comparator<? super E> getComparator()
+		{
+			// Natural ordering
+			return null;
+		}
+	}
+
+    /**
+     * Writes the size followed by every element in in-order, with no per-node
+     * structure: the reader rebuilds a balanced tree, so the shape of the tree
+     * is not preserved. The legacy root field is written as null so older
+     * readers see an empty tree rather than failing.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+	private void writeObject(ObjectOutputStream out) throws IOException
+	{
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("root", null);
+		fields.put("size", size());
+		fields.put("format", FORMAT_INORDER);
+		out.writeFields();
+
+		Iterator<E> it = new InorderIterator();
+		while (it.hasNext())
+		{
+			out.writeObject(it.next());
+		}
+	}
+
+    /**
+     * Restores a tree written by {@link #writeObject(ObjectOutputStream)} as a
+     * height-balanced tree in O(n). Repositories saved before the custom format,
+     * whose node graph arrives in the root field, are used as they are and get
+     * their cached heights and sizes recomputed.
+     *
+     * @param in the stream to read from
+     * @throws IOException if the stream cannot be read
+     * @throws ClassNotFoundException if a class of the stream cannot be found
+     */
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		ObjectInputStream.GetField fields = in.readFields();
+		root = (BSTreeNode<E>) fields.get("root", null);
+		size = fields.get("size", 0);
+
+		if (root == null && size > 0)
+		{
+			if (fields.get("format", 0) != FORMAT_INORDER)
+			{
+				throw new InvalidObjectException("Unknown tree format");
+			}
+			E[] sorted = (E[]) new Comparable<?>[size];
+			for (int i = 0; i < size; i++)
+			{
+				sorted[i] = (E) in.readObject();
+			}
+			try
+			{
+				root = new SortedBuilder(new ArrayIterator<E>(sorted)).build(size);
+			} catch (IllegalArgumentException | NullPointerException e)
+			{
+				throw new InvalidObjectException("Corrupt tree: " + e.getMessage());
+			}
+			// Built nodes already carry their heights and sizes
+			return;
+		}
+
+		// Saved before the custom format: the node graph arrived in the root field
+		recomputeCachedFields();
+	}
+
+    /**
+     * Recomputes the cached height and size of every node with an iterative
+     * post-order walk, so that children are updated before their parents.
+     */
+	private void recomputeCachedFields()
+	{
+		Deque<BSTreeNode<E>> stack = new ArrayDeque<BSTreeNode<E>>();
+		BSTreeNode<E> currentNode = root;
+		BSTreeNode<E> lastVisited = null;
+		while (currentNode != null || !stack.isEmpty())
+		{
+			if (currentNode != null)
+			{
+				stack.push(currentNode);
+				currentNode = currentNode.getLeft();
+			} else
+			{
+				BSTreeNode<E> top = stack.peek();
+				if (top.getRight() != null && top.getRight() != lastVisited)
+				{
+					currentNode = top.getRight();
+				} else
+				{
+					update(top);
+					lastVisited = stack.pop();
+				}
+			}
 		}
-		return index;
 	}
 }
@@ -21,6 +21,12 @@ public class BSTreeNode<E> implements Serializable
 	/** Reference to the left / right child node */
 	private BSTreeNode<E> left, right;
 	
+	/** Height of the subtree rooted at this node (1 for a leaf) */
+	private int height;
+	
+	/** Number of nodes in the subtree rooted at this node (1 for a leaf) */
+	private int size;
+	
     /**
      * Creates a new BSTreeNode with the specified element and children.
      *
@@ -34,6 +40,8 @@ public class BSTreeNode<E> implements Serializable
 		this.element = element;
 		this.left = left;
 		this.right = right;
+		this.height = Math.max(left == null ? 0 : left.height, right == null ? 0 : right.height) + 1;
+		this.size = (left == null ? 0 : left.size) + (right == null ? 0 : right.size) + 1;
 	}
 	
 	 /**
@@ -96,6 +104,43 @@ public class BSTreeNode<E> implements Serializable
 		this.right = right;
 	}
 	
+    /**
+     * Returns the cached height of the subtree rooted at this node.
+     *
+     * @return height the height of this subtree
+     */
+	public int getHeight()
+	{
+		return height;
+	}
 	
+    /**
+     * Sets the cached height of the subtree rooted at this node.
+     *
+     * @param height the height to set
+     */
+	public void setHeight(int height)
+	{
+		this.height = height;
+	}
 	
+    /**
+     * Returns the cached number of nodes in the subtree rooted at this node.
+     *
+     * @return size the size of this subtree
+     */
+	public int getSize()
+	{
+		return size;
+	}
+	
+    /**
+     * Sets the cached number of nodes in the subtree rooted at this node.
+     *
+     * @param size the size to set
+     */
+	public void setSize(int size)
+	{
+		this.size = size;
+	}
 }
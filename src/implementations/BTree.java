@@ -0,0 +1,828 @@
+package implementations;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import utilities.BSTreeADT;
+import utilities.Iterator;
+import utilities.Probe;
+
+/**
+ * B+tree implementation of the BSTreeADT. Every node holds up to
+ * {@code order} sorted keys in one contiguous array, so a search visits
+ * log<sub>order</sub>(n) nodes instead of the log<sub>2</sub>(n) nodes of a
+ * binary tree and binary-searches within each. Elements are stored only in the
+ * leaves, which are linked in order, so the in-order iterator reads the leaves
+ * one after the other without going back up the tree.
+ * <p>
+ * Inner nodes hold separators: all elements of child {@code i + 1} are greater
+ * than or equal to separator {@code i}, and all elements of child {@code i}
+ * are smaller. Full nodes are split in half on insertion. Removal is lazy:
+ * removeMin and removeMax never merge or borrow, they only unlink a node once
+ * it is empty, so separators may name elements that are no longer stored.
+ * <p>
+ * A B+tree has no binary shape, so the members of the BSTreeADT that expose
+ * one are defined as follows:
+ * <ul>
+ * <li>getHeight counts the levels of nodes, a single leaf being height 1;</li>
+ * <li>getRoot returns a node holding the element at which the middle child of
+ * the root starts, without links;</li>
+ * <li>the pre-order and post-order iterators visit the elements in the order
+ * of the balanced binary search tree over the same elements, so copying the
+ * tree in pre-order into a BSTree yields a balanced BSTree. They copy the
+ * elements up front.</li>
+ * </ul>
+ * The nodes returned by search, findOrAdd, findOrCreate, removeMin and
+ * removeMax hold the stored element but are not linked to the tree; setting
+ * their element does not change the tree. search, findOrAdd and findOrCreate
+ * return the same node object each time, so a lookup allocates nothing: it is
+ * a view that holds its element only until the next lookup or add. removeMin and removeMax return
+ * a new node that the caller may keep.
+ *
+ * @param <E> the type of elements stored in this tree; must implement Comparable
+ */
+public class BTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Serializable
+{
+	// Serial version UID for serialization
+	private static final long serialVersionUID = 1L;
+
+	/** Fan-out used by the no-argument constructor */
+	public static final int DEFAULT_ORDER = 64;
+
+	/** Smallest fan-out that still leaves both halves of a split non-empty */
+	private static final int MIN_ORDER = 3;
+
+	/** Maximum number of keys in a leaf and of children in an inner node */
+	private final int order;
+
+	/** Root node, a leaf while the tree has a single level */
+	private transient Node root;
+
+	/** First leaf, where the in-order walk starts */
+	private transient Leaf head;
+
+	/** Number of levels of nodes */
+	private transient int levels;
+
+	/** Number of elements in the tree */
+	private transient int size;
+
+	/** Number of structural modifications, used by the iterators to fail fast */
+	private transient int modCount;
+
+	/** Scratch inner nodes and child positions of the current descent, kept between calls */
+	private transient Inner[] path;
+	private transient int[] positions;
+
+	/** Node returned by the lookups, refilled by each call */
+	private transient BSTreeNode<E> view;
+
+	/**
+	 * Constructs an empty BTree with the default fan-out.
+	 */
+	public BTree()
+	{
+		this(DEFAULT_ORDER);
+	}
+
+	/**
+	 * Constructs an empty BTree with the given fan-out.
+	 *
+	 * @param order maximum number of keys per leaf and of children per inner node
+	 * @throws IllegalArgumentException if order is less than 3
+	 */
+	public BTree(int order) throws IllegalArgumentException
+	{
+		if (order < MIN_ORDER)
+		{
+			throw new IllegalArgumentException("Order must be at least " + MIN_ORDER + ": " + order);
+		}
+		this.order = order;
+		reset();
+	}
+
+	/**
+	 * Constructs a BTree with the default fan-out containing the specified element.
+	 *
+	 * @param element the first element of the tree
+	 */
+	public BTree(E element)
+	{
+		this();
+		add(element);
+	}
+
+	/**
+	 * Returns the fan-out of this tree.
+	 *
+	 * @return maximum number of keys per leaf and of children per inner node
+	 */
+	public int getOrder()
+	{
+		return order;
+	}
+
+	/**
+	 * Replaces the contents by a single empty leaf.
+	 */
+	private void reset()
+	{
+		head = new Leaf(order);
+		root = head;
+		levels = 1;
+		size = 0;
+	}
+
+	@Override
+	public BSTreeNode<E> getRoot() throws NullPointerException
+	{
+		if (size == 0)
+		{
+			throw new NullPointerException("Tree is empty.");
+		}
+		Node node = root;
+		if (node instanceof Inner)
+		{
+			node = ((Inner) node).children[node.count / 2];
+			while (node instanceof Inner)
+			{
+				node = ((Inner) node).children[0];
+			}
+			return entry(keyAt((Leaf) node, 0));
+		}
+		return entry(keyAt((Leaf) node, node.count / 2));
+	}
+
+	/**
+	 * Returns the number of levels of nodes: 0 when empty, 1 for a single leaf.
+	 */
+	@Override
+	public int getHeight()
+	{
+		return size == 0 ? 0 : levels;
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	@Override
+	public void clear()
+	{
+		reset();
+		modCount++;
+	}
+
+	@Override
+	public boolean contains(E entry) throws NullPointerException
+	{
+		return search(entry) != null;
+	}
+
+	@Override
+	public BSTreeNode<E> search(E entry) throws NullPointerException
+	{
+		if (entry == null)
+		{
+			throw new NullPointerException("Cannot search a null entry.");
+		}
+		Node node = root;
+		while (node instanceof Inner)
+		{
+			Inner inner = (Inner) node;
+			node = inner.children[inner.childIndex(entry, null)];
+		}
+		Leaf leaf = (Leaf) node;
+		int index = leaf.indexOf(entry, null);
+		return index >= 0 ? view(keyAt(leaf, index)) : null;
+	}
+
+	@Override
+	public boolean add(E newEntry) throws NullPointerException
+	{
+		int oldSize = size;
+		findOrAdd(newEntry);
+		return size != oldSize;
+	}
+
+	@Override
+	public BSTreeNode<E> findOrAdd(E entry) throws NullPointerException
+	{
+		if (entry == null)
+		{
+			throw new NullPointerException("Cannot add a null entry.");
+		}
+		return findOrInsert(entry, null);
+	}
+
+	@Override
+	public BSTreeNode<E> findOrCreate(Probe<E> probe) throws NullPointerException
+	{
+		if (probe == null)
+		{
+			throw new NullPointerException("Cannot search a null probe.");
+		}
+		return findOrInsert(null, probe);
+	}
+
+	/**
+	 * Finds or adds the entry, or the element of the probe when the entry is
+	 * null, in a single descent.
+	 */
+	private BSTreeNode<E> findOrInsert(E entry, Probe<E> probe)
+	{
+		// Inner nodes and child positions on the way down, for splitting on the way up
+		Inner[] path = pathBuffer();
+		int[] positions = this.positions;
+		int pathLength = levels - 1;
+		try
+		{
+			Node node = root;
+			for (int depth = 0; node instanceof Inner; depth++)
+			{
+				Inner inner = (Inner) node;
+				path[depth] = inner;
+				positions[depth] = inner.childIndex(entry, probe);
+				node = inner.children[positions[depth]];
+			}
+			Leaf leaf = (Leaf) node;
+			int index = leaf.indexOf(entry, probe);
+			if (index >= 0)
+			{
+				return view(keyAt(leaf, index));
+			}
+
+			E element = Probes.element(entry, probe);
+			leaf.insert(-index - 1, element);
+			size++;
+			modCount++;
+			if (leaf.count > order)
+			{
+				Node sibling = leaf.split();
+				Object separator = ((Leaf) sibling).keys[0];
+				int depth = pathLength - 1;
+				// Hand the new right half to the parent, splitting it in turn when it overflows
+				while (sibling != null)
+				{
+					if (depth < 0)
+					{
+						root = new Inner(order, root, separator, sibling);
+						levels++;
+						break;
+					}
+					Inner parent = path[depth];
+					parent.insert(positions[depth] + 1, separator, sibling);
+					sibling = null;
+					if (parent.count > order)
+					{
+						separator = parent.keys[parent.count / 2 - 1];
+						sibling = parent.split();
+					}
+					depth--;
+				}
+			}
+			return view(element);
+		} finally
+		{
+			Arrays.fill(path, 0, pathLength, null);
+		}
+	}
+
+	@Override
+	public BSTreeNode<E> removeMin()
+	{
+		return remove(true);
+	}
+
+	@Override
+	public BSTreeNode<E> removeMax()
+	{
+		return remove(false);
+	}
+
+	/**
+	 * Removes the first or last element. A leaf left empty is unlinked from its
+	 * parent and from the leaf list, and so on up while inner nodes become empty;
+	 * a root left with a single child is replaced by that child.
+	 *
+	 * @param first true to remove the smallest element, false for the largest
+	 * @return a node holding the removed element, or null if the tree is empty
+	 */
+	private BSTreeNode<E> remove(boolean first)
+	{
+		if (size == 0)
+		{
+			return null;
+		}
+
+		Inner[] path = pathBuffer();
+		int pathLength = levels - 1;
+		Node node = root;
+		for (int depth = 0; node instanceof Inner; depth++)
+		{
+			path[depth] = (Inner) node;
+			node = path[depth].children[first ? 0 : node.count - 1];
+		}
+		Leaf leaf = (Leaf) node;
+		E element = keyAt(leaf, first ? 0 : leaf.count - 1);
+		leaf.delete(first ? 0 : leaf.count - 1);
+		size--;
+		modCount++;
+
+		if (leaf.count == 0 && leaf != root)
+		{
+			leaf.unlink();
+			if (leaf == head)
+			{
+				head = leaf.next;
+			}
+			for (int depth = pathLength - 1; depth >= 0; depth--)
+			{
+				Inner parent = path[depth];
+				parent.delete(first ? 0 : parent.count - 1);
+				if (parent.count > 0)
+				{
+					break;
+				}
+			}
+		}
+		Arrays.fill(path, 0, pathLength, null);
+		while (root instanceof Inner && root.count == 1)
+		{
+			root = ((Inner) root).children[0];
+			levels--;
+		}
+		if (size == 0)
+		{
+			reset();
+		}
+		return entry(element);
+	}
+
+	@Override
+	public Iterator<E> inorderIterator()
+	{
+		return new Iterator<E>()
+		{
+			private Leaf leaf = head;
+			private int index = 0;
+			private final int expectedModCount = modCount;
+
+			@Override
+			public boolean hasNext()
+			{
+				while (leaf != null && index == leaf.count)
+				{
+					leaf = leaf.next;
+					index = 0;
+				}
+				return leaf != null;
+			}
+
+			@Override
+			public E next() throws NoSuchElementException
+			{
+				if (modCount != expectedModCount)
+				{
+					throw new ConcurrentModificationException();
+				}
+				if (!hasNext())
+				{
+					throw new NoSuchElementException();
+				}
+				return keyAt(leaf, index++);
+			}
+		};
+	}
+
+	@Override
+	public Iterator<E> preorderIterator()
+	{
+		return new BalancedOrderIterator(true);
+	}
+
+	@Override
+	public Iterator<E> postorderIterator()
+	{
+		return new BalancedOrderIterator(false);
+	}
+
+	/**
+	 * Iterator over a copy of the elements in the pre-order or post-order of the
+	 * balanced binary search tree whose root is the middle element of each range.
+	 */
+	private class BalancedOrderIterator implements Iterator<E>
+	{
+		private final Object[] sorted = new Object[size];
+		private final boolean preorder;
+		// Pending ranges [from, to) packed as pairs; a negative from marks a range
+		// whose children were pushed already and only its middle is left to visit
+		private int[] ranges = new int[64];
+		private int top = 0;
+
+		BalancedOrderIterator(boolean preorder)
+		{
+			this.preorder = preorder;
+			int i = 0;
+			for (Leaf leaf = head; leaf != null; leaf = leaf.next)
+			{
+				System.arraycopy(leaf.keys, 0, sorted, i, leaf.count);
+				i += leaf.count;
+			}
+			push(0, sorted.length);
+		}
+
+		private void push(int from, int to)
+		{
+			if (from >= to && from >= 0)
+			{
+				return;
+			}
+			if (top + 2 > ranges.length)
+			{
+				ranges = Arrays.copyOf(ranges, ranges.length * 2);
+			}
+			ranges[top++] = from;
+			ranges[top++] = to;
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			return top > 0;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public E next() throws NoSuchElementException
+		{
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+			while (true)
+			{
+				int to = ranges[--top];
+				int from = ranges[--top];
+				if (from < 0)
+				{
+					return (E) sorted[to];
+				}
+				int middle = (from + to) >>> 1;
+				if (preorder)
+				{
+					push(middle + 1, to);
+					push(from, middle);
+					return (E) sorted[middle];
+				}
+				// Post-order: the middle after both halves, the left half first
+				push(-1, middle);
+				push(middle + 1, to);
+				push(from, middle);
+			}
+		}
+	}
+
+	/**
+	 * Returns the element stored at an index of a leaf.
+	 */
+	@SuppressWarnings("unchecked")
+	private E keyAt(Leaf leaf, int index)
+	{
+		return (E) leaf.keys[index];
+	}
+
+	/**
+	 * Returns a detached node holding a stored element.
+	 */
+	private BSTreeNode<E> entry(E element)
+	{
+		return new BSTreeNode<E>(element, null, null);
+	}
+
+	/**
+	 * Returns the node kept for the lookups, now holding the element.
+	 */
+	private BSTreeNode<E> view(E element)
+	{
+		if (view == null)
+		{
+			view = new BSTreeNode<E>(element, null, null);
+		} else
+		{
+			view.setElement(element);
+		}
+		return view;
+	}
+
+	/**
+	 * Returns the scratch path, with room for the inner nodes of every level
+	 * below the root and the positions array grown to match. Kept between calls
+	 * so that findOrAdd and remove do not allocate; callers clear the entries
+	 * they used once they are done.
+	 *
+	 * @return the path buffer
+	 */
+	private Inner[] pathBuffer()
+	{
+		int needed = levels - 1;
+		if (path == null || path.length < needed)
+		{
+			int length = Math.max(8, needed * 2);
+			path = new Inner[length];
+			positions = new int[length];
+		}
+		return path;
+	}
+
+	/**
+	 * Node of the tree: count sorted entries in a contiguous array.
+	 */
+	private abstract static class Node
+	{
+		/** Number of keys of a leaf, or of children of an inner node */
+		int count;
+		Object[] keys;
+	}
+
+	/**
+	 * Leaf holding up to order elements, linked to its neighbours in key order.
+	 */
+	private static class Leaf extends Node
+	{
+		Leaf next;
+		Leaf previous;
+
+		Leaf(int order)
+		{
+			// One spare slot holds the overflowing key until the split
+			keys = new Object[order + 1];
+		}
+
+		/**
+		 * Binary search for entry, or for the probe when entry is null; the
+		 * index where it is, or -(insertion point) - 1.
+		 */
+		@SuppressWarnings("unchecked")
+		<E extends Comparable<? super E>> int indexOf(E entry, Probe<E> probe)
+		{
+			int low = 0, high = count - 1;
+			while (low <= high)
+			{
+				int middle = (low + high) >>> 1;
+				int comparatorResult = Probes.compare(entry, probe, (E) keys[middle]);
+				if (comparatorResult > 0)
+				{
+					low = middle + 1;
+				} else if (comparatorResult < 0)
+				{
+					high = middle - 1;
+				} else
+				{
+					return middle;
+				}
+			}
+			return -low - 1;
+		}
+
+		void insert(int index, Object entry)
+		{
+			System.arraycopy(keys, index, keys, index + 1, count - index);
+			keys[index] = entry;
+			count++;
+		}
+
+		void delete(int index)
+		{
+			System.arraycopy(keys, index + 1, keys, index, count - index - 1);
+			keys[--count] = null;
+		}
+
+		/**
+		 * Moves the upper half into a new leaf linked after this one.
+		 */
+		Leaf split()
+		{
+			Leaf sibling = new Leaf(keys.length - 1);
+			int half = count / 2;
+			sibling.count = count - half;
+			System.arraycopy(keys, half, sibling.keys, 0, sibling.count);
+			Arrays.fill(keys, half, count, null);
+			count = half;
+			sibling.next = next;
+			sibling.previous = this;
+			if (next != null)
+			{
+				next.previous = sibling;
+			}
+			next = sibling;
+			return sibling;
+		}
+
+		void unlink()
+		{
+			if (previous != null)
+			{
+				previous.next = next;
+			}
+			if (next != null)
+			{
+				next.previous = previous;
+			}
+		}
+	}
+
+	/**
+	 * Inner node with count children and count - 1 separators.
+	 */
+	private static class Inner extends Node
+	{
+		Node[] children;
+
+		Inner(int order)
+		{
+			keys = new Object[order];
+			children = new Node[order + 1];
+		}
+
+		/**
+		 * Creates a root above two nodes.
+		 */
+		Inner(int order, Node left, Object separator, Node right)
+		{
+			this(order);
+			keys[0] = separator;
+			children[0] = left;
+			children[1] = right;
+			count = 2;
+		}
+
+		/**
+		 * Index of the child whose range holds entry, or the probe when entry
+		 * is null: the number of separators less than or equal to it.
+		 */
+		@SuppressWarnings("unchecked")
+		<E extends Comparable<? super E>> int childIndex(E entry, Probe<E> probe)
+		{
+			int low = 0, high = count - 2;
+			while (low <= high)
+			{
+				int middle = (low + high) >>> 1;
+				if (Probes.compare(entry, probe, (E) keys[middle]) >= 0)
+				{
+					low = middle + 1;
+				} else
+				{
+					high = middle - 1;
+				}
+			}
+			return low;
+		}
+
+		/**
+		 * Inserts child at the given position, preceded by its separator.
+		 */
+		void insert(int position, Object separator, Node child)
+		{
+			System.arraycopy(children, position, children, position + 1, count - position);
+			System.arraycopy(keys, position - 1, keys, position, count - position);
+			children[position] = child;
+			keys[position - 1] = separator;
+			count++;
+		}
+
+		/**
+		 * Removes the child at the given position, which must be the first or the
+		 * last, along with the separator next to it.
+		 */
+		void delete(int position)
+		{
+			int key = position == 0 ? 0 : position - 1;
+			System.arraycopy(children, position + 1, children, position, count - position - 1);
+			if (count > 1)
+			{
+				System.arraycopy(keys, key + 1, keys, key, count - key - 2);
+				keys[count - 2] = null;
+			}
+			children[--count] = null;
+		}
+
+		/**
+		 * Moves the upper half of the children into a new inner node. The
+		 * separator between the halves, read by the caller beforehand, moves up.
+		 */
+		Inner split()
+		{
+			Inner sibling = new Inner(keys.length);
+			int half = count / 2;
+			sibling.count = count - half;
+			System.arraycopy(children, half, sibling.children, 0, sibling.count);
+			System.arraycopy(keys, half, sibling.keys, 0, sibling.count - 1);
+			Arrays.fill(children, half, count, null);
+			Arrays.fill(keys, half - 1, count - 1, null);
+			count = half;
+			return sibling;
+		}
+	}
+
+	/**
+	 * Writes the fan-out, the size and then the elements in order.
+	 *
+	 * @param out the stream to write to
+	 * @throws IOException if the stream cannot be written
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException
+	{
+		out.defaultWriteObject();
+		out.writeInt(size);
+		for (Leaf leaf = head; leaf != null; leaf = leaf.next)
+		{
+			for (int i = 0; i < leaf.count; i++)
+			{
+				out.writeObject(leaf.keys[i]);
+			}
+		}
+	}
+
+	/**
+	 * Reads the elements written by writeObject and loads them bottom-up: full
+	 * leaves first, then each level of inner nodes above them.
+	 *
+	 * @param in the stream to read from
+	 * @throws IOException if the stream cannot be read
+	 * @throws ClassNotFoundException if a class of the stream cannot be found
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		int count = in.readInt();
+		reset();
+
+		List<Node> level = new ArrayList<Node>();
+		List<Object> lowest = new ArrayList<Object>();
+		Leaf leaf = head;
+		level.add(leaf);
+		for (int i = 0; i < count; i++)
+		{
+			if (leaf.count == order)
+			{
+				Leaf sibling = new Leaf(order);
+				leaf.next = sibling;
+				sibling.previous = leaf;
+				leaf = sibling;
+				level.add(leaf);
+			}
+			Object element = in.readObject();
+			if (leaf.count == 0)
+			{
+				lowest.add(element);
+			}
+			leaf.keys[leaf.count++] = element;
+		}
+		size = count;
+
+		while (level.size() > 1)
+		{
+			List<Node> parents = new ArrayList<Node>();
+			List<Object> parentLowest = new ArrayList<Object>();
+			// Spread the children evenly, so that no parent is left with a single child
+			int groups = (level.size() + order - 1) / order;
+			for (int g = 0, i = 0; g < groups; g++)
+			{
+				Inner parent = new Inner(order);
+				int end = (int) ((long) level.size() * (g + 1) / groups);
+				for (int j = i; j < end; j++)
+				{
+					if (j > i)
+					{
+						parent.keys[j - i - 1] = lowest.get(j);
+					}
+					parent.children[j - i] = level.get(j);
+				}
+				parent.count = end - i;
+				parents.add(parent);
+				parentLowest.add(lowest.get(i));
+				i = end;
+			}
+			level = parents;
+			lowest = parentLowest;
+			levels++;
+		}
+		root = level.get(0);
+	}
+}
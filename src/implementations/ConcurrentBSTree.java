@@ -0,0 +1,582 @@
+package implementations;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import utilities.BSTreeADT;
+import utilities.Iterator;
+import utilities.Probe;
+
+/**
+ * Thread-safe Binary Search Tree that many threads can add to at the same time.
+ * <ul>
+ * <li>search and contains take no locks; they only follow volatile links.</li>
+ * <li>add takes no locks either: a new leaf is published with a single
+ * compare-and-set on the empty child link of its parent, and a thread that loses
+ * the race simply continues its descent from that parent. Threads adding into
+ * different parts of the tree never touch the same memory.</li>
+ * <li>removeMin and removeMax are serialized with each other by a lock. The
+ * removed node's empty child links are first sealed with a marker so no
+ * concurrent add can attach below it, then it is spliced out.</li>
+ * </ul>
+ * Like {@link BSTree} the tree is not rebalanced. Iterators walk the live tree
+ * lazily while other threads may be adding, so they are weakly consistent: they
+ * see every element present for the whole walk and may or may not see elements
+ * added or removed concurrently. They hold O(height) nodes and copy nothing.
+ * getHeight visits every node, so it takes O(n) time.
+ *
+ * @param <E> the type of elements stored in this tree; must implement Comparable
+ */
+public class ConcurrentBSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Serializable
+{
+	// Serial version UID for serialization
+	private static final long serialVersionUID = 1L;
+
+	/** Marker sealing the empty child links of a node being removed */
+	private static final Node<?> REMOVED = new Node<Object>(null);
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<Node, Node> LEFT =
+			AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "left");
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<Node, Node> RIGHT =
+			AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "right");
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<ConcurrentBSTree, Node> ROOT =
+			AtomicReferenceFieldUpdater.newUpdater(ConcurrentBSTree.class, Node.class, "root");
+
+	/** Root node of the BST, written by compare-and-set */
+	private transient volatile Node<E> root;
+
+	/** Number of elements in the tree, striped to avoid a contended counter */
+	private transient LongAdder size = new LongAdder();
+
+	/** Serializes removeMin, removeMax and clear */
+	private final ReentrantLock removeLock = new ReentrantLock();
+
+	/**
+	 * Node whose child links are volatile so that they can be published and
+	 * sealed with compare-and-set. The links of the BSTreeNode superclass are
+	 * not used.
+	 *
+	 * @param <E> the type of element stored in this node
+	 */
+	private static final class Node<E> extends BSTreeNode<E>
+	{
+		private static final long serialVersionUID = 1L;
+
+		volatile Node<E> left, right;
+
+		Node(E element)
+		{
+			super(element, null, null);
+		}
+
+		@Override
+		public BSTreeNode<E> getLeft()
+		{
+			return live(left);
+		}
+
+		@Override
+		public BSTreeNode<E> getRight()
+		{
+			return live(right);
+		}
+
+		@Override
+		public void setLeft(BSTreeNode<E> left)
+		{
+			throw new UnsupportedOperationException("Links of a concurrent tree cannot be changed.");
+		}
+
+		@Override
+		public void setRight(BSTreeNode<E> right)
+		{
+			throw new UnsupportedOperationException("Links of a concurrent tree cannot be changed.");
+		}
+	}
+
+	/**
+	 * Constructs an empty ConcurrentBSTree.
+	 */
+	public ConcurrentBSTree()
+	{
+		this.root = null;
+	}
+
+	/**
+	 * Constructs a ConcurrentBSTree with a single root node containing the
+	 * specified element.
+	 *
+	 * @param element the element to store at the root
+	 */
+	public ConcurrentBSTree(E element)
+	{
+		this();
+		add(element);
+	}
+
+	@Override
+	public BSTreeNode<E> getRoot() throws NullPointerException
+	{
+		Node<E> node = root;
+		if (node == null)
+		{
+			throw new NullPointerException("Tree is empty.");
+		}
+		return node;
+	}
+
+	/**
+	 * Counts the levels of the tree breadth-first. Unlike the balanced trees,
+	 * which cache heights, this visits every node: O(n) time and memory for
+	 * the widest level.
+	 */
+	@Override
+	public int getHeight()
+	{
+		int height = 0;
+		Deque<Node<E>> level = new ArrayDeque<Node<E>>();
+		Node<E> top = root;
+		if (top != null)
+		{
+			level.add(top);
+		}
+		while (!level.isEmpty())
+		{
+			height++;
+			for (int i = level.size(); i > 0; i--)
+			{
+				Node<E> node = level.poll();
+				Node<E> left = live(node.left), right = live(node.right);
+				if (left != null)
+				{
+					level.add(left);
+				}
+				if (right != null)
+				{
+					level.add(right);
+				}
+			}
+		}
+		return height;
+	}
+
+	@Override
+	public int size()
+	{
+		return (int) size.sum();
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return root == null;
+	}
+
+	/**
+	 * Empties the tree. Adds running at the same time may land in the discarded
+	 * tree and be lost.
+	 */
+	@Override
+	public void clear()
+	{
+		removeLock.lock();
+		try
+		{
+			root = null;
+			size.reset();
+		} finally
+		{
+			removeLock.unlock();
+		}
+	}
+
+	@Override
+	public boolean contains(E entry) throws NullPointerException
+	{
+		if (entry == null)
+		{
+			throw new NullPointerException("Entry cannot be null.");
+		}
+		return search(entry) != null;
+	}
+
+	@Override
+	public BSTreeNode<E> search(E entry) throws NullPointerException
+	{
+		if (entry == null)
+		{
+			throw new NullPointerException("Cannot search a null entry.");
+		}
+
+		Node<E> currentNode = root;
+		while (currentNode != null)
+		{
+			int comparatorResult = entry.compareTo(currentNode.getElement());
+			if (comparatorResult == 0)
+			{
+				return currentNode;
+			}
+			currentNode = live(comparatorResult < 0 ? currentNode.left : currentNode.right);
+		}
+		return null;
+	}
+
+	@Override
+	public boolean add(E newEntry) throws NullPointerException
+	{
+		if (newEntry == null)
+		{
+			throw new NullPointerException("Cannot add a null entry.");
+		}
+
+		Node<E> newNode = new Node<E>(newEntry);
+		return insert(newEntry, null, newNode) == newNode;
+	}
+
+	@Override
+	public BSTreeNode<E> findOrAdd(E entry) throws NullPointerException
+	{
+		if (entry == null)
+		{
+			throw new NullPointerException("Cannot add a null entry.");
+		}
+		return insert(entry, null, null);
+	}
+
+	@Override
+	public BSTreeNode<E> findOrCreate(Probe<E> probe) throws NullPointerException
+	{
+		if (probe == null)
+		{
+			throw new NullPointerException("Cannot search a null probe.");
+		}
+		return insert(null, probe, null);
+	}
+
+	/**
+	 * Finds the node holding an element equal to newEntry, or to the probe when
+	 * newEntry is null, or links a new one in. The probe creates its element at
+	 * most once, however often the descent restarts.
+	 *
+	 * @param newEntry element to find or add, or null to use the probe
+	 * @param probe key to find and factory of the element to add, or null
+	 * @param newNode node to link in, or null to create one only when needed
+	 * @return the node holding the element, which is the linked node if it was added
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Node<E> insert(E newEntry, Probe<E> probe, Node<E> newNode)
+	{
+		while (true)
+		{
+			Node<E> currentNode = root;
+			if (currentNode == null)
+			{
+				if (newNode == null)
+				{
+					newNode = new Node<E>(Probes.element(newEntry, probe));
+				}
+				if (ROOT.compareAndSet(this, null, newNode))
+				{
+					size.increment();
+					return newNode;
+				}
+				continue;
+			}
+
+			// Descend until an empty link is claimed; a sealed link means restart from the root
+			while (true)
+			{
+				int comparatorResult = Probes.compare(newEntry, probe, currentNode.getElement());
+				if (comparatorResult == 0)
+				{
+					// Entry already present; return the resident node
+					return currentNode;
+				}
+				AtomicReferenceFieldUpdater<Node, Node> link = comparatorResult < 0 ? LEFT : RIGHT;
+				Node<E> child = (Node<E>) link.get(currentNode);
+				if (child == REMOVED)
+				{
+					break;
+				}
+				if (child != null)
+				{
+					currentNode = child;
+					continue;
+				}
+				if (newNode == null)
+				{
+					newNode = new Node<E>(Probes.element(newEntry, probe));
+				}
+				if (link.compareAndSet(currentNode, null, newNode))
+				{
+					size.increment();
+					return newNode;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes the smallest element. Returns a new node holding the element, since
+	 * the node that was in the tree may still be visited by concurrent readers.
+	 */
+	@Override
+	public BSTreeNode<E> removeMin()
+	{
+		return remove(LEFT, RIGHT);
+	}
+
+	/**
+	 * Removes the largest element. Returns a new node holding the element, since
+	 * the node that was in the tree may still be visited by concurrent readers.
+	 */
+	@Override
+	public BSTreeNode<E> removeMax()
+	{
+		return remove(RIGHT, LEFT);
+	}
+
+	/**
+	 * Removes the node at the end of the spine followed by the outer link.
+	 *
+	 * @param outer link towards the extreme element (LEFT for the minimum)
+	 * @param inner the opposite link, holding the subtree that replaces the node
+	 * @return a detached copy of the removed node, or null if the tree is empty
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private BSTreeNode<E> remove(AtomicReferenceFieldUpdater<Node, Node> outer,
+			AtomicReferenceFieldUpdater<Node, Node> inner)
+	{
+		removeLock.lock();
+		try
+		{
+			Node<E> parentNode = null;
+			Node<E> currentNode = root;
+			if (currentNode == null)
+			{
+				return null;
+			}
+
+			// Seal the outer link; if an add wins the race, keep walking down
+			while (!outer.compareAndSet(currentNode, null, REMOVED))
+			{
+				parentNode = currentNode;
+				currentNode = (Node<E>) outer.get(currentNode);
+			}
+
+			// Take the inner subtree, sealing the link if it is empty
+			Node<E> replacement;
+			do
+			{
+				replacement = (Node<E>) inner.get(currentNode);
+			} while (replacement == null && !inner.compareAndSet(currentNode, null, REMOVED));
+			if (replacement == REMOVED)
+			{
+				replacement = null;
+			}
+
+			if (parentNode == null)
+			{
+				root = replacement;
+			} else
+			{
+				outer.set(parentNode, replacement);
+			}
+			size.decrement();
+			return new BSTreeNode<E>(currentNode.getElement(), null, null);
+		} finally
+		{
+			removeLock.unlock();
+		}
+	}
+
+	@Override
+	public Iterator<E> inorderIterator()
+	{
+		return new Traversal(Traversal.INORDER);
+	}
+
+	@Override
+	public Iterator<E> preorderIterator()
+	{
+		return new Traversal(Traversal.PREORDER);
+	}
+
+	@Override
+	public Iterator<E> postorderIterator()
+	{
+		return new Traversal(Traversal.POSTORDER);
+	}
+
+	/**
+	 * Reads a sealed link as an empty one.
+	 */
+	private static <E> Node<E> live(Node<E> node)
+	{
+		return node == REMOVED ? null : node;
+	}
+
+	/**
+	 * Lazy traversal of the live tree, like the iterators of
+	 * ConcurrentSkipListSet. A node's child links are read only when the walk
+	 * reaches the node, so the stack holds O(height) frames and nothing is
+	 * copied. Links only change by new leaves being linked into empty links
+	 * and by removeMin and removeMax splicing out an end of the tree, so the
+	 * traversal never returns an element twice or out of order. It returns
+	 * every element present for the whole traversal, and may or may not return
+	 * elements added or removed meanwhile.
+	 */
+	private class Traversal implements Iterator<E>
+	{
+		static final int PREORDER = 0, INORDER = 1, POSTORDER = 2;
+
+		private final int order;
+
+		/** Nodes still to visit, each either expanded (children pushed) or not */
+		private Node<?>[] nodes = new Node<?>[16];
+		private boolean[] expanded = new boolean[16];
+		private int top = 0;
+
+		Traversal(int order)
+		{
+			this.order = order;
+			push(root, false);
+		}
+
+		private void push(Node<E> node, boolean isExpanded)
+		{
+			if (live(node) == null)
+			{
+				return;
+			}
+			if (top == nodes.length)
+			{
+				nodes = Arrays.copyOf(nodes, top * 2);
+				expanded = Arrays.copyOf(expanded, top * 2);
+			}
+			nodes[top] = node;
+			expanded[top++] = isExpanded;
+		}
+
+		/**
+		 * Expands frames until the top one is a node to return next.
+		 */
+		@SuppressWarnings("unchecked")
+		private void advance()
+		{
+			while (top > 0 && !expanded[top - 1])
+			{
+				Node<E> node = (Node<E>) nodes[--top];
+				nodes[top] = null;
+				// Pushed last is visited first
+				Node<E> left = node.left, right = node.right;
+				if (order == POSTORDER)
+				{
+					push(node, true);
+				}
+				push(right, false);
+				if (order == INORDER)
+				{
+					push(node, true);
+				}
+				push(left, false);
+				if (order == PREORDER)
+				{
+					push(node, true);
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			advance();
+			return top > 0;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public E next() throws NoSuchElementException
+		{
+			if (!hasNext())
+			{
+				throw new NoSuchElementException();
+			}
+			Node<E> node = (Node<E>) nodes[--top];
+			nodes[top] = null;
+			return node.getElement();
+		}
+	}
+
+	/**
+	 * Writes the elements in in-order followed by null. They are streamed from
+	 * a traversal, so an element added meanwhile may or may not be written.
+	 *
+	 * @param out the stream to write to
+	 * @throws IOException if the stream cannot be written
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException
+	{
+		out.defaultWriteObject();
+		Iterator<E> it = inorderIterator();
+		while (it.hasNext())
+		{
+			out.writeObject(it.next());
+		}
+		out.writeObject(null);
+	}
+
+	/**
+	 * Reads the elements written by writeObject and links them into a balanced tree.
+	 *
+	 * @param in the stream to read from
+	 * @throws IOException if the stream cannot be read
+	 * @throws ClassNotFoundException if a class of the stream cannot be found
+	 */
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		List<Object> elements = new ArrayList<Object>();
+		for (Object element = in.readObject(); element != null; element = in.readObject())
+		{
+			elements.add(element);
+		}
+		size = new LongAdder();
+		size.add(elements.size());
+		root = (Node<E>) balanced(elements.toArray(), 0, elements.size());
+	}
+
+	/**
+	 * Links a sorted slice of elements into a balanced subtree.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Node<?> balanced(Object[] elements, int from, int to)
+	{
+		if (from >= to)
+		{
+			return null;
+		}
+		int middle = (from + to) >>> 1;
+		Node node = new Node<Object>(elements[middle]);
+		node.left = balanced(elements, from, middle);
+		node.right = balanced(elements, middle + 1, to);
+		return node;
+	}
+}
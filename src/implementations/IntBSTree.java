@@ -0,0 +1,146 @@
+package implementations;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Binary Search Tree of int keys. It offers the operations of the BSTreeADT
+ * for primitive keys: keys are compared with {@code <} and stored in int arrays,
+ * so no Integer objects are created by add, contains, removeMin,
+ * removeMax or the in-order iterator.
+ * <p>
+ * Nodes are slots of an int array holding the two child slots and the height
+ * of each node side by side, with the keys in a int array indexed by slot;
+ * a free list recycles the slots of removed keys. Keys such as line
+ * numbers or document IDs usually arrive in ascending order, so unlike
+ * {@link ArrayBSTree} the tree is kept balanced with the AVL rules.
+ *
+ * @see LongBSTree
+ */
+public class IntBSTree extends PrimitiveBSTree
+{
+	// Serial version UID for serialization
+	private static final long serialVersionUID = 1L;
+
+	/** Key of each slot; set while the superclass constructor runs, so no initializer */
+	private int[] keys;
+
+	/**
+	 * Constructs an empty IntBSTree.
+	 */
+	public IntBSTree()
+	{
+		this(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Constructs an empty IntBSTree with room for the given number of keys
+	 * before the arrays have to grow.
+	 *
+	 * @param capacity number of slots to allocate
+	 */
+	public IntBSTree(int capacity)
+	{
+		super(capacity);
+	}
+
+	@Override
+	void resizeKeys(int capacity)
+	{
+		keys = keys == null ? new int[capacity] : Arrays.copyOf(keys, capacity);
+	}
+
+	/**
+	 * Checks whether the tree holds the key.
+	 *
+	 * @param key the key to look for
+	 * @return true if the key is present
+	 */
+	public boolean contains(int key)
+	{
+		int slot = root;
+		while (slot != NIL)
+		{
+			int resident = keys[slot];
+			if (key == resident)
+			{
+				return true;
+			}
+			slot = key < resident ? left(slot) : right(slot);
+		}
+		return false;
+	}
+
+	/**
+	 * Adds a key, keeping the tree balanced.
+	 *
+	 * @param key the key to add
+	 * @return true if the key was added, false if it was already present
+	 */
+	public boolean add(int key)
+	{
+		int[] path = pathBuffer();
+		int depth = 0;
+		int slot = root;
+		boolean asLeft = false;
+		while (slot != NIL)
+		{
+			int resident = keys[slot];
+			if (key == resident)
+			{
+				return false;
+			}
+			path[depth++] = slot;
+			asLeft = key < resident;
+			slot = asLeft ? left(slot) : right(slot);
+		}
+
+		int newSlot = newSlot();
+		keys[newSlot] = key;
+		attach(depth, newSlot, asLeft);
+		return true;
+	}
+
+	/**
+	 * Removes the smallest key.
+	 *
+	 * @return the smallest key
+	 * @throws NoSuchElementException if the tree is empty
+	 */
+	public int removeMin() throws NoSuchElementException
+	{
+		return keys[unlinkEnd(true)];
+	}
+
+	/**
+	 * Removes the largest key.
+	 *
+	 * @return the largest key
+	 * @throws NoSuchElementException if the tree is empty
+	 */
+	public int removeMax() throws NoSuchElementException
+	{
+		return keys[unlinkEnd(false)];
+	}
+
+	/**
+	 * Generates a lazy in-order iterator over the keys. It is fail-fast like the
+	 * iterators of BSTree.
+	 *
+	 * @return an iterator returning the keys in ascending order
+	 */
+	public PrimitiveIterator.OfInt inorderIterator()
+	{
+		return new KeyIterator();
+	}
+
+	private final class KeyIterator extends InorderSlots implements PrimitiveIterator.OfInt
+	{
+		@Override
+		public int nextInt()
+		{
+			return keys[nextSlot()];
+		}
+	}
+}
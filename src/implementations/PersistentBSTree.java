@@ -0,0 +1,368 @@
+package implementations;
+
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+import utilities.BSTreeADT;
+import utilities.Iterator;
+import utilities.Probe;
+
+/**
+ * Persistent Binary Search Tree: nodes that are part of the tree are never
+ * modified. add, removeMin and removeMax copy only the nodes on the path they
+ * walk (plus the O(1) nodes touched by each rebalancing rotation) and link the
+ * copies to the untouched subtrees, so every update costs O(log n) new nodes and
+ * leaves the previous version intact.
+ * <p>
+ * {@link #snapshot()} therefore returns an immutable view of the current
+ * version in O(1). Readers iterate, search or page through a snapshot without
+ * any locking while writers keep updating the live tree; updates among writers
+ * are serialized on the tree itself. The tree is kept balanced with the AVL
+ * rules, so each version has O(log n) height.
+ * <p>
+ * Only the tree structure is versioned. Elements are shared between versions,
+ * so changes made to a mutable element (such as adding an occurrence to a Word)
+ * are seen by every version that holds it. Nodes returned by search must not be
+ * modified through their setters.
+ *
+ * @param <E> the type of elements stored in this tree; must implement Comparable
+ */
+public class PersistentBSTree<E extends Comparable<? super E>> extends BSTree<E>
+{
+	// Serial version UID for serialization
+	private static final long serialVersionUID = 1L;
+
+	/** True for the read-only views returned by snapshot */
+	private final boolean frozen;
+
+	/** Node found or created by the insertion in progress */
+	private transient BSTreeNode<E> resident;
+
+	/** Number of nodes compared against by the insertion in progress */
+	private transient int pathLength;
+
+	/**
+	 * Constructs an empty PersistentBSTree.
+	 */
+	public PersistentBSTree()
+	{
+		super();
+		this.frozen = false;
+	}
+
+	/**
+	 * Constructs a PersistentBSTree with a single root node containing the
+	 * specified element.
+	 *
+	 * @param element the element to store at the root
+	 */
+	public PersistentBSTree(E element)
+	{
+		super(element);
+		this.frozen = false;
+	}
+
+	/**
+	 * Constructs a read-only view of one version of a tree.
+	 *
+	 * @param version root node of the version
+	 * @param count number of elements in the version
+	 */
+	private PersistentBSTree(BSTreeNode<E> version, int count)
+	{
+		super();
+		this.root = version;
+		this.size = count;
+		this.frozen = true;
+		findBounds();
+	}
+
+	/**
+	 * Returns an immutable view of the current contents in O(1). The view shares
+	 * all of its nodes with this tree and is not affected by later updates.
+	 *
+	 * @return a read-only tree holding the current version
+	 */
+	public synchronized PersistentBSTree<E> snapshot()
+	{
+		return frozen ? this : new PersistentBSTree<E>(root, size);
+	}
+
+	/**
+	 * Checks whether this tree is a read-only snapshot.
+	 *
+	 * @return true if updates are rejected
+	 */
+	public boolean isSnapshot()
+	{
+		return frozen;
+	}
+
+	@Override
+	public synchronized void clear()
+	{
+		checkWritable();
+		super.clear();
+	}
+
+	@Override
+	public synchronized boolean add(E newEntry) throws NullPointerException
+	{
+		return super.add(newEntry);
+	}
+
+	@Override
+	protected synchronized BSTreeNode<E> findOrInsert(E entry, Probe<E> probe) throws NullPointerException
+	{
+		checkWritable();
+		pathLength = 0;
+		BSTreeNode<E> newRoot = insert(root, entry, probe);
+		BSTreeNode<E> node = resident;
+		resident = null;
+		if (newRoot != root)
+		{
+			root = newRoot;
+			size++;
+			modCount++;
+			// Path copying replaces the nodes above the new one, ends included
+			findBounds();
+			if (metrics != null)
+			{
+				metrics.recordInsert(pathLength);
+			}
+		} else if (metrics != null)
+		{
+			metrics.recordSearch(pathLength);
+		}
+		return node;
+	}
+
+	/**
+	 * Returns a copy of the subtree with the element inserted, or the subtree
+	 * itself if the element is already present. The node holding the element,
+	 * new or existing, is left in resident.
+	 *
+	 * @param node root of the subtree
+	 * @param newEntry element to insert, or null to use the probe
+	 * @param probe key of the element to insert and its factory, or null
+	 * @return root of the new version of the subtree
+	 */
+	private BSTreeNode<E> insert(BSTreeNode<E> node, E newEntry, Probe<E> probe)
+	{
+		if (node == null)
+		{
+			resident = new BSTreeNode<E>(Probes.element(newEntry, probe), null, null);
+			return resident;
+		}
+
+		pathLength++;
+		int comparatorResult = Probes.compare(newEntry, probe, node.getElement());
+		if (comparatorResult < 0)
+		{
+			BSTreeNode<E> left = insert(node.getLeft(), newEntry, probe);
+			return left == node.getLeft() ? node : balanced(node.getElement(), left, node.getRight());
+		} else if (comparatorResult > 0)
+		{
+			BSTreeNode<E> right = insert(node.getRight(), newEntry, probe);
+			return right == node.getRight() ? node : balanced(node.getElement(), node.getLeft(), right);
+		}
+		resident = node;
+		return node;
+	}
+
+	@Override
+	public synchronized BSTreeNode<E> removeMin()
+	{
+		checkWritable();
+		if (root == null)
+		{
+			return null;
+		}
+
+		BSTreeNode<E> minNode = root;
+		while (minNode.getLeft() != null)
+		{
+			minNode = minNode.getLeft();
+		}
+		root = withoutMin(root);
+		size--;
+		modCount++;
+		findBounds();
+		if (metrics != null)
+		{
+			metrics.recordRemoval();
+		}
+		// The node itself still belongs to older versions, so a copy is returned
+		return new BSTreeNode<E>(minNode.getElement(), null, null);
+	}
+
+	/**
+	 * Returns a copy of the subtree without its smallest element.
+	 *
+	 * @param node root of the subtree
+	 * @return root of the new version of the subtree
+	 */
+	private BSTreeNode<E> withoutMin(BSTreeNode<E> node)
+	{
+		if (node.getLeft() == null)
+		{
+			return node.getRight();
+		}
+		return balanced(node.getElement(), withoutMin(node.getLeft()), node.getRight());
+	}
+
+	@Override
+	public synchronized BSTreeNode<E> removeMax()
+	{
+		checkWritable();
+		if (root == null)
+		{
+			return null;
+		}
+
+		BSTreeNode<E> maxNode = root;
+		while (maxNode.getRight() != null)
+		{
+			maxNode = maxNode.getRight();
+		}
+		root = withoutMax(root);
+		size--;
+		modCount++;
+		findBounds();
+		if (metrics != null)
+		{
+			metrics.recordRemoval();
+		}
+		// The node itself still belongs to older versions, so a copy is returned
+		return new BSTreeNode<E>(maxNode.getElement(), null, null);
+	}
+
+	/**
+	 * Returns a copy of the subtree without its largest element.
+	 *
+	 * @param node root of the subtree
+	 * @return root of the new version of the subtree
+	 */
+	private BSTreeNode<E> withoutMax(BSTreeNode<E> node)
+	{
+		if (node.getRight() == null)
+		{
+			return node.getLeft();
+		}
+		return balanced(node.getElement(), node.getLeft(), withoutMax(node.getRight()));
+	}
+
+	@Override
+	public synchronized int drainInOrder(Consumer<? super E> action) throws NullPointerException
+	{
+		checkWritable();
+		return super.drainInOrder(action);
+	}
+
+	/**
+	 * Merges under the writer lock, so that no add falls between the walk of
+	 * this tree and the rebuild. A snapshot is rejected before the combiner
+	 * can modify any element it shares with the live tree.
+	 */
+	@Override
+	public synchronized void merge(BSTreeADT<E> other, BinaryOperator<E> combiner)
+			throws NullPointerException, IllegalArgumentException
+	{
+		checkWritable();
+		super.merge(other, combiner);
+	}
+
+	@Override
+	protected synchronized void buildFromSorted(Iterator<? extends E> sorted, int count)
+	{
+		checkWritable();
+		super.buildFromSorted(sorted, count);
+	}
+
+	/**
+	 * Allocates a stack for every traversal instead of borrowing the one kept by
+	 * BSTree, since snapshots are read by many threads without locking.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	protected BSTreeNode<E>[] borrowStack(int needed)
+	{
+		return (BSTreeNode<E>[]) new BSTreeNode<?>[Math.max(1, needed)];
+	}
+
+	@Override
+	protected void returnStack(BSTreeNode<E>[] stack, int used)
+	{
+		// Nothing is kept between traversals
+	}
+
+	/**
+	 * Creates a new node joining two subtrees whose heights differ by at most two,
+	 * copying the nodes of a single or double rotation when they differ by two.
+	 * Existing nodes are reused, never modified.
+	 *
+	 * @param element element of the new node
+	 * @param left left subtree
+	 * @param right right subtree
+	 * @return root of the balanced subtree
+	 */
+	private BSTreeNode<E> balanced(E element, BSTreeNode<E> left, BSTreeNode<E> right)
+	{
+		int balance = heightOf(left) - heightOf(right);
+		if (balance > 1)
+		{
+			boolean single = heightOf(left.getLeft()) >= heightOf(left.getRight());
+			recordRotations(single ? 1 : 2);
+			if (single)
+			{
+				return new BSTreeNode<E>(left.getElement(), left.getLeft(),
+						new BSTreeNode<E>(element, left.getRight(), right));
+			}
+			BSTreeNode<E> pivot = left.getRight();
+			return new BSTreeNode<E>(pivot.getElement(),
+					new BSTreeNode<E>(left.getElement(), left.getLeft(), pivot.getLeft()),
+					new BSTreeNode<E>(element, pivot.getRight(), right));
+		}
+		if (balance < -1)
+		{
+			boolean single = heightOf(right.getRight()) >= heightOf(right.getLeft());
+			recordRotations(single ? 1 : 2);
+			if (single)
+			{
+				return new BSTreeNode<E>(right.getElement(),
+						new BSTreeNode<E>(element, left, right.getLeft()), right.getRight());
+			}
+			BSTreeNode<E> pivot = right.getLeft();
+			return new BSTreeNode<E>(pivot.getElement(),
+					new BSTreeNode<E>(element, left, pivot.getLeft()),
+					new BSTreeNode<E>(right.getElement(), pivot.getRight(), right.getRight()));
+		}
+		return new BSTreeNode<E>(element, left, right);
+	}
+
+	/**
+	 * Counts the rotations copied by balanced when metrics are enabled.
+	 *
+	 * @param count 1 for a single rotation, 2 for a double one
+	 */
+	private void recordRotations(int count)
+	{
+		if (metrics != null)
+		{
+			metrics.recordRotations(count);
+		}
+	}
+
+	/**
+	 * Rejects updates on a snapshot.
+	 *
+	 * @throws UnsupportedOperationException if this tree is a snapshot
+	 */
+	private void checkWritable() throws UnsupportedOperationException
+	{
+		if (frozen)
+		{
+			throw new UnsupportedOperationException("Snapshots cannot be modified.");
+		}
+	}
+}
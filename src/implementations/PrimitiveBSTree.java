@@ -0,0 +1,380 @@
+package implementations;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+/**
+ * Shape of the primitive-keyed trees {@link IntBSTree} and {@link LongBSTree}:
+ * the links, heights, free list and AVL rotations of nodes that are slots of
+ * an int array, independent of the type of the keys. A subclass keeps the key
+ * of each slot in an array of its own, indexed by slot, and compares keys
+ * with {@code <} on its way down before handing the slot work to this class.
+ */
+abstract class PrimitiveBSTree implements Serializable
+{
+	// Serial version UID for serialization
+	private static final long serialVersionUID = 1L;
+
+	/** Slot standing for a missing child */
+	static final int NIL = -1;
+
+	/** Number of slots allocated by an empty tree */
+	static final int INITIAL_CAPACITY = 16;
+
+	/** Longer than the path of any AVL tree with fewer than 2^31 nodes */
+	private static final int MAX_PATH = 64;
+
+	/** Field offsets within the links of a slot */
+	private static final int LEFT = 0, RIGHT = 1, HEIGHT = 2, FIELDS = 3;
+
+	/** Left child, right child and height of each slot, side by side */
+	private int[] links;
+
+	/** Slot of the root node */
+	int root;
+
+	/** First slot of the free list, chained through left */
+	private int free;
+
+	/** Number of slots handed out so far */
+	private int used;
+
+	/** Number of keys in the tree */
+	private int size;
+
+	/** Number of structural modifications, used by the iterators to fail fast */
+	transient int modCount;
+
+	/** Scratch path of the current add or remove */
+	private transient int[] path;
+
+	/**
+	 * Allocates room for the given number of slots. The subclass is asked for
+	 * its key array through {@link #resizeKeys(int)} while this constructor
+	 * runs, so that array must be a field without an initializer.
+	 *
+	 * @param capacity number of slots to allocate
+	 */
+	PrimitiveBSTree(int capacity)
+	{
+		allocate(Math.max(1, capacity));
+	}
+
+	/**
+	 * Gives the key array the given length, keeping the keys of the slots
+	 * below it. Called whenever the links are allocated or grown.
+	 *
+	 * @param capacity number of slots the key array must hold
+	 */
+	abstract void resizeKeys(int capacity);
+
+	private void allocate(int capacity)
+	{
+		links = new int[capacity * FIELDS];
+		resizeKeys(capacity);
+		root = NIL;
+		free = NIL;
+		used = 0;
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of keys in the tree.
+	 *
+	 * @return number of keys
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Checks if the tree is empty.
+	 *
+	 * @return true if the tree holds no keys
+	 */
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * Removes all keys and releases the arrays.
+	 */
+	public void clear()
+	{
+		allocate(INITIAL_CAPACITY);
+		modCount++;
+	}
+
+	/**
+	 * Returns the number of levels of the tree, 0 when empty.
+	 *
+	 * @return height of the tree
+	 */
+	public int getHeight()
+	{
+		return heightOf(root);
+	}
+
+	final int left(int slot)
+	{
+		return links[slot * FIELDS + LEFT];
+	}
+
+	final int right(int slot)
+	{
+		return links[slot * FIELDS + RIGHT];
+	}
+
+	final int[] pathBuffer()
+	{
+		if (path == null)
+		{
+			path = new int[MAX_PATH];
+		}
+		return path;
+	}
+
+	/**
+	 * Takes a slot from the free list or from the unused part of the arrays,
+	 * growing them by half when they are full. The caller stores the key of
+	 * the slot and then links it with {@link #attach(int, int, boolean)}.
+	 *
+	 * @return a leaf slot
+	 */
+	final int newSlot()
+	{
+		int slot;
+		if (free != NIL)
+		{
+			slot = free;
+			free = left(slot);
+		} else
+		{
+			if (used * FIELDS == links.length)
+			{
+				int capacity = used + (used >> 1) + 1;
+				links = Arrays.copyOf(links, capacity * FIELDS);
+				resizeKeys(capacity);
+			}
+			slot = used++;
+		}
+		int base = slot * FIELDS;
+		links[base + LEFT] = NIL;
+		links[base + RIGHT] = NIL;
+		links[base + HEIGHT] = 1;
+		size++;
+		modCount++;
+		return slot;
+	}
+
+	/**
+	 * Links a new slot below the last node of the path buffer, or as the root
+	 * when the path is empty, and rebalances the path.
+	 *
+	 * @param depth number of slots recorded in the path buffer
+	 * @param slot the new slot
+	 * @param asLeft whether the slot becomes the left child
+	 */
+	final void attach(int depth, int slot, boolean asLeft)
+	{
+		if (depth == 0)
+		{
+			root = slot;
+		} else
+		{
+			links[path[depth - 1] * FIELDS + (asLeft ? LEFT : RIGHT)] = slot;
+		}
+		rebalancePath(depth);
+	}
+
+	/**
+	 * Unlinks the node at the left or right end of the tree and puts its slot
+	 * on the free list. The key of the slot stays readable until the slot is
+	 * handed out again.
+	 *
+	 * @param smallest true for the smallest key, false for the largest
+	 * @return the slot that was removed
+	 * @throws NoSuchElementException if the tree is empty
+	 */
+	final int unlinkEnd(boolean smallest) throws NoSuchElementException
+	{
+		if (root == NIL)
+		{
+			throw new NoSuchElementException("Tree is empty.");
+		}
+		int toward = smallest ? LEFT : RIGHT;
+		int away = smallest ? RIGHT : LEFT;
+		int[] path = pathBuffer();
+		int depth = 0;
+		int slot = root;
+		while (links[slot * FIELDS + toward] != NIL)
+		{
+			path[depth++] = slot;
+			slot = links[slot * FIELDS + toward];
+		}
+		if (depth == 0)
+		{
+			root = links[slot * FIELDS + away];
+		} else
+		{
+			links[path[depth - 1] * FIELDS + toward] = links[slot * FIELDS + away];
+		}
+		links[slot * FIELDS + LEFT] = free;
+		links[slot * FIELDS + RIGHT] = NIL;
+		free = slot;
+		size--;
+		modCount++;
+		rebalancePath(depth);
+		return slot;
+	}
+
+	private int heightOf(int slot)
+	{
+		return slot == NIL ? 0 : links[slot * FIELDS + HEIGHT];
+	}
+
+	/**
+	 * Rebalances the nodes of the path buffer, deepest first, relinking each
+	 * subtree root that a rotation replaced. Stops at the first node that needs
+	 * no rotation and keeps its height, since nothing above it changes.
+	 *
+	 * @param depth number of slots recorded in the path buffer
+	 */
+	private void rebalancePath(int depth)
+	{
+		for (int i = depth - 1; i >= 0; i--)
+		{
+			int slot = path[i];
+			int oldHeight = links[slot * FIELDS + HEIGHT];
+			int balanced = rebalance(slot);
+			if (balanced == slot)
+			{
+				if (links[slot * FIELDS + HEIGHT] == oldHeight)
+				{
+					break;
+				}
+				continue;
+			}
+			if (i == 0)
+			{
+				root = balanced;
+			} else if (left(path[i - 1]) == slot)
+			{
+				links[path[i - 1] * FIELDS + LEFT] = balanced;
+			} else
+			{
+				links[path[i - 1] * FIELDS + RIGHT] = balanced;
+			}
+		}
+	}
+
+	/**
+	 * Updates the height of a node and rotates it when its subtrees differ in
+	 * height by two.
+	 *
+	 * @return the slot now at the top of the subtree
+	 */
+	private int rebalance(int slot)
+	{
+		int leftChild = left(slot);
+		int rightChild = right(slot);
+		int balance = heightOf(leftChild) - heightOf(rightChild);
+		if (balance > 1)
+		{
+			if (heightOf(left(leftChild)) < heightOf(right(leftChild)))
+			{
+				links[slot * FIELDS + LEFT] = rotateLeft(leftChild);
+			}
+			return rotateRight(slot);
+		}
+		if (balance < -1)
+		{
+			if (heightOf(right(rightChild)) < heightOf(left(rightChild)))
+			{
+				links[slot * FIELDS + RIGHT] = rotateRight(rightChild);
+			}
+			return rotateLeft(slot);
+		}
+		links[slot * FIELDS + HEIGHT] = Math.max(heightOf(leftChild), heightOf(rightChild)) + 1;
+		return slot;
+	}
+
+	private int rotateRight(int slot)
+	{
+		int pivot = left(slot);
+		links[slot * FIELDS + LEFT] = right(pivot);
+		links[pivot * FIELDS + RIGHT] = slot;
+		updateHeight(slot);
+		updateHeight(pivot);
+		return pivot;
+	}
+
+	private int rotateLeft(int slot)
+	{
+		int pivot = right(slot);
+		links[slot * FIELDS + RIGHT] = left(pivot);
+		links[pivot * FIELDS + LEFT] = slot;
+		updateHeight(slot);
+		updateHeight(pivot);
+		return pivot;
+	}
+
+	private void updateHeight(int slot)
+	{
+		links[slot * FIELDS + HEIGHT] = Math.max(heightOf(left(slot)), heightOf(right(slot))) + 1;
+	}
+
+	/**
+	 * Lazy in-order walk over the slots, fail-fast like the iterators of
+	 * BSTree. The subclasses turn it into an iterator over their keys.
+	 */
+	abstract class InorderSlots
+	{
+		private final int[] stack = new int[Math.max(1, getHeight())];
+		private int top = 0;
+		private final int expectedModCount = modCount;
+
+		InorderSlots()
+		{
+			pushLeftSpine(root);
+		}
+
+		private void pushLeftSpine(int slot)
+		{
+			while (slot != NIL)
+			{
+				stack[top++] = slot;
+				slot = left(slot);
+			}
+		}
+
+		public boolean hasNext()
+		{
+			return top > 0;
+		}
+
+		/**
+		 * Returns the slot of the next key in ascending order.
+		 *
+		 * @return the next slot
+		 */
+		final int nextSlot()
+		{
+			if (modCount != expectedModCount)
+			{
+				throw new ConcurrentModificationException();
+			}
+			if (top == 0)
+			{
+				throw new NoSuchElementException();
+			}
+			int slot = stack[--top];
+			pushLeftSpine(right(slot));
+			return slot;
+		}
+	}
+}
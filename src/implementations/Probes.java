@@ -0,0 +1,51 @@
+package implementations;
+
+import utilities.Probe;
+
+/**
+ * Helpers for the single descent shared by findOrAdd and findOrCreate. The
+ * descent is given either an element or a probe, the other being null, so
+ * that findOrAdd needs no probe object wrapped around its element.
+ */
+final class Probes
+{
+	private Probes()
+	{
+	}
+
+	/**
+	 * Compares the entry, or the probe when there is no entry, with an element
+	 * of the tree.
+	 */
+	static <E extends Comparable<? super E>> int compare(E entry, Probe<E> probe, E element)
+	{
+		return probe == null ? entry.compareTo(element) : probe.compareTo(element);
+	}
+
+	/**
+	 * Returns the entry, or the element the probe creates when there is no entry.
+	 * A created element is checked against the probe, since one that sorts
+	 * elsewhere would be linked where a search can no longer find it.
+	 *
+	 * @throws NullPointerException if the probe creates null
+	 * @throws IllegalArgumentException if the created element does not compare
+	 *         equal to the probe
+	 */
+	static <E> E element(E entry, Probe<E> probe) throws NullPointerException, IllegalArgumentException
+	{
+		if (probe == null)
+		{
+			return entry;
+		}
+		E created = probe.create();
+		if (created == null)
+		{
+			throw new NullPointerException("Probe created a null entry.");
+		}
+		if (probe.compareTo(created) != 0)
+		{
+			throw new IllegalArgumentException("Probe created an element that does not compare equal to it: " + created);
+		}
+		return created;
+	}
+}
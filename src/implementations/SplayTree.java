@@ -0,0 +1,309 @@
+package implementations;
+
+import java.util.Arrays;
+
+import utilities.Probe;
+
+/**
+ * Self-adjusting Binary Search Tree. Every search, add and removal splays the
+ * node it reaches to the root with zig, zig-zig and zig-zag rotations, so
+ * elements that are accessed often stay near the root. On skewed workloads
+ * such as word lookups in natural language, where a few words make up most of
+ * the tokens, the frequent words cost only a few comparisons, and any sequence
+ * of m operations costs O(m log n) amortized.
+ * <p>
+ * Since search and contains restructure the tree they count as modifications:
+ * an iterator or Spliterator created before a search fails with a
+ * ConcurrentModificationException. The cached heights and sizes are kept up to
+ * date by every rotation, so getHeight, rank and select work as in BSTree.
+ * Splaying walks an explicit path, so even the long chains that sorted input
+ * produces do not use the call stack.
+ *
+ * @param <E> the type of elements stored in this tree; must implement Comparable
+ */
+public class SplayTree<E extends Comparable<? super E>> extends BSTree<E>
+{
+	// Serial version UID for serialization
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Constructs an empty SplayTree.
+	 */
+	public SplayTree()
+	{
+		super();
+	}
+
+	/**
+	 * Constructs a SplayTree with a single root node containing the specified element.
+	 *
+	 * @param element the element to store at the root
+	 */
+	public SplayTree(E element)
+	{
+		super(element);
+	}
+
+	/**
+	 * Searches for the element and splays the node holding it to the root. When
+	 * the element is absent the last node visited is splayed instead.
+	 */
+	@Override
+	public BSTreeNode<E> search(E entry) throws NullPointerException
+	{
+		if (entry == null)
+		{
+			throw new NullPointerException("Cannot search a null entry.");
+		}
+		if (root == null)
+		{
+			return null;
+		}
+
+		BSTreeNode<E>[] path = pathBuffer();
+		int depth = 0;
+		BSTreeNode<E> currentNode = root;
+		int comparatorResult;
+		do
+		{
+			path[depth++] = currentNode;
+			comparatorResult = entry.compareTo(currentNode.getElement());
+			currentNode = comparatorResult < 0 ? currentNode.getLeft() : currentNode.getRight();
+		} while (comparatorResult != 0 && currentNode != null);
+
+		if (metrics != null)
+		{
+			metrics.recordSearch(depth);
+		}
+		splay(path, depth);
+		return comparatorResult == 0 ? root : null;
+	}
+
+	@Override
+	protected BSTreeNode<E> findOrInsert(E entry, Probe<E> probe) throws NullPointerException
+	{
+		if (root == null)
+		{
+			root = new BSTreeNode<E>(Probes.element(entry, probe), null, null);
+			size++;
+			modCount++;
+			leftmost = root;
+			rightmost = root;
+			if (metrics != null)
+			{
+				metrics.recordInsert(0);
+			}
+			return root;
+		}
+
+		BSTreeNode<E>[] path = pathBuffer();
+		int depth = 0;
+		BSTreeNode<E> currentNode = root;
+		// A new node is the smallest when every step went left, the largest when every step went right
+		boolean smallest = true, largest = true;
+		try
+		{
+			while (true)
+			{
+				path[depth++] = currentNode;
+				int comparatorResult = Probes.compare(entry, probe, currentNode.getElement());
+				if (comparatorResult == 0)
+				{
+					if (metrics != null)
+					{
+						metrics.recordSearch(depth);
+					}
+					break;
+				}
+				smallest &= comparatorResult < 0;
+				largest &= comparatorResult > 0;
+				BSTreeNode<E> child = comparatorResult < 0 ? currentNode.getLeft() : currentNode.getRight();
+				if (child == null)
+				{
+					child = new BSTreeNode<E>(Probes.element(entry, probe), null, null);
+					if (comparatorResult < 0)
+					{
+						currentNode.setLeft(child);
+					} else
+					{
+						currentNode.setRight(child);
+					}
+					if (metrics != null)
+					{
+						metrics.recordInsert(depth);
+					}
+					path[depth++] = child;
+					size++;
+					if (smallest)
+					{
+						leftmost = child;
+					} else if (largest)
+					{
+						rightmost = child;
+					}
+					break;
+				}
+				currentNode = child;
+			}
+
+			splay(path, depth);
+			return root;
+		} finally
+		{
+			// Splaying clears the path, but not when compareTo or the probe throws first
+			Arrays.fill(path, 0, depth, null);
+		}
+	}
+
+	@Override
+	public BSTreeNode<E> removeMin()
+	{
+		if (root == null)
+		{
+			return null;
+		}
+
+		BSTreeNode<E>[] path = pathBuffer();
+		int depth = 0;
+		for (BSTreeNode<E> node = root; node != null; node = node.getLeft())
+		{
+			path[depth++] = node;
+		}
+		// Splaying relinks nodes, so the next node can be found on the path before it
+		BSTreeNode<E> successor = path[depth - 1].getRight();
+		removedBound(successor == null ? (depth > 1 ? path[depth - 2] : null) : leftmostOf(successor), true);
+		splay(path, depth);
+
+		// The minimum is now the root and has no left child
+		BSTreeNode<E> minNode = root;
+		root = minNode.getRight();
+		minNode.setRight(null);
+		update(minNode);
+		size--;
+		if (metrics != null)
+		{
+			metrics.recordRemoval();
+		}
+		return minNode;
+	}
+
+	@Override
+	public BSTreeNode<E> removeMax()
+	{
+		if (root == null)
+		{
+			return null;
+		}
+
+		BSTreeNode<E>[] path = pathBuffer();
+		int depth = 0;
+		for (BSTreeNode<E> node = root; node != null; node = node.getRight())
+		{
+			path[depth++] = node;
+		}
+		BSTreeNode<E> predecessor = path[depth - 1].getLeft();
+		removedBound(predecessor == null ? (depth > 1 ? path[depth - 2] : null) : rightmostOf(predecessor), false);
+		splay(path, depth);
+
+		// The maximum is now the root and has no right child
+		BSTreeNode<E> maxNode = root;
+		root = maxNode.getLeft();
+		maxNode.setLeft(null);
+		update(maxNode);
+		size--;
+		if (metrics != null)
+		{
+			metrics.recordRemoval();
+		}
+		return maxNode;
+	}
+
+	/**
+	 * Moves the last node of a root-to-node path to the root, two levels per
+	 * step, and clears the path.
+	 *
+	 * @param path nodes from the root down to the node to splay
+	 * @param depth number of nodes in the path
+	 */
+	private void splay(BSTreeNode<E>[] path, int depth)
+	{
+		BSTreeNode<E> node = path[depth - 1];
+		int index = depth - 1;
+		while (index > 0)
+		{
+			BSTreeNode<E> parentNode = path[index - 1];
+			BSTreeNode<E> top;
+			if (index == 1)
+			{
+				// Zig: the parent is the root
+				rotateUp(node, parentNode);
+				top = parentNode;
+				index = 0;
+			} else
+			{
+				BSTreeNode<E> grandparentNode = path[index - 2];
+				if ((grandparentNode.getLeft() == parentNode) == (parentNode.getLeft() == node))
+				{
+					// Zig-zig: rotate the parent first, then the node
+					rotateUp(parentNode, grandparentNode);
+					rotateUp(node, parentNode);
+				} else
+				{
+					// Zig-zag: rotate the node twice, relinking it to the grandparent in between
+					boolean leftOfGrandparent = grandparentNode.getLeft() == parentNode;
+					rotateUp(node, parentNode);
+					if (leftOfGrandparent)
+					{
+						grandparentNode.setLeft(node);
+					} else
+					{
+						grandparentNode.setRight(node);
+					}
+					rotateUp(node, grandparentNode);
+				}
+				top = grandparentNode;
+				index -= 2;
+			}
+
+			if (index == 0)
+			{
+				root = node;
+			} else if (path[index - 1].getLeft() == top)
+			{
+				path[index - 1].setLeft(node);
+			} else
+			{
+				path[index - 1].setRight(node);
+			}
+		}
+		Arrays.fill(path, 0, depth, null);
+		modCount++;
+		if (metrics != null)
+		{
+			// A zig is one rotation, zig-zig and zig-zag are two each
+			metrics.recordRotations(depth - 1);
+		}
+	}
+
+	/**
+	 * Rotates a node above its parent and updates both. The caller links the
+	 * node to whatever was above the parent.
+	 *
+	 * @param node the child to move up
+	 * @param parentNode the parent to move down
+	 */
+	private static <E> void rotateUp(BSTreeNode<E> node, BSTreeNode<E> parentNode)
+	{
+		if (parentNode.getLeft() == node)
+		{
+			parentNode.setLeft(node.getRight());
+			node.setRight(parentNode);
+		} else
+		{
+			parentNode.setRight(node.getLeft());
+			node.setLeft(parentNode);
+		}
+		update(parentNode);
+		update(node);
+	}
+}
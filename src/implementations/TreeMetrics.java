@@ -0,0 +1,214 @@
+package implementations;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Operation counters of one tree. A tree only collects them once
+ * {@link BSTree#enableMetrics()} has been called; until then the cost is one
+ * null check per operation. Comparisons are derived from the path length of
+ * each search and insert, which the trees count anyway, so compareTo itself is
+ * not wrapped.
+ * <p>
+ * The counters are plain fields updated by the thread modifying the tree. When
+ * several threads search the same tree at once, or a JMX client reads them
+ * during updates, the figures are approximate; {@link #snapshot()} gives a
+ * consistent copy for the thread that owns the tree.
+ */
+public class TreeMetrics implements TreeMetricsMXBean
+{
+	/** Number of histogram buckets; the last one collects all longer paths */
+	public static final int HISTOGRAM_BUCKETS = 64;
+
+	private long comparisons;
+	private long searches;
+	private long inserts;
+	private long removals;
+	private long rotations;
+	private long iteratorsCreated;
+	private long[] pathLengths = new long[HISTOGRAM_BUCKETS];
+
+	/**
+	 * Records a search that visited the given number of nodes.
+	 *
+	 * @param pathLength number of nodes compared against
+	 */
+	void recordSearch(int pathLength)
+	{
+		searches++;
+		recordPath(pathLength);
+	}
+
+	/**
+	 * Records an insert that compared against the given number of nodes before
+	 * attaching the new one.
+	 *
+	 * @param pathLength number of nodes compared against
+	 */
+	void recordInsert(int pathLength)
+	{
+		inserts++;
+		recordPath(pathLength);
+	}
+
+	private void recordPath(int pathLength)
+	{
+		comparisons += pathLength;
+		pathLengths[Math.min(pathLength, HISTOGRAM_BUCKETS - 1)]++;
+	}
+
+	void recordRemoval()
+	{
+		removals++;
+	}
+
+	void recordRotations(int count)
+	{
+		rotations += count;
+	}
+
+	void recordIterator()
+	{
+		iteratorsCreated++;
+	}
+
+	@Override
+	public long getComparisons()
+	{
+		return comparisons;
+	}
+
+	@Override
+	public long getSearches()
+	{
+		return searches;
+	}
+
+	@Override
+	public long getInserts()
+	{
+		return inserts;
+	}
+
+	@Override
+	public long getRemovals()
+	{
+		return removals;
+	}
+
+	@Override
+	public long getRotations()
+	{
+		return rotations;
+	}
+
+	@Override
+	public long getIteratorsCreated()
+	{
+		return iteratorsCreated;
+	}
+
+	@Override
+	public double getMeanPathLength()
+	{
+		long paths = searches + inserts;
+		return paths == 0 ? 0 : comparisons / (double) paths;
+	}
+
+	@Override
+	public long[] getPathLengthHistogram()
+	{
+		return pathLengths.clone();
+	}
+
+	@Override
+	public void reset()
+	{
+		comparisons = 0;
+		searches = 0;
+		inserts = 0;
+		removals = 0;
+		rotations = 0;
+		iteratorsCreated = 0;
+		Arrays.fill(pathLengths, 0);
+	}
+
+	/**
+	 * Adds the counters of another tree to these, as when the operations of
+	 * trees that were filled separately are counted for the tree they are
+	 * merged into.
+	 *
+	 * @param other the counters to add
+	 */
+	public void add(TreeMetrics other)
+	{
+		comparisons += other.comparisons;
+		searches += other.searches;
+		inserts += other.inserts;
+		removals += other.removals;
+		rotations += other.rotations;
+		iteratorsCreated += other.iteratorsCreated;
+		for (int i = 0; i < HISTOGRAM_BUCKETS; i++)
+		{
+			pathLengths[i] += other.pathLengths[i];
+		}
+	}
+
+	/**
+	 * Returns a copy of the counters that later operations do not change.
+	 *
+	 * @return the current values
+	 */
+	public TreeMetrics snapshot()
+	{
+		TreeMetrics copy = new TreeMetrics();
+		copy.comparisons = comparisons;
+		copy.searches = searches;
+		copy.inserts = inserts;
+		copy.removals = removals;
+		copy.rotations = rotations;
+		copy.iteratorsCreated = iteratorsCreated;
+		copy.pathLengths = pathLengths.clone();
+		return copy;
+	}
+
+	/**
+	 * Registers these counters with the platform MBean server under
+	 * {@code implementations:type=TreeMetrics,name=<name>}.
+	 *
+	 * @param name name distinguishing this tree from others
+	 * @return the name the counters were registered under
+	 * @throws JMException if the name is invalid or already taken
+	 */
+	public ObjectName register(String name) throws JMException
+	{
+		ObjectName objectName = new ObjectName("implementations:type=TreeMetrics,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		return objectName;
+	}
+
+	/**
+	 * Formats the counters and the non-empty histogram buckets, one per line.
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("searches: %d, inserts: %d, removals: %d%n", searches, inserts, removals));
+		report.append(String.format("comparisons: %d (mean path length %.2f)%n", comparisons, getMeanPathLength()));
+		report.append(String.format("rotations: %d%n", rotations));
+		report.append(String.format("iterators created: %d%n", iteratorsCreated));
+		report.append(String.format("path length histogram:%n"));
+		for (int i = 0; i < HISTOGRAM_BUCKETS; i++)
+		{
+			if (pathLengths[i] > 0)
+			{
+				report.append(String.format("  %2d%s %d%n", i, i == HISTOGRAM_BUCKETS - 1 ? "+:" : ":", pathLengths[i]));
+			}
+		}
+		return report.toString();
+	}
+}
@@ -0,0 +1,58 @@
+package implementations;
+
+/**
+ * Management interface of {@link TreeMetrics}, so the counters of a tree can be
+ * watched with JConsole or any other JMX client while a program runs.
+ */
+public interface TreeMetricsMXBean
+{
+	/**
+	 * @return number of compareTo calls made by search, contains and findOrAdd
+	 */
+	long getComparisons();
+
+	/**
+	 * @return number of searches, including contains and the findOrAdd calls
+	 *         that found the element already present
+	 */
+	long getSearches();
+
+	/**
+	 * @return number of elements added
+	 */
+	long getInserts();
+
+	/**
+	 * @return number of elements removed by removeMin and removeMax
+	 */
+	long getRemovals();
+
+	/**
+	 * @return number of single rotations made by self-balancing or
+	 *         self-adjusting trees
+	 */
+	long getRotations();
+
+	/**
+	 * @return number of iterators and Spliterators created
+	 */
+	long getIteratorsCreated();
+
+	/**
+	 * @return mean number of nodes visited by a search or insert
+	 */
+	double getMeanPathLength();
+
+	/**
+	 * Entry i counts the searches and inserts that visited i nodes; the last
+	 * entry also counts every longer path.
+	 *
+	 * @return copy of the path-length histogram
+	 */
+	long[] getPathLengthHistogram();
+
+	/**
+	 * Sets every counter back to zero.
+	 */
+	void reset();
+}
@@ -86,6 +86,32 @@ public interface BSTreeADT<E extends Comparable<? super E>> extends	Serializable
 	 */
 	public boolean add( E newEntry ) throws NullPointerException;
 
+	/**
+	 * Retrieves the node holding the element equal to the one passed in, adding
+	 * the element to the tree first if it is not found. The tree is searched only
+	 * once, so this replaces a call to search followed by a call to add on a miss.
+	 * 
+	 * @param entry the element to find or add
+	 * @return the node holding the element stored in the tree, which is entry
+	 *         itself if it has just been added
+	 * @throws NullPointerException if the element being passed in is null
+	 */
+	public BSTreeNode<E> findOrAdd( E entry ) throws NullPointerException;
+
+	/**
+	 * Retrieves the node holding the element equal to the probe, adding the
+	 * element that the probe creates if there is none. As with findOrAdd the
+	 * tree is searched only once, and the element is only created when it is
+	 * added, so a lookup of an element already stored creates nothing.
+	 * 
+	 * @param probe the key to look for, and the factory of the element to add
+	 * @return the node holding the element stored in the tree
+	 * @throws NullPointerException if the probe is null or creates null
+	 * @throws IllegalArgumentException if the created element does not compare
+	 *         equal to the probe; the tree is left unchanged
+	 */
+	public BSTreeNode<E> findOrCreate( Probe<E> probe ) throws NullPointerException;
+
 	/**
 	 * Removes the smallest element in the tree according to the natural ordering
 	 * established by the Comparable implementation.
@@ -125,4 +151,83 @@ public interface BSTreeADT<E extends Comparable<? super E>> extends	Serializable
 	 * @return an iterator with the elements in a root element last order
 	 */
 	public Iterator<E> postorderIterator();
+
+	/**
+	 * Visits the elements in their natural order until the visitor returns
+	 * <code>false</code>. The default walks the in-order iterator; trees that
+	 * can visit their nodes directly override it.
+	 * 
+	 * @param visitor the callback receiving each element
+	 * @return <code>true</code> if every element was visited, <code>false</code>
+	 *         if the visitor stopped the traversal
+	 * @throws NullPointerException if the visitor is null
+	 */
+	public default boolean forEachInOrder(Visitor<? super E> visitor) throws NullPointerException
+	{
+		if (visitor == null)
+		{
+			throw new NullPointerException("Visitor cannot be null.");
+		}
+		Iterator<E> it = inorderIterator();
+		while (it.hasNext())
+		{
+			if (!visitor.visit(it.next()))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Visits the elements root first, in the order of the pre-order iterator,
+	 * until the visitor returns <code>false</code>.
+	 * 
+	 * @param visitor the callback receiving each element
+	 * @return <code>true</code> if every element was visited, <code>false</code>
+	 *         if the visitor stopped the traversal
+	 * @throws NullPointerException if the visitor is null
+	 */
+	public default boolean forEachPreOrder(Visitor<? super E> visitor) throws NullPointerException
+	{
+		if (visitor == null)
+		{
+			throw new NullPointerException("Visitor cannot be null.");
+		}
+		Iterator<E> it = preorderIterator();
+		while (it.hasNext())
+		{
+			if (!visitor.visit(it.next()))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Visits the elements root last, in the order of the post-order iterator,
+	 * until the visitor returns <code>false</code>.
+	 * 
+	 * @param visitor the callback receiving each element
+	 * @return <code>true</code> if every element was visited, <code>false</code>
+	 *         if the visitor stopped the traversal
+	 * @throws NullPointerException if the visitor is null
+	 */
+	public default boolean forEachPostOrder(Visitor<? super E> visitor) throws NullPointerException
+	{
+		if (visitor == null)
+		{
+			throw new NullPointerException("Visitor cannot be null.");
+		}
+		Iterator<E> it = postorderIterator();
+		while (it.hasNext())
+		{
+			if (!visitor.visit(it.next()))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
 }
@@ -6,10 +6,12 @@ import java.util.NoSuchElementException;
  * This interface will provide an mono-directional iterator for any of the data
  * structures that are specified in this package. The implementor is only
  * responsible for the simple methods. A more functional iterator is available
- * in the <code>java.util</code> package. This iterator makes a copy of the
- * collection of elements and performs a complete walk through the data
- * structure. Note that the copy must be a deep copy, so methods such as clone()
- * should not be used.
+ * in the <code>java.util</code> package. An implementation may either make a
+ * copy of the collection of elements up front, in which case the copy must be
+ * a deep copy so methods such as clone() should not be used, or walk the data
+ * structure lazily as elements are requested. Lazy iterators throw a
+ * <code>ConcurrentModificationException</code> if the data structure is
+ * structurally modified while they are in use.
  *
  * @param <E> The type of element this iterator returns.
  */
@@ -0,0 +1,31 @@
+package utilities;
+
+/**
+ * Search key for {@link BSTreeADT#findOrCreate(Probe)}. A probe compares
+ * itself with the elements of a tree the way an equal element would, without
+ * being one, and creates that element only when the tree holds none equal to
+ * it. A caller that would otherwise build an element for every lookup, and
+ * throw it away whenever the tree already has one, can reuse a single probe.
+ *
+ * @param <E> The type of element this probe looks up.
+ */
+public interface Probe<E>
+{
+	/**
+	 * Compares this key with an element of the tree.
+	 *
+	 * @param element The element to compare with.
+	 * @return a negative number, zero or a positive number as this key is
+	 *         less than, equal to or greater than the element.
+	 */
+	public int compareTo(E element);
+
+	/**
+	 * Creates the element to add to the tree. Called at most once per lookup,
+	 * and only when the tree holds no element equal to this key.
+	 *
+	 * @return a new element that compares equal to this key; the trees reject
+	 *         one that does not.
+	 */
+	public E create();
+}
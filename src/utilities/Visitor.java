@@ -0,0 +1,23 @@
+package utilities;
+
+/**
+ * Callback for the forEach traversals of a {@link BSTreeADT}. The tree calls
+ * <code>visit</code> once per element in the order of the traversal, for as
+ * long as it returns <code>true</code>; returning <code>false</code> ends the
+ * traversal without visiting the remaining elements. The tree must not be
+ * modified while it is being visited.
+ *
+ * @param <E> The type of element this visitor accepts.
+ */
+@FunctionalInterface
+public interface Visitor<E>
+{
+	/**
+	 * Processes one element of the traversal.
+	 *
+	 * @param element The element being visited.
+	 * @return <code>true</code> to continue with the next element,
+	 *         <code>false</code> to stop the traversal.
+	 */
+	public boolean visit(E element);
+}
@@ -0,0 +1,191 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.Iterator;
+
+import implementations.AVLTree;
+
+/**
+ * Class Description: Tests for the self-balancing AVLTree implementation of
+ * the BSTreeADT.
+ */
+public class AVLTreeTest
+{
+	// Attributes
+	private AVLTree<Integer> tree;
+
+	/**
+	 * Initializes a new AVLTree instance before each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception
+	{
+		tree = new AVLTree<Integer>();
+	}
+
+	/**
+	 * Cleans up instances used after each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception
+	{
+		tree = null;
+	}
+
+	/**
+	 * Test method for {@link implementations.AVLTree#add(java.lang.Comparable)} to
+	 * keep the tree balanced when items arrive in ascending order.
+	 */
+	@Test
+	public void testAdd_SortedInputStaysBalanced()
+	{
+		for( int i = 1; i <= 1023; i++ )
+		{
+			assertTrue( tree.add( i ) );
+		}
+		assertEquals( "Failed to update size correctly.", 1023, tree.size() );
+		assertEquals( "Failed to keep tree balanced.", 10, tree.getHeight() );
+		assertEquals( "Failed to rotate root.", 512, (int) tree.getRoot().getElement() );
+	}
+
+	/**
+	 * Test method for {@link implementations.AVLTree#add(java.lang.Comparable)} to
+	 * keep the tree balanced when items arrive in descending order.
+	 */
+	@Test
+	public void testAdd_ReverseSortedInputStaysBalanced()
+	{
+		for( int i = 100000; i > 0; i-- )
+		{
+			tree.add( i );
+		}
+		assertEquals( "Failed to update size correctly.", 100000, tree.size() );
+		assertTrue( "Failed to keep tree balanced.", tree.getHeight() <= 25 );
+	}
+
+	/**
+	 * Test method for {@link implementations.AVLTree#add(java.lang.Comparable)} to
+	 * reject a duplicate item.
+	 */
+	@Test
+	public void testAdd_Duplicate()
+	{
+		tree.add( 5 );
+		tree.add( 3 );
+		assertFalse( "Failed to reject duplicate.", tree.add( 3 ) );
+		assertEquals( "Failed to keep size.", 2, tree.size() );
+	}
+
+	/**
+	 * Test method for {@link implementations.AVLTree#inorderIterator()} to return
+	 * the items in natural order after rotations.
+	 */
+	@Test
+	public void testInorderIterator()
+	{
+		int[] values = { 50, 20, 80, 10, 30, 25, 27, 90, 85, 95, 5, 1 };
+		for( int value : values )
+		{
+			tree.add( value );
+		}
+
+		Iterator<Integer> it = tree.inorderIterator();
+		int previous = Integer.MIN_VALUE;
+		int count = 0;
+		while( it.hasNext() )
+		{
+			int current = it.next();
+			assertTrue( "In-order iterator is out of order.", current > previous );
+			previous = current;
+			count++;
+		}
+		assertEquals( "Failed to visit every item.", values.length, count );
+	}
+
+	/**
+	 * Test method for {@link implementations.AVLTree#removeMin()} and
+	 * {@link implementations.AVLTree#removeMax()} to drain the tree in order
+	 * while keeping it balanced.
+	 */
+	@Test
+	public void testRemoveMinAndMax()
+	{
+		for( int i = 1; i <= 1000; i++ )
+		{
+			tree.add( i );
+		}
+		for( int i = 1; i <= 400; i++ )
+		{
+			assertEquals( "Failed to return minimum value.", i, (int) tree.removeMin().getElement() );
+			assertEquals( "Failed to return maximum value.", 1001 - i, (int) tree.removeMax().getElement() );
+		}
+		assertEquals( "Failed to update size.", 200, tree.size() );
+		assertTrue( "Failed to keep tree balanced.", tree.getHeight() <= 10 );
+		assertFalse( tree.contains( 400 ) );
+		assertTrue( tree.contains( 401 ) );
+	}
+
+	/**
+	 * Test method for {@link implementations.AVLTree#removeMin()} to return a
+	 * detached node and null on an empty tree.
+	 */
+	@Test
+	public void testRemoveMin_Detached()
+	{
+		assertNull( "Failed to return null.", tree.removeMin() );
+		tree.add( 2 );
+		tree.add( 1 );
+		tree.add( 3 );
+		assertNull( "Removed node still linked.", tree.removeMin().getRight() );
+		assertNull( "Removed node still linked.", tree.removeMax().getLeft() );
+		assertEquals( "Failed to update height.", 1, tree.getHeight() );
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#select(int)} and
+	 * {@link implementations.BSTree#rank(java.lang.Comparable)} to stay correct
+	 * while rotations reshape the tree.
+	 */
+	@Test
+	public void testRankAndSelectAfterRotations()
+	{
+		for( int i = 0; i < 500; i++ )
+		{
+			tree.add( ( i * 37 ) % 500 );
+		}
+		tree.removeMin();
+		tree.removeMax();
+
+		for( int k = 0; k < 498; k++ )
+		{
+			assertEquals( "Failed to select position " + k, k + 1, (int) tree.select( k ) );
+			assertEquals( "Failed to rank value " + ( k + 1 ), k, tree.rank( k + 1 ) );
+		}
+		assertEquals( "Failed to cache subtree size.", 498, tree.getRoot().getSize() );
+	}
+
+	/**
+	 * Test method for {@link implementations.AVLTree#findOrAdd(java.lang.Comparable)}
+	 * to return the resident node across rotations.
+	 */
+	@Test
+	public void testFindOrAdd()
+	{
+		for( int i = 0; i < 100; i++ )
+		{
+			assertEquals( "Failed to add missing element.", i, (int) tree.findOrAdd( i ).getElement() );
+		}
+		assertEquals( "Failed to keep tree balanced.", 7, tree.getHeight() );
+		assertSame( "Failed to return resident node.", tree.search( 50 ), tree.findOrAdd( 50 ) );
+		assertEquals( "Failed to keep size.", 100, tree.size() );
+	}
+}
@@ -0,0 +1,201 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.Iterator;
+
+import implementations.ArrayBSTree;
+import implementations.BSTreeNode;
+
+/**
+ * Class Description: Tests for the ArrayBSTree implementation of the BSTreeADT,
+ * whose nodes are slots of parallel arrays.
+ */
+public class ArrayBSTreeTest
+{
+	// Attributes
+	private ArrayBSTree<Integer> tree;
+
+	/**
+	 * Initializes a new ArrayBSTree instance before each test, with a capacity
+	 * small enough that the tests make the arrays grow.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception
+	{
+		tree = new ArrayBSTree<Integer>( 2 );
+		tree.add( 44 );
+		tree.add( 22 );
+		tree.add( 66 );
+		tree.add( 11 );
+		tree.add( 33 );
+		tree.add( 55 );
+		tree.add( 77 );
+	}
+
+	/**
+	 * Cleans up instances used after each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception
+	{
+		tree = null;
+	}
+
+	/**
+	 * Asserts that an iterator returns exactly the expected elements.
+	 */
+	private static void assertOrder( String message, Integer[] expected, Iterator<Integer> it )
+	{
+		for( Integer element : expected )
+		{
+			assertEquals( message, element, it.next() );
+		}
+		assertFalse( message, it.hasNext() );
+	}
+
+	/**
+	 * Test method for the basic queries shared with BSTree.
+	 */
+	@Test
+	public void testQueries()
+	{
+		assertEquals( "Failed to return correct size.", 7, tree.size() );
+		assertEquals( "Failed to return correct height.", 3, tree.getHeight() );
+		assertFalse( "Failed to reject duplicate.", tree.add( 33 ) );
+		assertTrue( tree.contains( 55 ) );
+		assertFalse( tree.contains( 50 ) );
+		assertNull( tree.search( 50 ) );
+
+		BSTreeNode<Integer> root = tree.getRoot();
+		assertEquals( "Failed to return root.", 44, (int) root.getElement() );
+		assertEquals( "Failed to link left child.", 22, (int) root.getLeft().getElement() );
+		assertEquals( "Failed to link right child.", 77, (int) root.getRight().getRight().getElement() );
+		assertNull( root.getLeft().getLeft().getLeft() );
+		assertEquals( "Failed to find node.", 33, (int) tree.search( 33 ).getElement() );
+	}
+
+	/**
+	 * Test method for the three traversal iterators.
+	 */
+	@Test
+	public void testIterators()
+	{
+		assertOrder( "In-order iterator is out of order", new Integer[] { 11, 22, 33, 44, 55, 66, 77 },
+				tree.inorderIterator() );
+		assertOrder( "Pre-order iterator is out of order", new Integer[] { 44, 22, 11, 33, 66, 55, 77 },
+				tree.preorderIterator() );
+		assertOrder( "Post-order iterator is out of order", new Integer[] { 11, 33, 22, 55, 77, 66, 44 },
+				tree.postorderIterator() );
+
+		Iterator<Integer> it = tree.inorderIterator();
+		tree.add( 99 );
+		try
+		{
+			it.next();
+			fail( "Iterator ignored a modification." );
+		} catch( ConcurrentModificationException e )
+		{
+			// expected
+		}
+
+		tree.clear();
+		assertFalse( tree.inorderIterator().hasNext() );
+		try
+		{
+			tree.preorderIterator().next();
+			fail( "Iterator past the end did not throw." );
+		} catch( NoSuchElementException e )
+		{
+			// expected
+		}
+	}
+
+	/**
+	 * Test method for {@link implementations.ArrayBSTree#removeMin()} and
+	 * {@link implementations.ArrayBSTree#removeMax()}, including reuse of the freed slots.
+	 */
+	@Test
+	public void testRemoveAndReuse()
+	{
+		BSTreeNode<Integer> min = tree.removeMin();
+		assertEquals( "Failed to return minimum value.", 11, (int) min.getElement() );
+		assertNull( "Removed node still linked.", min.getRight() );
+		assertEquals( "Failed to return maximum value.", 77, (int) tree.removeMax().getElement() );
+		assertEquals( "Failed to update size.", 5, tree.size() );
+
+		BSTreeNode<Integer> added = tree.findOrAdd( 10 );
+		assertEquals( "Failed to add into a freed slot.", 10, (int) added.getElement() );
+		assertSame( "Failed to return existing node.", tree.search( 33 ).getElement(), tree.findOrAdd( 33 ).getElement() );
+		assertSame( "Failed to reuse the lookup view.", tree.search( 22 ), tree.findOrAdd( 44 ) );
+		assertEquals( 44, (int) tree.search( 44 ).getElement() );
+		assertOrder( "In-order iterator is out of order", new Integer[] { 10, 22, 33, 44, 55, 66 },
+				tree.inorderIterator() );
+
+		for( int i = 0; i < 6; i++ )
+		{
+			tree.removeMax();
+		}
+		assertTrue( tree.isEmpty() );
+		assertNull( tree.removeMin() );
+		assertNull( tree.removeMax() );
+		try
+		{
+			tree.getRoot();
+			fail( "Empty tree returned a root." );
+		} catch( NullPointerException e )
+		{
+			// expected
+		}
+	}
+
+	/**
+	 * Test method for serializing an ArrayBSTree, which restores it balanced.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testSerialization() throws Exception
+	{
+		ArrayBSTree<Integer> chain = new ArrayBSTree<Integer>();
+		for( int i = 0; i < 1000; i++ )
+		{
+			chain.add( i );
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try( ObjectOutputStream out = new ObjectOutputStream( bytes ) )
+		{
+			out.writeObject( chain );
+		}
+
+		ArrayBSTree<Integer> copy;
+		try( ObjectInputStream in = new ObjectInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ) )
+		{
+			copy = (ArrayBSTree<Integer>) in.readObject();
+		}
+		assertEquals( "Failed to restore size.", 1000, copy.size() );
+		assertEquals( "Failed to rebalance.", 10, copy.getHeight() );
+		Iterator<Integer> it = copy.inorderIterator();
+		for( int i = 0; i < 1000; i++ )
+		{
+			assertEquals( "Failed to restore order.", i, (int) it.next() );
+		}
+		assertTrue( "Failed to add after restore.", copy.add( 1000 ) );
+	}
+}
@@ -0,0 +1,170 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import utilities.Iterator;
+
+import implementations.BSTree;
+import implementations.BSTreeNode;
+
+/**
+ * Class Description: Stress tests running every whole-tree operation of the
+ * BSTree on a degenerate tree, a chain of right children as produced by adding
+ * sorted input, far deeper than the call stack could handle recursively.
+ */
+public class BSTreeStressTest
+{
+	// Number of nodes in the chain
+	private static final int CHAIN_LENGTH = 10000000;
+
+	// Chain shared by the tests that only read it, built by the first of them
+	private static BSTree<Integer> sharedChain;
+
+	/**
+	 * Releases the shared chain after the last test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@AfterClass
+	public static void tearDownClass() throws Exception
+	{
+		sharedChain = null;
+	}
+
+	/**
+	 * Returns the chain of CHAIN_LENGTH nodes shared by the tests that do not
+	 * modify it, building it on first use. A test that modifies a chain builds
+	 * its own, and a test that needs none does not pay for one.
+	 *
+	 * @return the shared chain
+	 */
+	private static BSTree<Integer> readOnlyChain()
+	{
+		if( sharedChain == null )
+		{
+			sharedChain = chainOf( CHAIN_LENGTH );
+		}
+		return sharedChain;
+	}
+
+	/**
+	 * Returns a tree holding 0 .. length - 1 where every node only has a right
+	 * child. The chain is built directly from nodes, since adding sorted input
+	 * one element at a time would take quadratic time.
+	 *
+	 * @param length number of nodes
+	 * @return the degenerate tree
+	 */
+	private static BSTree<Integer> chainOf( int length )
+	{
+		BSTreeNode<Integer> node = null;
+		for( int i = length - 1; i >= 0; i-- )
+		{
+			node = new BSTreeNode<Integer>( i, null, node );
+		}
+		return new ChainTree( node, length );
+	}
+
+	/**
+	 * BSTree whose nodes are supplied directly rather than added one by one.
+	 */
+	private static class ChainTree extends BSTree<Integer>
+	{
+		private static final long serialVersionUID = 1L;
+
+		ChainTree( BSTreeNode<Integer> top, int length )
+		{
+			root = top;
+			size = length;
+		}
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#getHeight()} on the chain.
+	 */
+	@Test
+	public void testGetHeight()
+	{
+		assertEquals( "Failed to return correct height.", CHAIN_LENGTH, readOnlyChain().getHeight() );
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#inorderIterator()},
+	 * {@link implementations.BSTree#preorderIterator()} and
+	 * {@link implementations.BSTree#postorderIterator()} on the chain.
+	 */
+	@Test
+	public void testIterators()
+	{
+		BSTree<Integer> chain = readOnlyChain();
+		Iterator<Integer> in = chain.inorderIterator();
+		Iterator<Integer> pre = chain.preorderIterator();
+		for( int i = 0; i < CHAIN_LENGTH; i++ )
+		{
+			assertEquals( i, (int) in.next() );
+			assertEquals( i, (int) pre.next() );
+		}
+		assertFalse( in.hasNext() );
+		assertFalse( pre.hasNext() );
+
+		Iterator<Integer> post = chain.postorderIterator();
+		for( int i = CHAIN_LENGTH - 1; i >= 0; i-- )
+		{
+			assertEquals( i, (int) post.next() );
+		}
+		assertFalse( post.hasNext() );
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#add(java.lang.Comparable)},
+	 * {@link implementations.BSTree#removeMax()} and
+	 * {@link implementations.BSTree#select(int)} at the bottom of the chain.
+	 */
+	@Test
+	public void testUpdatesAtDepth()
+	{
+		BSTree<Integer> chain = chainOf( CHAIN_LENGTH );
+		assertTrue( chain.add( CHAIN_LENGTH ) );
+		assertEquals( "Failed to update height.", CHAIN_LENGTH + 1, chain.getHeight() );
+		assertEquals( "Failed to remove maximum.", CHAIN_LENGTH, (int) chain.removeMax().getElement() );
+		assertEquals( "Failed to remove maximum.", CHAIN_LENGTH - 1, (int) chain.removeMax().getElement() );
+		assertEquals( "Failed to update height.", CHAIN_LENGTH - 1, chain.getHeight() );
+		assertEquals( "Failed to select last element.", CHAIN_LENGTH - 2, (int) chain.select( CHAIN_LENGTH - 2 ) );
+		assertEquals( "Failed to rank last element.", CHAIN_LENGTH - 2, chain.rank( CHAIN_LENGTH - 2 ) );
+	}
+
+	/**
+	 * Test method for serializing a chain that is too deep for the default,
+	 * recursive serialization of the node graph; it is read back balanced.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testSerialization() throws Exception
+	{
+		int length = 200000;
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try( ObjectOutputStream out = new ObjectOutputStream( bytes ) )
+		{
+			out.writeObject( chainOf( length ) );
+		}
+
+		BSTree<Integer> copy;
+		try( ObjectInputStream in = new ObjectInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ) )
+		{
+			copy = (BSTree<Integer>) in.readObject();
+		}
+		assertEquals( "Failed to restore size.", length, copy.size() );
+		assertEquals( "Failed to rebalance.", 18, copy.getHeight() );
+		assertEquals( "Failed to restore order.", length / 2, (int) copy.select( length / 2 ) );
+	}
+}
@@ -2,14 +2,36 @@ package unitTests;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import utilities.BSTreeADT;
 import utilities.Iterator;
+import utilities.Probe;
 
+import application.Word;
+import implementations.AVLTree;
+import implementations.ArrayBSTree;
 import implementations.BSTree;
 import implementations.BSTreeNode;
+import implementations.BTree;
+import implementations.ConcurrentBSTree;
+import implementations.PersistentBSTree;
+import implementations.SplayTree;
 
 /**
  * @author kitty, maryam
@@ -607,4 +629,810 @@ public class BSTreeTest
 	{
 		assertNull( "Failed to return maximum value.", tree.removeMax() );
 	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#getHeight()} to update the
+	 * cached height after removing the minimum and maximum values.
+	 */
+	@Test
+	public void testGetHeight_AfterRemove()
+	{
+		tree.add( four );
+		tree.add( two );
+		tree.add( one );
+		tree.add( six );
+		tree.add( seven );
+		assertEquals( "Failed to return correct height.", 3, tree.getHeight() );
+
+		tree.removeMin();
+		assertEquals( "Failed to return correct height.", 3, tree.getHeight() );
+		tree.removeMax();
+		assertEquals( "Failed to return correct height.", 2, tree.getHeight() );
+		assertEquals( "Failed to update subtree size.", 3, tree.getRoot().getSize() );
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#rank(java.lang.Comparable)}
+	 * to count the elements smaller than present and absent values.
+	 */
+	@Test
+	public void testRank()
+	{
+		tree.add( four );
+		tree.add( two );
+		tree.add( six );
+		tree.add( one );
+		tree.add( five );
+
+		assertEquals( "Failed to rank the minimum.", 0, tree.rank( one ) );
+		assertEquals( "Failed to rank the root.", 2, tree.rank( four ) );
+		assertEquals( "Failed to rank an absent value.", 2, tree.rank( three ) );
+		assertEquals( "Failed to rank past the maximum.", 5, tree.rank( seven ) );
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#select(int)} to return the
+	 * element at each in-order position.
+	 */
+	@Test
+	public void testSelect()
+	{
+		tree.add( four );
+		tree.add( two );
+		tree.add( six );
+		tree.add( one );
+		tree.add( five );
+		tree.add( three );
+		tree.add( seven );
+
+		Integer[] shouldBe = { one, two, three, four, five, six, seven };
+		for( int i = 0; i < shouldBe.length; i++ )
+		{
+			assertEquals( "Failed to select position " + i, shouldBe[i], tree.select( i ) );
+		}
+
+		try
+		{
+			tree.select( 7 );
+			fail( "Failed to throw IndexOutOfBoundsException." );
+		}
+		catch( IndexOutOfBoundsException e )
+		{
+			assertTrue( true );
+		}
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#postorderIterator()} and
+	 * {@link implementations.BSTree#preorderIterator()} on a tree whose nodes
+	 * only have one child each.
+	 */
+	@Test
+	public void testIterators_ZigZag()
+	{
+		tree.add( one );
+		tree.add( seven );
+		tree.add( two );
+		tree.add( six );
+		tree.add( three );
+
+		Integer[] postorder = { three, six, two, seven, one };
+		Integer[] preorder = { one, seven, two, six, three };
+		Iterator<Integer> post = tree.postorderIterator();
+		Iterator<Integer> pre = tree.preorderIterator();
+		for( int i = 0; i < postorder.length; i++ )
+		{
+			assertEquals( "Postorder iterator is out of order ", postorder[i], post.next() );
+			assertEquals( "Preorder iterator is out of order ", preorder[i], pre.next() );
+		}
+		assertFalse( post.hasNext() );
+		assertFalse( pre.hasNext() );
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#inorderIterator()} to throw
+	 * NoSuchElementException past the end and ConcurrentModificationException
+	 * once the tree has changed.
+	 */
+	@Test
+	public void testInorderIterator_Exceptions()
+	{
+		tree.add( two );
+		Iterator<Integer> it = tree.inorderIterator();
+		assertEquals( "Failed to return the element.", two, it.next() );
+		try
+		{
+			it.next();
+			fail( "Failed to throw NoSuchElementException." );
+		}
+		catch( java.util.NoSuchElementException e )
+		{
+			assertTrue( true );
+		}
+
+		it = tree.inorderIterator();
+		tree.add( one );
+		try
+		{
+			it.next();
+			fail( "Failed to throw ConcurrentModificationException." );
+		}
+		catch( java.util.ConcurrentModificationException e )
+		{
+			assertTrue( true );
+		}
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#fromSorted(Comparable[])} to
+	 * build a balanced tree from sorted input.
+	 */
+	@Test
+	public void testFromSorted()
+	{
+		Integer[] sorted = new Integer[1000];
+		for( int i = 0; i < sorted.length; i++ )
+		{
+			sorted[i] = i * 2;
+		}
+
+		BSTree<Integer> built = BSTree.fromSorted( sorted );
+		assertEquals( "Failed to return correct size.", 1000, built.size() );
+		assertEquals( "Failed to build a balanced tree.", 10, built.getHeight() );
+		assertEquals( "Failed to cache subtree size.", 1000, built.getRoot().getSize() );
+
+		Iterator<Integer> it = built.inorderIterator();
+		for( int i = 0; i < sorted.length; i++ )
+		{
+			assertEquals( "In-order iterator is out of order ", sorted[i], it.next() );
+		}
+		assertTrue( built.contains( 998 ) );
+		assertFalse( built.contains( 999 ) );
+		assertTrue( built.add( 999 ) );
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#fromSorted(utilities.Iterator, int)} to copy
+	 * another tree and to reject input that is not in ascending order.
+	 */
+	@Test
+	public void testFromSorted_Iterator()
+	{
+		tree.add( four );
+		tree.add( two );
+		tree.add( one );
+		tree.add( three );
+		tree.add( five );
+
+		BSTree<Integer> copy = BSTree.fromSorted( tree.inorderIterator(), tree.size() );
+		assertEquals( "Failed to build a balanced tree.", 3, copy.getHeight() );
+		assertEquals( "Failed to pick the middle element as root.", three, copy.getRoot().getElement() );
+
+		try
+		{
+			BSTree.fromSorted( tree.preorderIterator(), tree.size() );
+			fail( "Failed to throw IllegalArgumentException." );
+		}
+		catch( IllegalArgumentException e )
+		{
+			assertTrue( true );
+		}
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#floor(java.lang.Comparable)},
+	 * {@link implementations.BSTree#ceiling(java.lang.Comparable)},
+	 * {@link implementations.BSTree#higher(java.lang.Comparable)} and
+	 * {@link implementations.BSTree#lower(java.lang.Comparable)}.
+	 */
+	@Test
+	public void testNavigation()
+	{
+		tree.add( four );
+		tree.add( two );
+		tree.add( six );
+
+		assertEquals( "Failed to return floor.", two, tree.floor( three ) );
+		assertEquals( "Failed to return floor.", four, tree.floor( four ) );
+		assertNull( "Failed to return null floor.", tree.floor( one ) );
+		assertEquals( "Failed to return ceiling.", four, tree.ceiling( three ) );
+		assertEquals( "Failed to return ceiling.", two, tree.ceiling( two ) );
+		assertNull( "Failed to return null ceiling.", tree.ceiling( seven ) );
+		assertEquals( "Failed to return higher.", six, tree.higher( four ) );
+		assertNull( "Failed to return null higher.", tree.higher( six ) );
+		assertEquals( "Failed to return lower.", two, tree.lower( four ) );
+		assertNull( "Failed to return null lower.", tree.lower( two ) );
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#rangeIterator(java.lang.Comparable, java.lang.Comparable)}
+	 * to iterate over a half-open range and over open-ended ranges.
+	 */
+	@Test
+	public void testRangeIterator()
+	{
+		tree.add( four );
+		tree.add( two );
+		tree.add( six );
+		tree.add( one );
+		tree.add( five );
+		tree.add( three );
+		tree.add( seven );
+
+		Integer[][] shouldBe = { { two, three, four }, { five, six, seven }, { one }, {} };
+		Integer[][] bounds = { { 20, five }, { five, null }, { null, two }, { 60, 61 } };
+		for( int r = 0; r < bounds.length; r++ )
+		{
+			Iterator<Integer> it = tree.rangeIterator( bounds[r][0], bounds[r][1] );
+			for( Integer expected : shouldBe[r] )
+			{
+				assertEquals( "Range iterator is out of order ", expected, it.next() );
+			}
+			assertFalse( "Range iterator passed the end bound.", it.hasNext() );
+		}
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#findOrAdd(java.lang.Comparable)}
+	 * to add a missing element and return the resident node of a present one.
+	 */
+	@Test
+	public void testFindOrAdd()
+	{
+		tree.add( four );
+		tree.add( two );
+
+		BSTreeNode<Integer> added = tree.findOrAdd( six );
+		assertSame( "Failed to add missing element.", six, added.getElement() );
+		assertEquals( "Failed to update size.", 3, tree.size() );
+		assertEquals( "Failed to update height.", 2, tree.getHeight() );
+
+		BSTreeNode<Integer> found = tree.findOrAdd( new Integer( 22 ) );
+		assertSame( "Failed to return resident node.", tree.search( two ), found );
+		assertSame( "Failed to keep resident element.", two, found.getElement() );
+		assertEquals( "Failed to keep size.", 3, tree.size() );
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#findOrCreate(utilities.Probe)}
+	 * on every tree: the probe's element is created only for a missing key, and
+	 * the resident node is returned for a present one. A mismatched or failed
+	 * creation leaves the tree unchanged.
+	 */
+	@Test
+	public void testFindOrCreate_AllTrees()
+	{
+		List<BSTreeADT<Integer>> trees = Arrays.asList( new BSTree<Integer>(), new AVLTree<Integer>(),
+				new SplayTree<Integer>(), new PersistentBSTree<Integer>(), new ArrayBSTree<Integer>(),
+				new BTree<Integer>( 4 ), new ConcurrentBSTree<Integer>() );
+		for( BSTreeADT<Integer> subject : trees )
+		{
+			String name = subject.getClass().getSimpleName();
+			TreeSet<Integer> expected = new TreeSet<Integer>();
+			Random random = new Random( 11 );
+			CountingProbe probe = new CountingProbe();
+			for( int i = 0; i < 2000; i++ )
+			{
+				probe.key = random.nextInt( 500 );
+				int created = probe.created;
+				Integer element = subject.findOrCreate( probe ).getElement();
+				assertEquals( name, probe.key, element.intValue() );
+				assertEquals( name, expected.add( probe.key ) ? created + 1 : created, probe.created );
+				assertEquals( name, expected.size(), subject.size() );
+			}
+			assertEquals( name, new ArrayList<Integer>( expected ), toList( subject.inorderIterator() ) );
+
+			try
+			{
+				subject.findOrCreate( null );
+				fail( name + " accepted a null probe." );
+			} catch( NullPointerException e )
+			{
+			}
+			probe.key = 1000;
+			probe.returnNull = true;
+			try
+			{
+				subject.findOrCreate( probe );
+				fail( name + " added a null element." );
+			} catch( NullPointerException e )
+			{
+			}
+			assertEquals( name, expected.size(), subject.size() );
+			assertFalse( name, subject.contains( 1000 ) );
+
+			probe.returnNull = false;
+			probe.offset = -1000;
+			try
+			{
+				subject.findOrCreate( probe );
+				fail( name + " linked an element that does not compare equal to the probe." );
+			} catch( IllegalArgumentException e )
+			{
+			}
+			probe.offset = 0;
+			probe.fail = true;
+			try
+			{
+				subject.findOrCreate( probe );
+				fail( name + " swallowed the probe's exception." );
+			} catch( IllegalStateException e )
+			{
+			}
+			probe.fail = false;
+			assertEquals( name, expected.size(), subject.size() );
+			assertEquals( name, new ArrayList<Integer>( expected ), toList( subject.inorderIterator() ) );
+
+			// The tree stays usable after a failed creation
+			assertEquals( name, 1000, subject.findOrCreate( probe ).getElement().intValue() );
+			assertTrue( name, subject.contains( 1000 ) );
+			assertEquals( name, expected.size() + 1, subject.size() );
+		}
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#spliterator()}: splitting by
+	 * subtree yields ordered, exactly sized parts covering every element once.
+	 */
+	@Test
+	public void testSpliterator()
+	{
+		assertFalse( tree.spliterator().tryAdvance( e -> fail() ) );
+		assertNull( tree.spliterator().trySplit() );
+
+		for( int i = 1; i <= 1000; i++ )
+		{
+			tree.add( i * 7919 % 1009 );
+		}
+		Spliterator<Integer> rest = tree.spliterator();
+		assertTrue( rest.hasCharacteristics( Spliterator.SORTED | Spliterator.SUBSIZED ) );
+		assertEquals( 1000, rest.getExactSizeIfKnown() );
+
+		Spliterator<Integer> prefix = rest.trySplit();
+		assertEquals( "Failed to split sizes.", 1000, prefix.estimateSize() + rest.estimateSize() );
+		assertTrue( "Failed to split near the middle.", prefix.estimateSize() > 100 && rest.estimateSize() > 100 );
+		List<Integer> elements = new ArrayList<Integer>();
+		Spliterator<Integer> quarter = prefix.trySplit();
+		quarter.forEachRemaining( elements::add );
+		prefix.forEachRemaining( elements::add );
+		while( rest.tryAdvance( elements::add ) )
+		{
+			// advance one element at a time
+		}
+		Iterator<Integer> it = tree.inorderIterator();
+		for( Integer element : elements )
+		{
+			assertEquals( "Spliterator is out of order ", it.next(), element );
+		}
+		assertFalse( it.hasNext() );
+
+		Spliterator<Integer> stale = tree.spliterator();
+		tree.add( 5000 );
+		try
+		{
+			stale.tryAdvance( e -> { } );
+			fail( "Spliterator ignored a modification." );
+		} catch( ConcurrentModificationException e )
+		{
+			// expected
+		}
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#stream()} and
+	 * {@link implementations.BSTree#parallelStream()}.
+	 */
+	@Test
+	public void testStreams()
+	{
+		long expected = 0;
+		for( int i = 0; i < 100000; i++ )
+		{
+			tree.add( i * 7919 % 100003 );
+		}
+		Iterator<Integer> it = tree.inorderIterator();
+		while( it.hasNext() )
+		{
+			expected += it.next();
+		}
+		assertEquals( expected, tree.parallelStream().mapToLong( Integer::longValue ).sum() );
+		assertEquals( tree.size(), tree.parallelStream().count() );
+		List<Integer> ordered = tree.parallelStream().collect( Collectors.toList() );
+		assertEquals( tree.stream().collect( Collectors.toList() ), ordered );
+		assertEquals( tree.select( 0 ), ordered.get( 0 ) );
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#merge(utilities.BSTreeADT, java.util.function.BinaryOperator)}
+	 * to interleave both trees, combine equal elements and rebuild balanced.
+	 */
+	@Test
+	public void testMerge()
+	{
+		BSTree<Integer> other = new BSTree<Integer>();
+		for( int i = 0; i < 1000; i++ )
+		{
+			tree.add( i * 2 );
+			other.add( i * 3 );
+		}
+		final Integer[] combined = new Integer[1];
+		tree.merge( other, ( mine, theirs ) -> {
+			combined[0] = theirs;
+			return mine;
+		} );
+
+		TreeSet<Integer> expected = new TreeSet<Integer>();
+		for( int i = 0; i < 1000; i++ )
+		{
+			expected.add( i * 2 );
+			expected.add( i * 3 );
+		}
+		assertEquals( "Failed to count merged elements.", expected.size(), tree.size() );
+		Iterator<Integer> it = tree.inorderIterator();
+		for( Integer element : expected )
+		{
+			assertEquals( "Merged tree is out of order ", element, it.next() );
+		}
+		assertFalse( it.hasNext() );
+		assertEquals( "Failed to call combiner.", 1998, (int) combined[0] );
+		assertEquals( "Failed to rebuild balanced.", 11, tree.getHeight() );
+		assertEquals( "Failed to leave other tree.", 1000, other.size() );
+
+		tree.merge( new BSTree<Integer>(), null );
+		assertEquals( expected.size(), tree.size() );
+		try
+		{
+			tree.merge( other, ( mine, theirs ) -> mine + 1 );
+			fail( "Merge accepted a combiner that breaks the order." );
+		} catch( IllegalArgumentException e )
+		{
+			assertEquals( "Failed to leave tree unchanged.", expected.size(), tree.size() );
+			assertEquals( 0, (int) tree.select( 0 ) );
+		}
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#merge(utilities.BSTreeADT, java.util.function.BinaryOperator)}
+	 * to reject another tree that is out of order before combining any element.
+	 */
+	@Test
+	public void testMerge_UnorderedOther()
+	{
+		BSTree<Box> mine = new BSTree<Box>();
+		BSTree<Box> other = new BSTree<Box>();
+		Box changed = new Box( 2 );
+		for( int i = 1; i <= 3; i++ )
+		{
+			mine.add( new Box( i ) );
+			other.add( i == 2 ? changed : new Box( i ) );
+		}
+		// The other tree now reads 1, 10, 3
+		changed.value = 10;
+		final int[] calls = new int[1];
+		try
+		{
+			mine.merge( other, ( a, b ) -> {
+				calls[0]++;
+				return a;
+			} );
+			fail( "Merge accepted a tree that is out of order." );
+		} catch( IllegalArgumentException e )
+		{
+			assertEquals( "Failed to check the order before combining.", 0, calls[0] );
+			assertEquals( 3, mine.size() );
+		}
+	}
+
+	/**
+	 * Test method for merging trees of Words, whose occurrences are combined
+	 * with {@link application.Word#merge(application.Word)}.
+	 */
+	@Test
+	public void testMerge_Words()
+	{
+		BSTree<Word> first = new BSTree<Word>();
+		BSTree<Word> second = new BSTree<Word>();
+		first.findOrAdd( new Word( "tree" ) ).getElement().addOccurrence( "a.txt", 1 );
+		first.findOrAdd( new Word( "leaf" ) ).getElement().addOccurrence( "a.txt", 2 );
+		second.findOrAdd( new Word( "tree" ) ).getElement().addOccurrence( "b.txt", 3 );
+		second.findOrAdd( new Word( "tree" ) ).getElement().addOccurrence( "a.txt", 4 );
+		second.findOrAdd( new Word( "root" ) ).getElement().addOccurrence( "b.txt", 5 );
+
+		first.merge( second, Word::merge );
+		assertEquals( 3, first.size() );
+		Word word = first.search( new Word( "tree" ) ).getElement();
+		assertEquals( "Failed to sum frequencies.", 3, word.getFrequency() );
+		assertEquals( Arrays.asList( 1, 4 ), word.getOccurrences().get( "a.txt" ) );
+		assertEquals( Arrays.asList( 3 ), word.getOccurrences().get( "b.txt" ) );
+		assertEquals( "Failed to keep other word.", 1, second.search( new Word( "tree" ) ).getElement().getOccurrences().get( "a.txt" ).size() );
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#peekMin()} and
+	 * {@link implementations.BSTree#peekMax()}.
+	 */
+	@Test
+	public void testPeekMinMax()
+	{
+		assertNull( tree.peekMin() );
+		assertNull( tree.peekMax() );
+		tree.add( 50 );
+		assertEquals( 50, (int) tree.peekMin() );
+		assertEquals( 50, (int) tree.peekMax() );
+		tree.add( 30 );
+		tree.add( 70 );
+		tree.add( 40 );
+		tree.add( 60 );
+		assertEquals( 30, (int) tree.peekMin() );
+		assertEquals( 70, (int) tree.peekMax() );
+		assertEquals( 5, tree.size() );
+
+		// Successor from the right subtree, then from the parent
+		tree.removeMin();
+		assertEquals( 40, (int) tree.peekMin() );
+		tree.removeMin();
+		assertEquals( 50, (int) tree.peekMin() );
+		tree.removeMax();
+		assertEquals( 60, (int) tree.peekMax() );
+		tree.removeMax();
+		assertEquals( 50, (int) tree.peekMax() );
+		tree.removeMax();
+		assertNull( tree.peekMin() );
+
+		tree.add( 1 );
+		tree.clear();
+		assertNull( tree.peekMax() );
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#peekMin()} and
+	 * {@link implementations.BSTree#peekMax()} after the operations that
+	 * replace the nodes of a tree: fromSorted, merge, deserialization and
+	 * drainInOrder.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Test
+	@SuppressWarnings( "unchecked" )
+	public void testPeekMinMax_Rebuilt() throws Exception
+	{
+		BSTree<Integer> sorted = BSTree.fromSorted( new Integer[] { 10, 20, 30, 40 } );
+		assertEquals( 10, (int) sorted.peekMin() );
+		assertEquals( 40, (int) sorted.peekMax() );
+
+		BSTree<Integer> other = BSTree.fromSorted( new Integer[] { 5, 25, 45 } );
+		sorted.merge( other, null );
+		assertEquals( 5, (int) sorted.peekMin() );
+		assertEquals( 45, (int) sorted.peekMax() );
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try( ObjectOutputStream out = new ObjectOutputStream( bytes ) )
+		{
+			out.writeObject( sorted );
+		}
+		BSTree<Integer> copy;
+		try( ObjectInputStream in = new ObjectInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ) )
+		{
+			copy = (BSTree<Integer>) in.readObject();
+		}
+		assertEquals( "Failed to find minimum after reading.", 5, (int) copy.peekMin() );
+		assertEquals( "Failed to find maximum after reading.", 45, (int) copy.peekMax() );
+		copy.add( 1 );
+		copy.removeMax();
+		assertEquals( 1, (int) copy.peekMin() );
+		assertEquals( 40, (int) copy.peekMax() );
+
+		assertEquals( 7, copy.drainInOrder( element -> {
+		} ) );
+		assertNull( copy.peekMin() );
+		assertNull( copy.peekMax() );
+		copy.add( 8 );
+		assertEquals( 8, (int) copy.peekMin() );
+		assertEquals( 8, (int) copy.peekMax() );
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#peekMin()} and
+	 * {@link implementations.BSTree#peekMax()} on every subclass, against a
+	 * TreeSet under random adds and removals.
+	 */
+	@Test
+	public void testPeekMinMax_Subclasses()
+	{
+		List<BSTree<Integer>> trees = Arrays.asList( new BSTree<Integer>(), new AVLTree<Integer>(),
+				new SplayTree<Integer>(), new PersistentBSTree<Integer>() );
+		for( BSTree<Integer> subject : trees )
+		{
+			TreeSet<Integer> expected = new TreeSet<Integer>();
+			Random random = new Random( 7 );
+			for( int i = 0; i < 5000; i++ )
+			{
+				int operation = random.nextInt( 10 );
+				if( operation < 6 )
+				{
+					int value = random.nextInt( 2000 );
+					assertEquals( expected.add( value ), subject.add( value ) );
+				} else if( operation < 8 && !expected.isEmpty() )
+				{
+					assertEquals( expected.pollFirst(), subject.removeMin().getElement() );
+				} else if( !expected.isEmpty() )
+				{
+					assertEquals( expected.pollLast(), subject.removeMax().getElement() );
+				}
+				if( i % 3 == 0 )
+				{
+					subject.contains( random.nextInt( 2000 ) );
+				}
+				String name = subject.getClass().getSimpleName();
+				assertEquals( name, expected.isEmpty() ? null : expected.first(), subject.peekMin() );
+				assertEquals( name, expected.isEmpty() ? null : expected.last(), subject.peekMax() );
+			}
+		}
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#drainInOrder(java.util.function.Consumer)}.
+	 */
+	@Test
+	public void testDrainInOrder()
+	{
+		for( int i = 0; i < 1000; i++ )
+		{
+			tree.add( ( i * 7919 ) % 1000 );
+		}
+		List<Integer> drained = new ArrayList<Integer>();
+		assertEquals( 1000, tree.drainInOrder( drained::add ) );
+		assertTrue( tree.isEmpty() );
+		assertNull( tree.peekMin() );
+		for( int i = 0; i < 1000; i++ )
+		{
+			assertEquals( i, (int) drained.get( i ) );
+		}
+
+		// The tree is empty while the action runs, so it can be refilled
+		tree.add( 2 );
+		tree.add( 1 );
+		final List<Integer> again = new ArrayList<Integer>();
+		tree.drainInOrder( element -> {
+			again.add( element );
+			if( element < 2 )
+			{
+				tree.add( element + 10 );
+			}
+		} );
+		assertEquals( Arrays.asList( 1, 2 ), again );
+		assertEquals( 1, tree.size() );
+		assertEquals( 11, (int) tree.peekMin() );
+		assertEquals( 0, new BSTree<Integer>().drainInOrder( element -> fail() ) );
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#forEachInOrder(utilities.Visitor)},
+	 * {@link implementations.BSTree#forEachPreOrder(utilities.Visitor)} and
+	 * {@link implementations.BSTree#forEachPostOrder(utilities.Visitor)} to visit
+	 * the elements in the order of the matching iterators.
+	 */
+	@Test
+	public void testForEach()
+	{
+		Random random = new Random( 3 );
+		for( int i = 0; i < 500; i++ )
+		{
+			tree.add( random.nextInt( 1000 ) );
+		}
+		List<Integer> visited = new ArrayList<Integer>();
+		assertTrue( tree.forEachInOrder( element -> visited.add( element ) ) );
+		assertEquals( toList( tree.inorderIterator() ), visited );
+		visited.clear();
+		assertTrue( tree.forEachPreOrder( element -> visited.add( element ) ) );
+		assertEquals( toList( tree.preorderIterator() ), visited );
+		visited.clear();
+		assertTrue( tree.forEachPostOrder( element -> visited.add( element ) ) );
+		assertEquals( toList( tree.postorderIterator() ), visited );
+
+		assertTrue( new BSTree<Integer>().forEachInOrder( element -> false ) );
+	}
+
+	/**
+	 * Test method for stopping a forEach traversal early, nesting traversals and
+	 * modifying the tree from a visitor.
+	 */
+	@Test
+	public void testForEach_EarlyExitAndNesting()
+	{
+		for( int i = 0; i < 100; i++ )
+		{
+			tree.add( i );
+		}
+		final int[] count = new int[1];
+		assertFalse( tree.forEachInOrder( element -> ++count[0] < 10 ) );
+		assertEquals( "Failed to stop after the visitor returned false.", 10, count[0] );
+		count[0] = 0;
+		assertFalse( tree.forEachPostOrder( element -> ++count[0] < 5 ) );
+		assertEquals( 5, count[0] );
+
+		// A traversal inside a visitor gets its own stack
+		count[0] = 0;
+		tree.forEachPreOrder( outer -> tree.forEachInOrder( inner -> {
+			count[0]++;
+			return true;
+		} ) && outer < 3 );
+		assertEquals( 400, count[0] );
+
+		try
+		{
+			tree.forEachInOrder( element -> tree.add( element + 1000 ) );
+			fail( "Visitor modified the tree without an exception." );
+		} catch( ConcurrentModificationException e )
+		{
+			assertEquals( 101, tree.size() );
+		}
+		try
+		{
+			tree.forEachInOrder( null );
+			fail( "Accepted a null visitor." );
+		} catch( NullPointerException e )
+		{
+		}
+	}
+
+	private static List<Integer> toList( Iterator<Integer> it )
+	{
+		List<Integer> elements = new ArrayList<Integer>();
+		while( it.hasNext() )
+		{
+			elements.add( it.next() );
+		}
+		return elements;
+	}
+
+	/**
+	 * Comparable holder whose value can change while it is in a tree.
+	 */
+	private static final class Box implements Comparable<Box>
+	{
+		private int value;
+
+		Box( int value )
+		{
+			this.value = value;
+		}
+
+		@Override
+		public int compareTo( Box o )
+		{
+			return Integer.compare( value, o.value );
+		}
+	}
+
+	/**
+	 * Probe for an int key that counts the elements it creates.
+	 */
+	private static final class CountingProbe implements Probe<Integer>
+	{
+		private int key;
+		private int created;
+		private boolean returnNull;
+		private boolean fail;
+		private int offset;
+
+		@Override
+		public int compareTo( Integer element )
+		{
+			return Integer.compare( key, element );
+		}
+
+		@Override
+		public Integer create()
+		{
+			created++;
+			if( fail )
+			{
+				throw new IllegalStateException( "create failed" );
+			}
+			return returnNull ? null : new Integer( key + offset );
+		}
+	}
 }
@@ -0,0 +1,240 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ConcurrentModificationException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.Iterator;
+
+import implementations.BSTree;
+import implementations.BTree;
+
+/**
+ * Class Description: Tests for the BTree implementation of the BSTreeADT,
+ * mostly with the smallest fan-out so that every split and unlink path runs.
+ */
+public class BTreeTest
+{
+	// Attributes
+	private BTree<Integer> tree;
+
+	/**
+	 * Initializes a new BTree of order 3 before each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception
+	{
+		tree = new BTree<Integer>( 3 );
+	}
+
+	/**
+	 * Cleans up instances used after each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception
+	{
+		tree = null;
+	}
+
+	/**
+	 * Asserts that the in-order iterator returns exactly the elements of the model.
+	 */
+	private static void assertSameElements( TreeSet<Integer> model, BTree<Integer> tree )
+	{
+		assertEquals( "Failed to return correct size.", model.size(), tree.size() );
+		Iterator<Integer> it = tree.inorderIterator();
+		for( Integer expected : model )
+		{
+			assertEquals( "In-order iterator is out of order ", expected, it.next() );
+		}
+		assertFalse( it.hasNext() );
+	}
+
+	/**
+	 * Test method for the basic queries and the levels reported by getHeight.
+	 */
+	@Test
+	public void testQueries()
+	{
+		assertTrue( tree.isEmpty() );
+		assertEquals( 0, tree.getHeight() );
+		try
+		{
+			tree.getRoot();
+			fail( "Empty tree returned a root." );
+		} catch( NullPointerException e )
+		{
+			// expected
+		}
+
+		for( int i = 1; i <= 3; i++ )
+		{
+			tree.add( i * 10 );
+		}
+		assertEquals( "Failed to keep a single leaf.", 1, tree.getHeight() );
+		tree.add( 40 );
+		assertEquals( "Failed to split the leaf.", 2, tree.getHeight() );
+		assertFalse( "Failed to reject duplicate.", tree.add( 20 ) );
+		assertTrue( tree.contains( 40 ) );
+		assertFalse( tree.contains( 25 ) );
+		assertNull( tree.search( 25 ) );
+		assertEquals( "Failed to find element.", 30, (int) tree.search( 30 ).getElement() );
+		assertEquals( "Failed to return root.", 30, (int) tree.getRoot().getElement() );
+		assertEquals( "Failed to return existing element.", 10, (int) tree.findOrAdd( 10 ).getElement() );
+		assertEquals( 4, tree.size() );
+		assertSame( "Failed to reuse the lookup node.", tree.search( 20 ), tree.findOrAdd( 40 ) );
+		assertNotSame( "Removed node must stay the caller's.", tree.search( 20 ), tree.removeMin() );
+	}
+
+	/**
+	 * Test method for random adds, removeMin and removeMax against a TreeSet.
+	 */
+	@Test
+	public void testAgainstModel()
+	{
+		TreeSet<Integer> model = new TreeSet<Integer>();
+		Random random = new Random( 7 );
+		for( int round = 0; round < 20000; round++ )
+		{
+			int operation = random.nextInt( 10 );
+			if( operation == 0 )
+			{
+				Integer expected = model.pollFirst();
+				assertEquals( "Failed to remove minimum.", expected,
+						expected == null ? null : tree.removeMin().getElement() );
+			} else if( operation == 1 )
+			{
+				Integer expected = model.pollLast();
+				assertEquals( "Failed to remove maximum.", expected,
+						expected == null ? null : tree.removeMax().getElement() );
+			} else
+			{
+				int key = random.nextInt( 5000 );
+				assertEquals( "Failed to report insertion.", model.add( key ), tree.add( key ) );
+			}
+		}
+		assertSameElements( model, tree );
+		for( int key = 0; key < 5000; key++ )
+		{
+			assertEquals( "Failed to find " + key, model.contains( key ), tree.contains( key ) );
+		}
+
+		while( !model.isEmpty() )
+		{
+			assertEquals( model.pollLast(), tree.removeMax().getElement() );
+		}
+		assertTrue( tree.isEmpty() );
+		assertNull( tree.removeMin() );
+		assertTrue( "Failed to add after emptying.", tree.add( 1 ) );
+	}
+
+	/**
+	 * Test method for the pre-order and post-order iterators, which follow the
+	 * balanced binary tree over the elements.
+	 */
+	@Test
+	public void testBalancedOrders()
+	{
+		for( int i = 1; i <= 7; i++ )
+		{
+			tree.add( i );
+		}
+		Integer[] preorder = { 4, 2, 1, 3, 6, 5, 7 };
+		Iterator<Integer> it = tree.preorderIterator();
+		for( Integer expected : preorder )
+		{
+			assertEquals( "Pre-order iterator is out of order ", expected, it.next() );
+		}
+		assertFalse( it.hasNext() );
+
+		Integer[] postorder = { 1, 3, 2, 5, 7, 6, 4 };
+		it = tree.postorderIterator();
+		for( Integer expected : postorder )
+		{
+			assertEquals( "Post-order iterator is out of order ", expected, it.next() );
+		}
+		assertFalse( it.hasNext() );
+
+		// Copying in pre-order builds a balanced BSTree
+		BSTree<Integer> copy = new BSTree<Integer>();
+		it = tree.preorderIterator();
+		while( it.hasNext() )
+		{
+			copy.add( it.next() );
+		}
+		assertEquals( 3, copy.getHeight() );
+
+		it = tree.inorderIterator();
+		tree.removeMin();
+		try
+		{
+			it.next();
+			fail( "Iterator ignored a modification." );
+		} catch( ConcurrentModificationException e )
+		{
+			// expected
+		}
+	}
+
+	/**
+	 * Test method for serializing a BTree, which is bulk loaded on reading.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testSerialization() throws Exception
+	{
+		TreeSet<Integer> model = new TreeSet<Integer>();
+		for( int count : new int[] { 0, 1, 3, 4, 10, 1000 } )
+		{
+			tree.clear();
+			model.clear();
+			for( int i = 0; i < count; i++ )
+			{
+				tree.add( i * 2 );
+				model.add( i * 2 );
+			}
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try( ObjectOutputStream out = new ObjectOutputStream( bytes ) )
+			{
+				out.writeObject( tree );
+			}
+
+			BTree<Integer> copy;
+			try( ObjectInputStream in = new ObjectInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ) )
+			{
+				copy = (BTree<Integer>) in.readObject();
+			}
+			assertEquals( 3, copy.getOrder() );
+			assertSameElements( model, copy );
+			for( int i = -1; i < count * 2; i++ )
+			{
+				assertEquals( "Failed to find " + i, model.contains( i ), copy.contains( i ) );
+			}
+			// The loaded tree keeps working: odd keys land between the loaded ones
+			for( int i = 0; i < count; i++ )
+			{
+				copy.add( i * 2 + 1 );
+				model.add( i * 2 + 1 );
+			}
+			copy.removeMin();
+			model.pollFirst();
+			assertSameElements( model, copy );
+		}
+	}
+}
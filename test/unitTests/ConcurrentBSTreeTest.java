@@ -0,0 +1,318 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.Iterator;
+
+import implementations.BSTreeNode;
+import implementations.ConcurrentBSTree;
+
+/**
+ * Class Description: Tests for the thread-safe ConcurrentBSTree implementation
+ * of the BSTreeADT, both single-threaded and with several threads at once.
+ */
+public class ConcurrentBSTreeTest
+{
+	// Number of threads and keys used by the multi-threaded tests
+	private static final int THREADS = 4;
+	private static final int KEYS = 200000;
+
+	// Attributes
+	private ConcurrentBSTree<Integer> tree;
+
+	/**
+	 * Initializes a new ConcurrentBSTree instance before each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception
+	{
+		tree = new ConcurrentBSTree<Integer>();
+	}
+
+	/**
+	 * Cleans up instances used after each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception
+	{
+		tree = null;
+	}
+
+	/**
+	 * Returns the keys 0 .. KEYS - 1 in a shuffled order.
+	 */
+	private static int[] shuffledKeys()
+	{
+		int[] keys = new int[KEYS];
+		for( int i = 0; i < KEYS; i++ )
+		{
+			keys[i] = i;
+		}
+		Random random = new Random( 42 );
+		for( int i = KEYS - 1; i > 0; i-- )
+		{
+			int j = random.nextInt( i + 1 );
+			int swap = keys[i];
+			keys[i] = keys[j];
+			keys[j] = swap;
+		}
+		return keys;
+	}
+
+	/**
+	 * Starts one thread per task and waits for all of them.
+	 */
+	private static void runAll( List<Runnable> tasks ) throws InterruptedException
+	{
+		List<Thread> threads = new ArrayList<Thread>();
+		for( Runnable task : tasks )
+		{
+			Thread thread = new Thread( task );
+			threads.add( thread );
+			thread.start();
+		}
+		for( Thread thread : threads )
+		{
+			thread.join();
+		}
+	}
+
+	/**
+	 * Test method for the single-threaded behaviour shared with BSTree.
+	 */
+	@Test
+	public void testSingleThreaded()
+	{
+		assertTrue( tree.isEmpty() );
+		assertNull( tree.removeMin() );
+		tree.add( 44 );
+		tree.add( 22 );
+		tree.add( 66 );
+		tree.add( 11 );
+		tree.add( 33 );
+		assertFalse( "Failed to reject duplicate.", tree.add( 22 ) );
+		assertEquals( "Failed to return correct size.", 5, tree.size() );
+		assertEquals( "Failed to return correct height.", 3, tree.getHeight() );
+		assertEquals( "Failed to return root.", 44, (int) tree.getRoot().getElement() );
+		assertTrue( tree.contains( 33 ) );
+		assertFalse( tree.contains( 55 ) );
+
+		Integer[] postorder = { 11, 33, 22, 66, 44 };
+		Iterator<Integer> it = tree.postorderIterator();
+		for( Integer expected : postorder )
+		{
+			assertEquals( "Postorder iterator is out of order ", expected, it.next() );
+		}
+
+		BSTreeNode<Integer> min = tree.removeMin();
+		assertEquals( "Failed to return minimum value.", 11, (int) min.getElement() );
+		assertNull( "Removed node still linked.", min.getRight() );
+		assertEquals( "Failed to return maximum value.", 66, (int) tree.removeMax().getElement() );
+		assertEquals( "Failed to update size.", 3, tree.size() );
+		assertNull( "Failed to unlink minimum.", tree.getRoot().getLeft().getLeft() );
+	}
+
+	/**
+	 * Test method for {@link implementations.ConcurrentBSTree#add(java.lang.Comparable)}
+	 * from several threads adding overlapping keys.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Test
+	public void testConcurrentAdd() throws Exception
+	{
+		final int[] keys = shuffledKeys();
+		List<Runnable> tasks = new ArrayList<Runnable>();
+		for( int t = 0; t < THREADS; t++ )
+		{
+			final int offset = t * KEYS / THREADS;
+			tasks.add( new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					// Every thread adds every key, starting at a different place
+					for( int i = 0; i < KEYS; i++ )
+					{
+						tree.add( keys[( offset + i ) % KEYS] );
+					}
+				}
+			} );
+		}
+		runAll( tasks );
+
+		assertEquals( "Failed to count each key once.", KEYS, tree.size() );
+		Iterator<Integer> it = tree.inorderIterator();
+		for( int i = 0; i < KEYS; i++ )
+		{
+			assertEquals( "In-order iterator is out of order ", i, (int) it.next() );
+		}
+		assertFalse( it.hasNext() );
+	}
+
+	/**
+	 * Test method for {@link implementations.ConcurrentBSTree#removeMin()} and
+	 * {@link implementations.ConcurrentBSTree#removeMax()} racing with adds: every
+	 * key ends up either removed exactly once or still in the tree.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Test
+	public void testConcurrentAddAndRemove() throws Exception
+	{
+		final int[] keys = shuffledKeys();
+		final BitSet removed = new BitSet( KEYS );
+		final int[] removedCount = new int[1];
+		List<Runnable> tasks = new ArrayList<Runnable>();
+		for( int t = 0; t < THREADS; t++ )
+		{
+			final int from = t * KEYS / THREADS, to = ( t + 1 ) * KEYS / THREADS;
+			tasks.add( new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					for( int i = from; i < to; i++ )
+					{
+						tree.add( keys[i] );
+					}
+				}
+			} );
+		}
+		tasks.add( new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				for( int i = 0; i < KEYS / 4; i++ )
+				{
+					BSTreeNode<Integer> node = ( i % 2 == 0 ) ? tree.removeMin() : tree.removeMax();
+					if( node != null )
+					{
+						removed.set( node.getElement() );
+						removedCount[0]++;
+					}
+				}
+			}
+		} );
+		runAll( tasks );
+
+		assertEquals( "Failed to update size.", KEYS - removedCount[0], tree.size() );
+		for( int key = 0; key < KEYS; key++ )
+		{
+			assertTrue( "Key lost: " + key, removed.get( key ) != tree.contains( key ) );
+		}
+	}
+
+	/**
+	 * Test method for {@link implementations.ConcurrentBSTree#inorderIterator()}
+	 * and {@link implementations.ConcurrentBSTree#preorderIterator()} walking the
+	 * tree while other threads add and remove: every key present throughout is
+	 * returned, and the in-order walk stays strictly ascending.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Test
+	public void testIteratorsWhileAdding() throws Exception
+	{
+		final int[] keys = shuffledKeys();
+		// Even keys are present throughout, odd keys are added while iterating
+		for( int key : keys )
+		{
+			if( key % 2 == 0 )
+			{
+				tree.add( key );
+			}
+		}
+		tree.add( -1 );
+		tree.add( KEYS );
+		final List<String> failures = new ArrayList<String>();
+		List<Runnable> tasks = new ArrayList<Runnable>();
+		for( int t = 0; t < THREADS; t++ )
+		{
+			final int from = t * KEYS / THREADS, to = ( t + 1 ) * KEYS / THREADS;
+			tasks.add( new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					for( int i = from; i < to; i++ )
+					{
+						if( keys[i] % 2 != 0 )
+						{
+							tree.add( keys[i] );
+						}
+					}
+				}
+			} );
+		}
+		tasks.add( new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				// Only the two sentinels are removed, the even keys stay
+				tree.removeMin();
+				tree.removeMax();
+			}
+		} );
+		tasks.add( new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				BitSet seen = new BitSet( KEYS );
+				int previous = Integer.MIN_VALUE;
+				Iterator<Integer> it = tree.inorderIterator();
+				while( it.hasNext() )
+				{
+					int key = it.next();
+					if( key <= previous )
+					{
+						failures.add( "In-order out of order at " + key );
+					}
+					previous = key;
+					if( key >= 0 && key < KEYS )
+					{
+						seen.set( key );
+					}
+				}
+				BitSet preorder = new BitSet( KEYS );
+				it = tree.preorderIterator();
+				while( it.hasNext() )
+				{
+					int key = it.next();
+					if( key >= 0 && key < KEYS )
+					{
+						preorder.set( key );
+					}
+				}
+				for( int key = 0; key < KEYS; key += 2 )
+				{
+					if( !seen.get( key ) || !preorder.get( key ) )
+					{
+						failures.add( "Missed " + key );
+						return;
+					}
+				}
+			}
+		} );
+		runAll( tasks );
+
+		assertEquals( "[]", failures.toString() );
+		assertEquals( KEYS, tree.size() );
+	}
+}
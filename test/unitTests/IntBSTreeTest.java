@@ -0,0 +1,137 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import implementations.IntBSTree;
+
+/**
+ * Class Description: Tests for the IntBSTree, the int-keyed balanced tree.
+ */
+public class IntBSTreeTest
+{
+	// Attributes
+	private IntBSTree tree;
+
+	/**
+	 * Initializes a new IntBSTree instance before each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception
+	{
+		tree = new IntBSTree( 2 );
+	}
+
+	/**
+	 * Cleans up instances used after each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception
+	{
+		tree = null;
+	}
+
+	/**
+	 * Test method for {@link implementations.IntBSTree#add(int)} to keep the tree
+	 * balanced when keys arrive in ascending order.
+	 */
+	@Test
+	public void testAdd_SortedInputStaysBalanced()
+	{
+		for( int i = 1; i <= 1023; i++ )
+		{
+			assertTrue( tree.add( i ) );
+		}
+		assertFalse( "Failed to reject duplicate.", tree.add( 512 ) );
+		assertEquals( "Failed to update size correctly.", 1023, tree.size() );
+		assertEquals( "Failed to keep tree balanced.", 10, tree.getHeight() );
+		assertTrue( tree.contains( 1 ) );
+		assertTrue( tree.contains( 1023 ) );
+		assertFalse( tree.contains( 0 ) );
+		assertFalse( tree.contains( Integer.MIN_VALUE ) );
+	}
+
+	/**
+	 * Test method for random adds, removeMin and removeMax against a TreeSet.
+	 */
+	@Test
+	public void testAgainstModel()
+	{
+		TreeSet<Integer> model = new TreeSet<Integer>();
+		Random random = new Random( 3 );
+		for( int round = 0; round < 50000; round++ )
+		{
+			int operation = random.nextInt( 8 );
+			if( operation == 0 && !model.isEmpty() )
+			{
+				assertEquals( "Failed to remove minimum.", (int) model.pollFirst(), tree.removeMin() );
+			} else if( operation == 1 && !model.isEmpty() )
+			{
+				assertEquals( "Failed to remove maximum.", (int) model.pollLast(), tree.removeMax() );
+			} else
+			{
+				int key = random.nextInt( 20000 ) - 10000;
+				assertEquals( "Failed to report insertion.", model.add( key ), tree.add( key ) );
+			}
+		}
+		assertEquals( "Failed to update size.", model.size(), tree.size() );
+		assertTrue( "Failed to keep tree balanced.", tree.getHeight() <= 1.45 * ( Math.log( model.size() + 2 ) / Math.log( 2 ) ) );
+
+		PrimitiveIterator.OfInt it = tree.inorderIterator();
+		for( int expected : model )
+		{
+			assertEquals( "In-order iterator is out of order ", expected, it.nextInt() );
+		}
+		assertFalse( it.hasNext() );
+	}
+
+	/**
+	 * Test method for the empty tree and the fail-fast iterator.
+	 */
+	@Test
+	public void testEmptyAndIterator()
+	{
+		assertTrue( tree.isEmpty() );
+		assertEquals( 0, tree.getHeight() );
+		assertFalse( tree.inorderIterator().hasNext() );
+		try
+		{
+			tree.removeMin();
+			fail( "Empty tree returned a minimum." );
+		} catch( NoSuchElementException e )
+		{
+			// expected
+		}
+
+		tree.add( 2 );
+		tree.add( 1 );
+		PrimitiveIterator.OfInt it = tree.inorderIterator();
+		assertEquals( 1, it.nextInt() );
+		tree.removeMax();
+		try
+		{
+			it.nextInt();
+			fail( "Iterator ignored a modification." );
+		} catch( ConcurrentModificationException e )
+		{
+			// expected
+		}
+
+		tree.clear();
+		assertEquals( 0, tree.size() );
+		assertTrue( tree.add( 7 ) );
+	}
+}
@@ -0,0 +1,83 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.util.PrimitiveIterator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import implementations.LongBSTree;
+
+/**
+ * Class Description: Tests for the LongBSTree, the long-keyed balanced tree.
+ */
+public class LongBSTreeTest
+{
+	// Keys beyond the int range, in descending order
+	private static final long BASE = 1L << 40;
+
+	// Attributes
+	private LongBSTree tree;
+
+	/**
+	 * Initializes a new LongBSTree holding 1000 large keys before each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception
+	{
+		tree = new LongBSTree();
+		for( long i = 1000; i >= 1; i-- )
+		{
+			tree.add( BASE * i );
+		}
+	}
+
+	/**
+	 * Cleans up instances used after each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception
+	{
+		tree = null;
+	}
+
+	/**
+	 * Test method for {@link implementations.LongBSTree#add(long)} and
+	 * {@link implementations.LongBSTree#contains(long)} with keys that do not fit in an int.
+	 */
+	@Test
+	public void testAddAndContains()
+	{
+		assertEquals( 1000, tree.size() );
+		assertEquals( "Failed to keep tree balanced.", 10, tree.getHeight() );
+		assertFalse( "Failed to reject duplicate.", tree.add( BASE * 500 ) );
+		assertTrue( tree.contains( BASE * 500 ) );
+		// Same low 32 bits as a stored key
+		assertFalse( tree.contains( BASE * 500 + ( 1L << 32 ) ) );
+	}
+
+	/**
+	 * Test method for the in-order iterator, removeMin and removeMax.
+	 */
+	@Test
+	public void testIteratorAndRemove()
+	{
+		PrimitiveIterator.OfLong it = tree.inorderIterator();
+		for( long i = 1; i <= 1000; i++ )
+		{
+			assertEquals( "In-order iterator is out of order ", BASE * i, it.nextLong() );
+		}
+		assertFalse( it.hasNext() );
+
+		assertEquals( BASE, tree.removeMin() );
+		assertEquals( BASE * 1000, tree.removeMax() );
+		assertEquals( 998, tree.size() );
+		assertEquals( BASE * 2, tree.inorderIterator().nextLong() );
+	}
+}
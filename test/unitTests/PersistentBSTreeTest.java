@@ -0,0 +1,248 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.Iterator;
+
+import application.Word;
+import implementations.BSTree;
+import implementations.BSTreeNode;
+import implementations.PersistentBSTree;
+
+/**
+ * Class Description: Tests for the path-copying PersistentBSTree and its
+ * snapshots, including how many nodes two versions share.
+ */
+public class PersistentBSTreeTest
+{
+	// Attributes
+	private PersistentBSTree<Integer> tree;
+
+	/**
+	 * Initializes a new PersistentBSTree holding 0 .. 1022 before each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception
+	{
+		tree = new PersistentBSTree<Integer>();
+		for( int i = 0; i < 1023; i++ )
+		{
+			tree.add( i );
+		}
+	}
+
+	/**
+	 * Cleans up instances used after each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception
+	{
+		tree = null;
+	}
+
+	/**
+	 * Collects every node reachable from the root of a tree.
+	 */
+	private static Set<BSTreeNode<Integer>> nodesOf( PersistentBSTree<Integer> version )
+	{
+		Set<BSTreeNode<Integer>> nodes = Collections.newSetFromMap( new IdentityHashMap<BSTreeNode<Integer>, Boolean>() );
+		Deque<BSTreeNode<Integer>> stack = new ArrayDeque<BSTreeNode<Integer>>();
+		if( !version.isEmpty() )
+		{
+			stack.push( version.getRoot() );
+		}
+		while( !stack.isEmpty() )
+		{
+			BSTreeNode<Integer> node = stack.pop();
+			nodes.add( node );
+			if( node.getLeft() != null )
+			{
+				stack.push( node.getLeft() );
+			}
+			if( node.getRight() != null )
+			{
+				stack.push( node.getRight() );
+			}
+		}
+		return nodes;
+	}
+
+	/**
+	 * Test method for {@link implementations.PersistentBSTree#add(java.lang.Comparable)}
+	 * to keep the tree balanced on sorted input.
+	 */
+	@Test
+	public void testAdd_Balanced()
+	{
+		assertEquals( "Failed to update size correctly.", 1023, tree.size() );
+		assertEquals( "Failed to keep tree balanced.", 10, tree.getHeight() );
+		assertFalse( "Failed to reject duplicate.", tree.add( 5 ) );
+	}
+
+	/**
+	 * Test method for {@link implementations.PersistentBSTree#snapshot()} to keep
+	 * its contents while the live tree is updated.
+	 */
+	@Test
+	public void testSnapshot_Unchanged()
+	{
+		PersistentBSTree<Integer> snapshot = tree.snapshot();
+		Iterator<Integer> it = snapshot.inorderIterator();
+		assertEquals( 0, (int) it.next() );
+
+		tree.add( 5000 );
+		assertEquals( "Failed to remove minimum.", 0, (int) tree.removeMin().getElement() );
+		assertEquals( "Failed to remove maximum.", 5000, (int) tree.removeMax().getElement() );
+		assertEquals( "Failed to remove maximum.", 1022, (int) tree.removeMax().getElement() );
+
+		// The snapshot iterator keeps going over the old version
+		for( int i = 1; i < 1023; i++ )
+		{
+			assertEquals( "Snapshot changed.", i, (int) it.next() );
+		}
+		assertFalse( it.hasNext() );
+		assertEquals( "Snapshot size changed.", 1023, snapshot.size() );
+		assertTrue( snapshot.contains( 0 ) );
+		assertFalse( snapshot.contains( 5000 ) );
+		assertEquals( "Snapshot minimum changed.", 0, (int) snapshot.peekMin() );
+		assertEquals( "Snapshot maximum changed.", 1022, (int) snapshot.peekMax() );
+		assertEquals( "Failed to update minimum.", 1, (int) tree.peekMin() );
+		assertEquals( "Failed to update maximum.", 1021, (int) tree.peekMax() );
+		assertEquals( "Failed to update size.", 1021, tree.size() );
+		assertFalse( tree.contains( 0 ) );
+	}
+
+	/**
+	 * Test method for {@link implementations.PersistentBSTree#snapshot()} to reject
+	 * updates.
+	 */
+	@Test
+	public void testSnapshot_ReadOnly()
+	{
+		PersistentBSTree<Integer> snapshot = tree.snapshot();
+		assertTrue( snapshot.isSnapshot() );
+		try
+		{
+			snapshot.add( 5000 );
+			fail( "Failed to throw UnsupportedOperationException." );
+		}
+		catch( UnsupportedOperationException e )
+		{
+			assertTrue( true );
+		}
+	}
+
+	/**
+	 * Measures the memory shared between two versions: after one add and one
+	 * removeMin only the nodes on the two paths, plus a few rotated nodes, may
+	 * be new; every other node must be shared with the snapshot.
+	 */
+	@Test
+	public void testSnapshot_SharesNodes()
+	{
+		PersistentBSTree<Integer> snapshot = tree.snapshot();
+		tree.add( 5000 );
+		tree.removeMin();
+
+		Set<BSTreeNode<Integer>> before = nodesOf( snapshot );
+		Set<BSTreeNode<Integer>> after = nodesOf( tree );
+		int copied = 0;
+		for( BSTreeNode<Integer> node : after )
+		{
+			if( !before.contains( node ) )
+			{
+				copied++;
+			}
+		}
+		int height = tree.getHeight();
+		assertEquals( "Failed to keep every node of the new version.", 1023, after.size() );
+		assertTrue( "Copied " + copied + " nodes, more than two paths.", copied <= 2 * ( height + 2 ) );
+		assertTrue( "Shared too few nodes.", after.size() - copied >= 1023 - 2 * ( height + 2 ) );
+	}
+
+	/**
+	 * Test method for {@link implementations.PersistentBSTree#merge(utilities.BSTreeADT, java.util.function.BinaryOperator)}
+	 * to reject a snapshot before the combiner touches the elements it shares
+	 * with the live tree.
+	 */
+	@Test
+	public void testSnapshot_MergeReadOnly()
+	{
+		PersistentBSTree<Word> live = new PersistentBSTree<Word>();
+		live.findOrAdd( new Word( "tree" ) ).getElement().addOccurrence( "a.txt", 1 );
+		PersistentBSTree<Word> snapshot = live.snapshot();
+		BSTree<Word> other = new BSTree<Word>();
+		other.findOrAdd( new Word( "tree" ) ).getElement().addOccurrence( "b.txt", 7 );
+		try
+		{
+			snapshot.merge( other, Word::merge );
+			fail( "Failed to throw UnsupportedOperationException." );
+		}
+		catch( UnsupportedOperationException e )
+		{
+			assertTrue( true );
+		}
+		Word shared = live.search( new Word( "tree" ) ).getElement();
+		assertEquals( "Combiner modified a shared element.", 1, shared.getFrequency() );
+		assertEquals( Collections.singleton( "a.txt" ), shared.getFiles() );
+
+		live.merge( other, Word::merge );
+		assertEquals( "Failed to merge into the live tree.", 2, shared.getFrequency() );
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#forEachInOrder(utilities.Visitor)}
+	 * on one snapshot from several threads at once: every traversal must see
+	 * every element in order, each with a stack of its own.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Test
+	public void testSnapshot_ConcurrentForEach() throws Exception
+	{
+		PersistentBSTree<Integer> snapshot = tree.snapshot();
+		AtomicInteger failures = new AtomicInteger();
+		Thread[] readers = new Thread[4];
+		for( int t = 0; t < readers.length; t++ )
+		{
+			readers[t] = new Thread( () -> {
+				for( int round = 0; round < 200; round++ )
+				{
+					int[] expected = { 0 };
+					snapshot.forEachInOrder( element -> {
+						if( element != expected[0]++ )
+						{
+							failures.incrementAndGet();
+						}
+						return true;
+					} );
+					if( expected[0] != 1023 )
+					{
+						failures.incrementAndGet();
+					}
+				}
+			} );
+			readers[t].start();
+		}
+		for( Thread reader : readers )
+		{
+			reader.join();
+		}
+		assertEquals( "Traversals disturbed each other.", 0, failures.get() );
+	}
+}
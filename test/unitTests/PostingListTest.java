@@ -0,0 +1,154 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import application.PostingList;
+
+/**
+ * Class Description: Tests for the compressed line number lists of Word.
+ */
+public class PostingListTest
+{
+	// Attributes
+	private PostingList list;
+
+	/**
+	 * Initializes a new PostingList before each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception
+	{
+		list = new PostingList();
+	}
+
+	/**
+	 * Cleans up instances used after each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception
+	{
+		list = null;
+	}
+
+	/**
+	 * Test method for {@link application.PostingList#add(int)} and
+	 * {@link application.PostingList#get(int)} with ascending, repeated,
+	 * decreasing and extreme values across several skip blocks.
+	 */
+	@Test
+	public void testAddAndGet()
+	{
+		assertEquals( 0, list.size() );
+		assertTrue( list.asList().isEmpty() );
+
+		List<Integer> expected = new ArrayList<Integer>();
+		Random random = new Random( 7 );
+		int line = 1;
+		for( int i = 0; i < 1000; i++ )
+		{
+			if( i % 97 == 0 )
+			{
+				// A merge appends lines that go back to the start of the file
+				line = random.nextInt( 10 ) + 1;
+			} else
+			{
+				line += random.nextInt( i % 50 == 0 ? 100000 : 3 );
+			}
+			expected.add( line );
+			list.add( line );
+		}
+		int[] extremes = { Integer.MAX_VALUE, 0, Integer.MIN_VALUE, -1, Integer.MAX_VALUE };
+		for( int value : extremes )
+		{
+			expected.add( value );
+			list.add( value );
+		}
+
+		assertEquals( expected.size(), list.size() );
+		for( int i = 0; i < expected.size(); i++ )
+		{
+			assertEquals( (int) expected.get( i ), list.get( i ) );
+		}
+		assertEquals( expected, list.asList() );
+		assertEquals( expected.toString(), list.asList().toString() );
+
+		try
+		{
+			list.get( list.size() );
+			fail( "get accepted an index past the end." );
+		} catch( IndexOutOfBoundsException e )
+		{
+		}
+	}
+
+	/**
+	 * Test that ascending line numbers take about a byte each.
+	 */
+	@Test
+	public void testCompression()
+	{
+		for( int line = 1; line <= 10000; line++ )
+		{
+			list.add( line );
+			list.add( line );
+		}
+		assertEquals( 20000, list.size() );
+		assertEquals( 20000, list.byteSize() );
+	}
+
+	/**
+	 * Test method for {@link application.PostingList#asList()}, which keeps
+	 * the numbers added before it was created.
+	 */
+	@Test
+	public void testAsList()
+	{
+		for( int line = 1; line <= 200; line++ )
+		{
+			list.add( line );
+		}
+		List<Integer> view = list.asList();
+		for( int line = 201; line <= 1000; line++ )
+		{
+			list.add( line );
+		}
+		assertEquals( 200, view.size() );
+		assertEquals( 200, (int) view.get( 199 ) );
+		assertEquals( 1000, list.asList().size() );
+
+		Iterator<Integer> it = view.iterator();
+		for( int line = 1; line <= 200; line++ )
+		{
+			assertEquals( line, (int) it.next() );
+		}
+		assertFalse( it.hasNext() );
+		try
+		{
+			it.next();
+			fail( "Iterator returned an element past the end." );
+		} catch( NoSuchElementException e )
+		{
+		}
+		try
+		{
+			view.set( 0, 5 );
+			fail( "View of the list accepted a change." );
+		} catch( UnsupportedOperationException e )
+		{
+		}
+	}
+}
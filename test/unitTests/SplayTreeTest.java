@@ -0,0 +1,201 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.util.ConcurrentModificationException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import utilities.Iterator;
+
+import implementations.BSTreeNode;
+import implementations.SplayTree;
+
+/**
+ * Class Description: Tests for the self-adjusting SplayTree implementation of
+ * the BSTreeADT.
+ */
+public class SplayTreeTest
+{
+	// Attributes
+	private SplayTree<Integer> tree;
+
+	/**
+	 * Initializes a new SplayTree instance before each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception
+	{
+		tree = new SplayTree<Integer>();
+	}
+
+	/**
+	 * Cleans up instances used after each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception
+	{
+		tree = null;
+	}
+
+	/**
+	 * Recomputes the height of a subtree and checks the cached height and size
+	 * of every node in it.
+	 */
+	private static int checkedHeight( BSTreeNode<Integer> node )
+	{
+		if( node == null )
+		{
+			return 0;
+		}
+		int height = Math.max( checkedHeight( node.getLeft() ), checkedHeight( node.getRight() ) ) + 1;
+		int size = ( node.getLeft() == null ? 0 : node.getLeft().getSize() )
+				+ ( node.getRight() == null ? 0 : node.getRight().getSize() ) + 1;
+		assertEquals( "Stale cached height at " + node.getElement(), height, node.getHeight() );
+		assertEquals( "Stale cached size at " + node.getElement(), size, node.getSize() );
+		return height;
+	}
+
+	/**
+	 * Test method for {@link implementations.SplayTree#search(java.lang.Comparable)}
+	 * to move the element found, or the last node visited, to the root.
+	 */
+	@Test
+	public void testSearch_SplaysToRoot()
+	{
+		for( int i = 1; i <= 7; i++ )
+		{
+			tree.add( i );
+		}
+		assertEquals( "Failed to splay added element.", 7, (int) tree.getRoot().getElement() );
+
+		BSTreeNode<Integer> found = tree.search( 3 );
+		assertSame( "Failed to splay found element.", tree.getRoot(), found );
+		assertEquals( 3, (int) found.getElement() );
+
+		assertNull( tree.search( 100 ) );
+		assertEquals( "Failed to splay last node visited.", 7, (int) tree.getRoot().getElement() );
+		assertTrue( tree.contains( 5 ) );
+		assertEquals( 5, (int) tree.getRoot().getElement() );
+		checkedHeight( tree.getRoot() );
+	}
+
+	/**
+	 * Test method for splaying the deepest node of a chain built from sorted
+	 * input, which roughly halves the depth of the nodes on its path.
+	 */
+	@Test
+	public void testSearch_ShortensChain()
+	{
+		for( int i = 1; i <= 100000; i++ )
+		{
+			tree.add( i );
+		}
+		assertEquals( "Failed to build the chain.", 100000, tree.getHeight() );
+		tree.search( 1 );
+		assertEquals( "Failed to splay minimum.", 1, (int) tree.getRoot().getElement() );
+		assertTrue( "Failed to shorten the chain.", tree.getHeight() <= 50002 );
+		assertEquals( "Failed to keep sizes.", 100000, tree.getRoot().getSize() );
+	}
+
+	/**
+	 * Test method for random adds, searches, removeMin and removeMax against a
+	 * TreeSet, checking the cached heights and sizes along the way.
+	 */
+	@Test
+	public void testAgainstModel()
+	{
+		TreeSet<Integer> model = new TreeSet<Integer>();
+		Random random = new Random( 11 );
+		for( int round = 0; round < 5000; round++ )
+		{
+			int key = random.nextInt( 500 );
+			switch( random.nextInt( 6 ) )
+			{
+				case 0:
+					Integer min = model.pollFirst();
+					BSTreeNode<Integer> removedMin = tree.removeMin();
+					assertEquals( "Failed to remove minimum.", min, removedMin == null ? null : removedMin.getElement() );
+					break;
+				case 1:
+					Integer max = model.pollLast();
+					BSTreeNode<Integer> removedMax = tree.removeMax();
+					assertEquals( "Failed to remove maximum.", max, removedMax == null ? null : removedMax.getElement() );
+					break;
+				case 2:
+					assertEquals( "Failed to find " + key, model.contains( key ), tree.contains( key ) );
+					break;
+				default:
+					assertEquals( "Failed to report insertion.", model.add( key ), tree.add( key ) );
+			}
+			assertEquals( "Failed to update size.", model.size(), tree.size() );
+		}
+		checkedHeight( tree.getRoot() );
+
+		Iterator<Integer> it = tree.inorderIterator();
+		int index = 0;
+		for( Integer expected : model )
+		{
+			assertEquals( "In-order iterator is out of order ", expected, it.next() );
+			assertEquals( "Failed to select after splaying.", expected, tree.select( index++ ) );
+		}
+		assertFalse( it.hasNext() );
+	}
+
+	/**
+	 * Test method for {@link implementations.SplayTree#removeMin()} and
+	 * {@link implementations.SplayTree#removeMax()} to return detached nodes.
+	 */
+	@Test
+	public void testRemoveMinAndMax()
+	{
+		assertNull( tree.removeMin() );
+		int[] keys = { 50, 30, 70, 20, 40, 60, 80 };
+		for( int key : keys )
+		{
+			tree.add( key );
+		}
+		BSTreeNode<Integer> min = tree.removeMin();
+		assertEquals( 20, (int) min.getElement() );
+		assertNull( "Removed node still linked.", min.getRight() );
+		BSTreeNode<Integer> max = tree.removeMax();
+		assertEquals( 80, (int) max.getElement() );
+		assertNull( "Removed node still linked.", max.getLeft() );
+		assertEquals( 5, tree.size() );
+		checkedHeight( tree.getRoot() );
+	}
+
+	/**
+	 * Test method for {@link implementations.SplayTree#findOrAdd(java.lang.Comparable)}
+	 * and for iterators failing after a search restructured the tree.
+	 */
+	@Test
+	public void testFindOrAdd()
+	{
+		tree.add( 4 );
+		tree.add( 2 );
+		Integer six = new Integer( 6 );
+		assertSame( "Failed to add missing element.", six, tree.findOrAdd( six ).getElement() );
+		assertSame( "Failed to return resident element.", six, tree.findOrAdd( new Integer( 6 ) ).getElement() );
+		assertEquals( 3, tree.size() );
+
+		Iterator<Integer> it = tree.inorderIterator();
+		tree.search( 2 );
+		try
+		{
+			it.next();
+			fail( "Iterator ignored a splay." );
+		} catch( ConcurrentModificationException e )
+		{
+			// expected
+		}
+	}
+}
@@ -0,0 +1,227 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import application.Tokenizer;
+
+/**
+ * Class Description: Tests that Tokenizer finds the same words on the same lines
+ * as the per line lower case, replace and split that WordTracker used before.
+ */
+public class TokenizerTest
+{
+	// Characters the random texts are made of: ASCII, line breaks, whitespace that
+	// \s does not match, letters with special lower case, and a surrogate pair
+	private static final String ALPHABET = "abcXYZ  ,.'-09\t\n\n\r\u000B\f\u001C\u001F"
+			+ "\u00E9\u00C9\u00DF\u03A3\u03C3\u0130\u0131\u00A0\u2003\u2028\u0307\uD801\uDC00";
+
+	// Attributes
+	private Tokenizer tokenizer;
+
+	/**
+	 * Initializes a new Tokenizer before each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception
+	{
+		tokenizer = new Tokenizer();
+	}
+
+	/**
+	 * Cleans up instances used after each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception
+	{
+		tokenizer = null;
+	}
+
+	/**
+	 * Test method for {@link application.Tokenizer#tokenize(java.io.Reader, application.Tokenizer.Sink)}
+	 * on plain text and line breaks.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void testTokenize() throws IOException
+	{
+		assertEquals( "[]", words( "" ) );
+		assertEquals( "[1:the, 1:tree, 1:s, 1:root, 3:is, 4:a, 4:node]",
+				words( "The Tree's  ROOT,\r\n\r  is\n\tA node" ) );
+		assertEquals( "[1:café, 1:x]", words( "CafÉ 42x" ) );
+
+		List<String> found = new ArrayList<String>();
+		assertEquals( 3, tokenizer.tokenize( new StringReader( "a\n\nb\r" ), ( chars, offset, length, line ) -> found.add( line + ":" + new String( chars, offset, length ) ) ) );
+		assertEquals( "[1:a, 3:b]", found.toString() );
+	}
+
+	/**
+	 * Test that random texts, with long lines that cross and outgrow the buffer,
+	 * give the same words as the original split.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void testSameAsSplit() throws IOException
+	{
+		Random random = new Random( 11 );
+		for( int text = 0; text < 300; text++ )
+		{
+			int length = text % 10 == 0 ? 20000 + random.nextInt( 20000 ) : random.nextInt( 200 );
+			StringBuilder sb = new StringBuilder();
+			for( int i = 0; i < length; i++ )
+			{
+				// Mostly plain words, so that long lines occur
+				sb.append( random.nextInt( 4 ) == 0 ? ALPHABET.charAt( random.nextInt( ALPHABET.length() ) ) : (char) ( 'a' + random.nextInt( 26 ) ) );
+			}
+			String input = sb.toString();
+			assertEquals( input, split( input ), words( input ) );
+		}
+	}
+
+	/**
+	 * Test method for {@link application.Tokenizer#tokenize(java.nio.channels.FileChannel, int, application.Tokenizer.Sink)}:
+	 * random UTF-8 files, some with malformed bytes, give the same words as the
+	 * original split of their decoded text, also when mapped a few bytes at a time.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void testMappedSameAsSplit() throws IOException
+	{
+		File file = File.createTempFile( "tokenizer", ".txt" );
+		try
+		{
+			Random random = new Random( 13 );
+			for( int text = 0; text < 100; text++ )
+			{
+				int length = text % 10 == 0 ? 20000 + random.nextInt( 20000 ) : random.nextInt( 200 );
+				StringBuilder sb = new StringBuilder();
+				for( int i = 0; i < length; i++ )
+				{
+					sb.append( random.nextInt( 4 ) == 0 ? ALPHABET.charAt( random.nextInt( ALPHABET.length() ) ) : (char) ( 'a' + random.nextInt( 26 ) ) );
+				}
+				byte[] bytes = sb.toString().getBytes( StandardCharsets.UTF_8 );
+				if( text % 3 == 0 && bytes.length > 0 )
+				{
+					bytes[random.nextInt( bytes.length )] = (byte) 0xFF;
+				}
+				Files.write( file.toPath(), bytes );
+
+				String expected = split( new String( bytes, StandardCharsets.UTF_8 ) );
+				for( int window : new int[] { 1, 7, 4096, Tokenizer.MAX_WINDOW } )
+				{
+					assertEquals( "window " + window, expected, mappedWords( file, window ) );
+				}
+			}
+
+			// A \r\n split between two windows is one line break
+			Files.write( file.toPath(), "ab\r\ncd\r\n\r\nef".getBytes( StandardCharsets.UTF_8 ) );
+			assertEquals( "[1:ab, 2:cd, 4:ef]", mappedWords( file, 3 ) );
+			Files.write( file.toPath(), new byte[0] );
+			assertEquals( "[]", mappedWords( file, 3 ) );
+		} finally
+		{
+			file.delete();
+		}
+	}
+
+	/**
+	 * Test that under a Turkish default locale, where I lower cases to a dotless
+	 * i, the words are still the same as from the original split.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void testLocale() throws IOException
+	{
+		Locale original = Locale.getDefault();
+		try
+		{
+			Locale.setDefault( new Locale( "tr", "TR" ) );
+			String input = "ISTANBUL Izmir\nİstanbul";
+			assertEquals( split( input ), words( input ) );
+			assertEquals( "[1:ıstanbul, 1:ızmir, 2:istanbul]", words( input ) );
+
+			File file = File.createTempFile( "tokenizer", ".txt" );
+			try
+			{
+				Files.write( file.toPath(), input.getBytes( StandardCharsets.UTF_8 ) );
+				assertEquals( split( input ), mappedWords( file, Tokenizer.MAX_WINDOW ) );
+			} finally
+			{
+				file.delete();
+			}
+		} finally
+		{
+			Locale.setDefault( original );
+		}
+	}
+
+	private String words( String input ) throws IOException
+	{
+		List<String> found = new ArrayList<String>();
+		tokenizer.tokenize( new StringReader( input ), ( chars, offset, length, line ) -> found.add( line + ":" + new String( chars, offset, length ) ) );
+		return found.toString();
+	}
+
+	private String mappedWords( File file, int window ) throws IOException
+	{
+		List<String> found = new ArrayList<String>();
+		try( FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.READ ) )
+		{
+			tokenizer.tokenize( channel, window, ( chars, offset, length, line ) -> found.add( line + ":" + new String( chars, offset, length ) ) );
+		}
+		return found.toString();
+	}
+
+	/**
+	 * The words of WordTracker.processFile before Tokenizer.
+	 */
+	private static String split( String input ) throws IOException
+	{
+		List<String> found = new ArrayList<String>();
+		BufferedReader br = new BufferedReader( new StringReader( input ) );
+		String line;
+		int lineNumber = 1;
+		while( ( line = br.readLine() ) != null )
+		{
+			line = line.toLowerCase();
+			StringBuilder cleaned = new StringBuilder();
+			for( char c : line.toCharArray() )
+			{
+				cleaned.append( Character.isLetter( c ) || Character.isWhitespace( c ) ? c : ' ' );
+			}
+			for( String w : cleaned.toString().trim().split( "\\s+" ) )
+			{
+				if( !w.isEmpty() )
+				{
+					found.add( lineNumber + ":" + w );
+				}
+			}
+			lineNumber++;
+		}
+		return found.toString();
+	}
+}
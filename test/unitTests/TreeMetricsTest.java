@@ -0,0 +1,220 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import implementations.AVLTree;
+import implementations.BSTree;
+import implementations.PersistentBSTree;
+import implementations.SplayTree;
+import implementations.TreeMetrics;
+
+/**
+ * Class Description: Tests for the operation counters collected by the trees
+ * once metrics are enabled.
+ */
+public class TreeMetricsTest
+{
+	// Attributes
+	private BSTree<Integer> tree;
+
+	/**
+	 * Initializes a new BSTree instance before each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception
+	{
+		tree = new BSTree<Integer>();
+	}
+
+	/**
+	 * Cleans up instances used after each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception
+	{
+		tree = null;
+	}
+
+	/**
+	 * Test method for {@link implementations.BSTree#getMetrics()}.
+	 */
+	@Test
+	public void testDisabledByDefault()
+	{
+		tree.add( 1 );
+		assertNull( tree.getMetrics() );
+		TreeMetrics metrics = tree.enableMetrics();
+		assertSame( metrics, tree.enableMetrics() );
+		assertSame( metrics, tree.getMetrics() );
+		tree.disableMetrics();
+		assertNull( tree.getMetrics() );
+	}
+
+	/**
+	 * Test method for the counters of {@link implementations.BSTree}: on the
+	 * tree 2, 1, 3 every path length is known.
+	 */
+	@Test
+	public void testBSTreeCounters()
+	{
+		TreeMetrics metrics = tree.enableMetrics();
+		tree.add( 2 );
+		tree.add( 1 );
+		tree.add( 3 );
+		tree.add( 3 );
+		assertTrue( tree.contains( 1 ) );
+		assertFalse( tree.contains( 4 ) );
+
+		assertEquals( 3, metrics.getInserts() );
+		assertEquals( 3, metrics.getSearches() );
+		// Inserts compared 0, 1 and 1 nodes, searches 2, 2 and 2
+		assertEquals( 8, metrics.getComparisons() );
+		assertEquals( 8 / 6.0, metrics.getMeanPathLength(), 1e-9 );
+		long[] histogram = metrics.getPathLengthHistogram();
+		assertEquals( 1, histogram[0] );
+		assertEquals( 2, histogram[1] );
+		assertEquals( 3, histogram[2] );
+		assertEquals( 0, metrics.getRotations() );
+
+		tree.removeMin();
+		tree.removeMax();
+		assertEquals( 2, metrics.getRemovals() );
+
+		tree.inorderIterator();
+		tree.preorderIterator();
+		tree.stream().count();
+		assertEquals( 3, metrics.getIteratorsCreated() );
+	}
+
+	/**
+	 * Test method for {@link implementations.TreeMetrics#snapshot()} and
+	 * {@link implementations.TreeMetrics#reset()}.
+	 */
+	@Test
+	public void testSnapshotAndReset()
+	{
+		TreeMetrics metrics = tree.enableMetrics();
+		tree.add( 1 );
+		TreeMetrics snapshot = metrics.snapshot();
+		tree.add( 2 );
+		assertEquals( 1, snapshot.getInserts() );
+		assertEquals( 2, metrics.getInserts() );
+		assertTrue( snapshot.toString().contains( "inserts: 1" ) );
+
+		metrics.reset();
+		assertEquals( 0, metrics.getInserts() );
+		assertEquals( 0, metrics.getComparisons() );
+		assertEquals( 0, metrics.getPathLengthHistogram()[0] );
+		assertEquals( 0.0, metrics.getMeanPathLength(), 0 );
+	}
+
+	/**
+	 * Test method for the last bucket of the histogram, which also counts paths
+	 * longer than the histogram.
+	 */
+	@Test
+	public void testLongPathsShareLastBucket()
+	{
+		TreeMetrics metrics = tree.enableMetrics();
+		for( int i = 0; i < 100; i++ )
+		{
+			tree.add( i );
+		}
+		// Ascending keys build a chain, so insert i compares against i nodes
+		long[] histogram = metrics.getPathLengthHistogram();
+		assertEquals( 100 - ( TreeMetrics.HISTOGRAM_BUCKETS - 1 ), histogram[TreeMetrics.HISTOGRAM_BUCKETS - 1] );
+		assertEquals( 99 * 100 / 2, metrics.getComparisons() );
+	}
+
+	/**
+	 * Test method for the rotations counted by {@link implementations.AVLTree}.
+	 */
+	@Test
+	public void testAVLTreeRotations()
+	{
+		AVLTree<Integer> avl = new AVLTree<Integer>();
+		TreeMetrics metrics = avl.enableMetrics();
+		avl.add( 1 );
+		avl.add( 2 );
+		avl.add( 3 );
+		assertEquals( 1, metrics.getRotations() );
+		avl.add( 2 );
+		assertEquals( 3, metrics.getInserts() );
+		assertEquals( 1, metrics.getSearches() );
+		// 0 + 1 + 2 for the inserts, 1 for finding 2 at the new root
+		assertEquals( 4, metrics.getComparisons() );
+		avl.removeMin();
+		assertEquals( 1, metrics.getRemovals() );
+	}
+
+	/**
+	 * Test method for the rotations counted by {@link implementations.SplayTree}.
+	 */
+	@Test
+	public void testSplayTreeRotations()
+	{
+		SplayTree<Integer> splay = new SplayTree<Integer>();
+		TreeMetrics metrics = splay.enableMetrics();
+		splay.add( 1 );
+		splay.add( 2 );
+		assertEquals( 1, metrics.getRotations() );
+		assertTrue( splay.contains( 1 ) );
+		assertEquals( 2, metrics.getRotations() );
+		assertEquals( 1, metrics.getSearches() );
+		splay.removeMax();
+		assertEquals( 1, metrics.getRemovals() );
+	}
+
+	/**
+	 * Test method for the rotations counted by
+	 * {@link implementations.PersistentBSTree}.
+	 */
+	@Test
+	public void testPersistentBSTreeRotations()
+	{
+		PersistentBSTree<Integer> persistent = new PersistentBSTree<Integer>();
+		TreeMetrics metrics = persistent.enableMetrics();
+		persistent.add( 3 );
+		persistent.add( 1 );
+		persistent.add( 2 );
+		// Left-right case: a double rotation
+		assertEquals( 2, metrics.getRotations() );
+		assertEquals( 3, metrics.getInserts() );
+		persistent.removeMin();
+		assertEquals( 1, metrics.getRemovals() );
+	}
+
+	/**
+	 * Test method for {@link implementations.TreeMetrics#register(String)}.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Test
+	public void testRegister() throws Exception
+	{
+		TreeMetrics metrics = tree.enableMetrics();
+		tree.add( 1 );
+		ObjectName name = metrics.register( "TreeMetricsTest" );
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try
+		{
+			assertEquals( 1L, server.getAttribute( name, "Inserts" ) );
+		} finally
+		{
+			server.unregisterMBean( name );
+		}
+	}
+}
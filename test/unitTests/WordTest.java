@@ -0,0 +1,161 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import application.FileTable;
+import application.Word;
+
+/**
+ * Class Description: Tests for the occurrence storage of Word and its views.
+ */
+public class WordTest
+{
+	// Attributes
+	private Word word;
+
+	/**
+	 * Initializes a new Word before each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception
+	{
+		word = new Word( "Tree" );
+	}
+
+	/**
+	 * Cleans up instances used after each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception
+	{
+		word = null;
+	}
+
+	/**
+	 * Test method for {@link application.Word#addOccurrence(java.lang.String, int)}
+	 * and the views returned by getFiles and getOccurrences.
+	 */
+	@Test
+	public void testOccurrenceViews()
+	{
+		assertEquals( "tree", word.getText() );
+		assertTrue( word.getFiles().isEmpty() );
+		assertTrue( word.getOccurrences().isEmpty() );
+
+		for( int line = 1; line <= 100; line++ )
+		{
+			word.addOccurrence( "b.txt", line );
+		}
+		word.addOccurrence( "a.txt", 7 );
+		word.addOccurrence( FileTable.intern( "b.txt" ), 101 );
+		assertEquals( 102, word.getFrequency() );
+
+		// Files are listed in the order they were first seen
+		assertEquals( Arrays.asList( "b.txt", "a.txt" ), Arrays.asList( word.getFiles().toArray() ) );
+		assertTrue( word.getFiles().contains( "a.txt" ) );
+		assertFalse( word.getFiles().contains( "c.txt" ) );
+
+		Map<String, List<Integer>> occurrences = word.getOccurrences();
+		assertEquals( 2, occurrences.size() );
+		assertEquals( "[7]", occurrences.get( "a.txt" ).toString() );
+		List<Integer> lines = occurrences.get( "b.txt" );
+		assertEquals( 101, lines.size() );
+		assertEquals( 101, (int) lines.get( 100 ) );
+		assertNull( occurrences.get( "c.txt" ) );
+		assertNull( occurrences.get( null ) );
+
+		// A list keeps the lines recorded when it was obtained
+		word.addOccurrence( "b.txt", 102 );
+		assertEquals( 101, lines.size() );
+		assertEquals( 102, word.getOccurrences().get( "b.txt" ).size() );
+
+		try
+		{
+			lines.add( 1 );
+			fail( "View of the lines accepted an element." );
+		} catch( UnsupportedOperationException e )
+		{
+		}
+	}
+
+	/**
+	 * Test method for {@link application.Word#merge(application.Word)}.
+	 */
+	@Test
+	public void testMerge()
+	{
+		Word other = new Word( "tree" );
+		word.addOccurrence( "a.txt", 1 );
+		other.addOccurrence( "b.txt", 2 );
+		other.addOccurrence( "a.txt", 3 );
+
+		assertSame( word, word.merge( other ) );
+		assertEquals( 3, word.getFrequency() );
+		assertEquals( Arrays.asList( 1, 3 ), word.getOccurrences().get( "a.txt" ) );
+		assertEquals( Arrays.asList( 2 ), word.getOccurrences().get( "b.txt" ) );
+		assertEquals( 2, other.getFrequency() );
+	}
+
+	/**
+	 * Test method for the serialized form of Word, which stores the file names
+	 * and the compressed line numbers.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testSerialization() throws Exception
+	{
+		word.addOccurrence( "b.txt", 4 );
+		word.addOccurrence( "a.txt", 5 );
+		word.addOccurrence( "b.txt", 6 );
+		for( int line = 1000; line < 1300; line++ )
+		{
+			word.addOccurrence( "c.txt", line * 3 );
+		}
+		word.addOccurrence( "c.txt", 2 );
+
+		Word copy = roundTrip( word );
+		assertEquals( "tree", copy.getText() );
+		assertEquals( 304, copy.getFrequency() );
+		assertEquals( word.getOccurrences(), copy.getOccurrences() );
+		assertEquals( Arrays.asList( "b.txt", "a.txt", "c.txt" ), Arrays.asList( copy.getFiles().toArray() ) );
+		List<Integer> lines = copy.getOccurrences().get( "c.txt" );
+		assertEquals( 3897, (int) lines.get( 299 ) );
+		assertEquals( 2, (int) lines.get( 300 ) );
+
+		copy.addOccurrence( "a.txt", 9 );
+		assertEquals( Arrays.asList( 5, 9 ), copy.getOccurrences().get( "a.txt" ) );
+		assertEquals( Collections.emptyMap(), roundTrip( new Word( "leaf" ) ).getOccurrences() );
+	}
+
+	private static Word roundTrip( Word original ) throws IOException, ClassNotFoundException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try( ObjectOutputStream out = new ObjectOutputStream( bytes ) )
+		{
+			out.writeObject( original );
+		}
+		try( ObjectInputStream in = new ObjectInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ) )
+		{
+			return (Word) in.readObject();
+		}
+	}
+}
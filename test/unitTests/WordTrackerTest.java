@@ -0,0 +1,170 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import application.Word;
+import application.WordTracker;
+import implementations.BSTree;
+import implementations.TreeMetrics;
+import utilities.BSTreeADT;
+
+/**
+ * Class Description: Tests for processing several files into one repository.
+ */
+public class WordTrackerTest
+{
+	// Attributes
+	private File directory;
+
+	private List<String> files;
+
+	/**
+	 * Writes a corpus of small files with overlapping words, in a directory
+	 * below the temporary directory, before each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception
+	{
+		directory = Files.createTempDirectory( "wordtracker" ).toFile();
+		File nested = new File( directory, "nested" );
+		nested.mkdir();
+		String[] vocabulary = { "tree", "Node", "leaf", "root", "branch", "height", "balance", "key" };
+		Random random = new Random( 5 );
+		files = new ArrayList<String>();
+		for( int i = 0; i < 40; i++ )
+		{
+			StringBuilder text = new StringBuilder();
+			int lines = random.nextInt( i % 10 == 0 ? 500 : 20 );
+			for( int line = 0; line < lines; line++ )
+			{
+				for( int word = random.nextInt( 6 ); word > 0; word-- )
+				{
+					text.append( vocabulary[random.nextInt( vocabulary.length )] ).append( i % 7 ).append( ' ' );
+				}
+				text.append( '\n' );
+			}
+			File file = new File( i % 2 == 0 ? directory : nested, String.format( "file%02d.txt", i ) );
+			Files.write( file.toPath(), text.toString().getBytes( StandardCharsets.UTF_8 ) );
+			files.add( file.getPath() );
+		}
+	}
+
+	/**
+	 * Deletes the corpus after each test.
+	 *
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception
+	{
+		for( String file : files )
+		{
+			new File( file ).delete();
+		}
+		new File( directory, "nested" ).delete();
+		directory.delete();
+	}
+
+	/**
+	 * Test method for {@link application.WordTracker#processFiles(utilities.BSTreeADT, java.util.List, int, boolean)}:
+	 * processing on several threads gives the same report as one file after the
+	 * other, also into trees that already hold words.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void testProcessFilesSameAsSequential() throws IOException
+	{
+		for( String treeType : new String[] { "bst", "avl", "concurrent", "btree" } )
+		{
+			List<String> reports = new ArrayList<String>();
+			for( int threads : new int[] { 1, 3, 8 } )
+			{
+				BSTreeADT<Word> tree = WordTracker.createTree( treeType );
+				WordTracker.processFile( tree, files.get( 3 ) );
+				WordTracker.processFiles( tree, files, threads, threads == 3 );
+				reports.add( WordTracker.generateReport( tree, "-po" ) );
+			}
+			assertEquals( treeType, reports.get( 0 ), reports.get( 1 ) );
+			assertEquals( treeType, reports.get( 0 ), reports.get( 2 ) );
+		}
+	}
+
+	/**
+	 * Test method for {@link application.WordTracker#processFiles(utilities.BSTreeADT, java.util.List, int, boolean)}
+	 * with metrics enabled: every word is counted as one search or insert, on
+	 * one thread or several.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void testProcessFilesCountsMetrics() throws IOException
+	{
+		long[] lookups = new long[2];
+		int[] threads = { 1, 3 };
+		for( int i = 0; i < threads.length; i++ )
+		{
+			BSTree<Word> tree = new BSTree<Word>();
+			TreeMetrics metrics = tree.enableMetrics();
+			WordTracker.processFiles( tree, files, threads[i], false );
+			lookups[i] = metrics.getSearches() + metrics.getInserts();
+		}
+		assertTrue( "Failed to count the words.", lookups[0] > 0 );
+		assertEquals( "Failed to count parallel ingestion.", lookups[0], lookups[1] );
+	}
+
+	/**
+	 * Test method for {@link application.WordTracker#expandInputs(java.util.List)}.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void testExpandInputs() throws IOException
+	{
+		List<String> sorted = new ArrayList<String>( files );
+		Collections.sort( sorted );
+		assertEquals( sorted, WordTracker.expandInputs( Arrays.asList( directory.getPath() ) ) );
+
+		List<String> topLevel = new ArrayList<String>();
+		for( String file : sorted )
+		{
+			if( new File( file ).getParentFile().equals( directory ) && file.compareTo( new File( directory, "file2" ).getPath() ) < 0 )
+			{
+				topLevel.add( file );
+			}
+		}
+		String pattern = directory.getPath() + File.separator + "file[01]*.txt";
+		assertEquals( topLevel, WordTracker.expandInputs( Arrays.asList( pattern ) ) );
+
+		// The walk stops at the depth of the pattern, but ** crosses directories
+		List<String> nested = new ArrayList<String>();
+		for( String file : sorted )
+		{
+			if( !new File( file ).getParentFile().equals( directory ) )
+			{
+				nested.add( file );
+			}
+		}
+		assertEquals( nested, WordTracker.expandInputs( Arrays.asList( directory.getPath() + File.separator + "*" + File.separator + "file*.txt" ) ) );
+		assertEquals( nested, WordTracker.expandInputs( Arrays.asList( directory.getPath() + File.separator + "**" + File.separator + "file*.txt" ) ) );
+
+		// Plain names are kept in the given order, even if they do not exist
+		assertEquals( Arrays.asList( "b.txt", "a.txt" ), WordTracker.expandInputs( Arrays.asList( "b.txt", "a.txt" ) ) );
+	}
+}